@@ -1,28 +1,70 @@
 package org.example;
 
+import ch.qos.logback.classic.LoggerContext;
 import io.undertow.Undertow;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.RoutingHandler;
 import io.undertow.util.Headers;
+import org.example.config.AppProperties;
 import org.example.config.AuthMiddleware;
+import org.example.config.BlockingDispatcher;
 import org.example.config.DatabaseConfig;
+import org.example.config.ReadRouting;
+import org.example.config.RequestTrace;
 import org.example.controller.AuthController;
+import org.example.controller.MetricsController;
 import org.example.controller.TransactionController;
+import org.example.repository.TransactionRepository;
+import org.example.repository.WalletRepository;
+import org.example.service.AuditLogger;
+import org.example.service.GroupCommitLedger;
+import org.example.service.RevenueShards;
+import org.example.service.RevenueSweeper;
+import org.example.service.UserCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class JpesaApp {
 
+    private static final Logger log = LoggerFactory.getLogger(JpesaApp.class);
+
     public static void main(String[] args) {
-        // 1. Initialize Controllers
+        // 1. Resolve the revenue shard wallets once (shared by transfers and the sweeper)
+        WalletRepository walletRepository = new WalletRepository();
+        RevenueShards revenueShards = new RevenueShards(walletRepository);
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            log.info("Revenue shards resolved: {} wallet(s)", revenueShards.walletIds(conn).length);
+        } catch (Exception e) {
+            log.warn("Revenue shards not resolved at startup (will retry on first transfer): {}", e.getMessage());
+        }
+
+        // Opt-in: batch deposits/airtime into shared DB transactions
+        GroupCommitLedger groupCommitLedger = AppProperties.getBoolean("txn.groupCommit.enabled", false)
+                ? new GroupCommitLedger(walletRepository, new TransactionRepository(), DatabaseConfig::getConnection)
+                : null;
+
+        // Drop L1 user entries when any node invalidates them
+        UserCache.shared().startInvalidationListener();
+
+        // 2. Initialize Controllers
         AuthController authController = new AuthController();
-        TransactionController txnController = new TransactionController();
+        TransactionController txnController = new TransactionController(revenueShards, groupCommitLedger);
+        MetricsController metricsController = new MetricsController();
 
-        // 2. Define Routes (The "Traffic Cop")
+        // 3. Define Routes (The "Traffic Cop")
         RoutingHandler routes = new RoutingHandler()
                 // Health Check
                 .get("/health", exchange -> {
                     exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "text/plain");
                     exchange.getResponseSender().send("Jpesa System Online");
                 })
+                // Prometheus scrape target (pool, caches, BCrypt pool)
+                .get("/metrics", metricsController.metricsHandler())
 
                 // Auth Routes
                 .post("/api/auth/register", authController.registerHandler())
@@ -34,34 +76,60 @@ public class JpesaApp {
                 .post("/api/txn/airtime",  new AuthMiddleware(txnController.airtimeHandler()))
                 .post("/api/txn/send",  new AuthMiddleware(txnController.sendMoneyHandler()))
                 .get("/api/txn/ministatement",  new AuthMiddleware(txnController.miniStatementHandler()))
+                .get("/api/txn/statement",  new AuthMiddleware(txnController.statementHandler()))
                 // Password Reset
                 .post("/api/auth/forgot-password", authController.initiateResetHandler())
                 .post("/api/auth/reset-password", authController.completeResetHandler())
                 .get("/api/auth/profile", new AuthMiddleware(authController.profileHandler()));
 
 
-        // 3. Configure & Start Server
-        int port = 8080;
+        // 4. Configure & Start Server
+        int port = AppProperties.getInt("server.port", 8080);
         String host = "0.0.0.0"; // Listens on all interfaces
 
         Undertow server = Undertow.builder()
                 .addHttpListener(port, host)
-                .setHandler(routes)
+                .setHandler(RequestTrace.root(routes)) // trace id + per-request timing line
                 .build();
 
-        System.out.println("------------------------------------------------");
-        System.out.println(" J-PESA BACKEND STARTED");
-        System.out.println(" Database: " + "Connected (HikariCP)");
-        System.out.println(" Server:   http://" + host + ":" + port);
-        System.out.println("------------------------------------------------");
+        log.info("------------------------------------------------");
+        log.info(" J-PESA BACKEND STARTED");
+        log.info(" Database: Connected (HikariCP)");
+        log.info(" Handlers: {} threads", BlockingDispatcher.mode());
+        log.info(" Ledger:   {}", groupCommitLedger != null ? "Group commit" : "Per-request commit");
+        log.info(" Reads:    {}", ReadRouting.shared().hasReplica() ? "Replica + primary" : "Primary only");
+        log.info(" Server:   http://{}:{}", host, port);
+        log.info("------------------------------------------------");
 
         server.start();
 
-        // 4. Add Shutdown Hook to close DB pool gracefully
+        // 5. Background Jobs: fold revenue shards back into the main "000000" wallet
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jpesa-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepInterval = AppProperties.getLong("revenue.sweepIntervalSeconds", 60);
+        scheduler.scheduleWithFixedDelay(
+                new RevenueSweeper(revenueShards, walletRepository, new TransactionRepository(), DatabaseConfig::getConnection),
+                sweepInterval, sweepInterval, TimeUnit.SECONDS);
+
+        // Replica lag decides the read-your-writes window and whether the replica is used at all
+        if (ReadRouting.shared().hasReplica()) {
+            long lagCheckMillis = AppProperties.getLong("db.replica.lagCheckMillis", 1000);
+            scheduler.scheduleWithFixedDelay(ReadRouting.shared()::checkLag, 0, lagCheckMillis, TimeUnit.MILLISECONDS);
+        }
+
+        // 6. Add Shutdown Hook to close DB pool gracefully
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            System.out.println("Stopping J-PESA...");
+            log.info("Stopping J-PESA...");
+            scheduler.shutdownNow();
+            if (groupCommitLedger != null) groupCommitLedger.close(); // flush queued deposits first
+            AuditLogger.shared().close(); // flush queued audit events while the pool is still open
             DatabaseConfig.close();
             server.stop();
+            // Last: drains the async appender so the shutdown lines are not lost
+            if (LoggerFactory.getILoggerFactory() instanceof LoggerContext logback) logback.stop();
         }));
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package org.example.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Optional tuning flags from application.properties.
+ * Every lookup carries its own default, so a missing key (or file, e.g. in unit tests)
+ * simply keeps the standard behaviour. A -Dkey=value system property wins over the file.
+ */
+public final class AppProperties {
+
+    private static final Properties props = loadProperties();
+
+    private AppProperties() {}
+
+    private static Properties loadProperties() {
+        Properties props = new Properties();
+        try (InputStream input = AppProperties.class.getClassLoader().getResourceAsStream("application.properties")) {
+            if (input != null) {
+                props.load(input);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading configuration properties", e);
+        }
+        return props;
+    }
+
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key, props.getProperty(key));
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        return Long.parseLong(get(key, String.valueOf(defaultValue)));
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(get(key, String.valueOf(defaultValue)));
+    }
+}
@@ -6,13 +6,20 @@ import io.undertow.util.Headers;
 import io.undertow.util.HeaderMap;
 import org.example.controller.TransactionController; // Import the Controller
 import org.example.util.JwtUtil;
+import org.example.util.VerifiedTokenCache;
 
 public class AuthMiddleware implements HttpHandler {
 
     private final HttpHandler next;
+    private final VerifiedTokenCache tokenCache;
 
     public AuthMiddleware(HttpHandler next) {
+        this(next, VerifiedTokenCache.shared());
+    }
+
+    public AuthMiddleware(HttpHandler next, VerifiedTokenCache tokenCache) {
         this.next = next;
+        this.tokenCache = tokenCache;
     }
 
     @Override
@@ -30,12 +37,17 @@ public class AuthMiddleware implements HttpHandler {
         String token = authHeader.substring(7); // Remove "Bearer " prefix
 
         try {
-            // 3. Validate Token
-            String phoneNumber = JwtUtil.validateTokenAndGetPhone(token);
+            // 3. Validate Token (signature is only checked the first time a token is seen)
+            long authStart = System.nanoTime();
+            JwtUtil.VerifiedToken verified = tokenCache.verify(token);
+            RequestTrace.of(exchange).record(RequestTrace.Phase.AUTH, authStart);
 
-            // 4. Attach the phone number using the SHARED KEY from TransactionController
+            // 4. Attach the claims using the SHARED KEYS from TransactionController
             // FIX: Do not use 'AttachmentKey.create()' here, use the existing static key.
-            exchange.putAttachment(TransactionController.USER_PHONE_KEY, phoneNumber);
+            exchange.putAttachment(TransactionController.USER_PHONE_KEY, verified.phoneNumber());
+            if (verified.userId() != null) {
+                exchange.putAttachment(TransactionController.USER_ID_KEY, verified.userId());
+            }
 
             // 5. Allow request to proceed to the Controller
             next.handleRequest(exchange);
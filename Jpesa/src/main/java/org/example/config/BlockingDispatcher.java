@@ -0,0 +1,56 @@
+package org.example.config;
+
+import io.undertow.server.HttpHandler;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Moves blocking handlers (JDBC, BCrypt, Redis) off the Undertow IO thread.
+ *
+ * server.executionMode=worker  (default) - the XNIO worker pool, as before
+ * server.executionMode=virtual - one virtual thread per request; DatabaseConfig then puts a
+ *                                 semaphore in front of HikariCP so thousands of virtual
+ *                                 threads queue for a permit instead of stampeding the pool
+ */
+public final class BlockingDispatcher {
+
+    public static final String MODE_WORKER = "worker";
+    public static final String MODE_VIRTUAL = "virtual";
+
+    private static final String MODE = AppProperties.get("server.executionMode", MODE_WORKER);
+
+    // null = let Undertow use its own worker pool
+    private static final Executor executor = MODE_VIRTUAL.equalsIgnoreCase(MODE)
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : null;
+
+    private BlockingDispatcher() {}
+
+    public static boolean isVirtual() {
+        return executor != null;
+    }
+
+    public static String mode() {
+        return isVirtual() ? MODE_VIRTUAL : MODE_WORKER;
+    }
+
+    /**
+     * Wraps a handler so it always runs on the configured blocking executor, with the
+     * request's trace id in the MDC.
+     */
+    public static HttpHandler dispatch(HttpHandler blockingHandler) {
+        HttpHandler handler = RequestTrace.withMdc(blockingHandler);
+        return exchange -> {
+            if (exchange.isInIoThread()) {
+                if (executor != null) {
+                    exchange.dispatch(executor, handler);
+                } else {
+                    exchange.dispatch(handler);
+                }
+                return;
+            }
+            handler.handleRequest(exchange);
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Source of JDBC connections for code that manages its own transaction.
+ * The app passes DatabaseConfig::getConnection; tests can pass any DataSource.
+ */
+@FunctionalInterface
+public interface ConnectionProvider {
+    Connection getConnection() throws SQLException;
+}
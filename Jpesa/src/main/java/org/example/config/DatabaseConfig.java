@@ -2,15 +2,30 @@ package org.example.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.example.util.PrometheusText;
+
 import javax.sql.DataSource;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
 import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 public class DatabaseConfig {
 
     private static final HikariDataSource dataSource;
+    // Optional read replica (db.replica.url), null when not configured. See ReadRouting.
+    private static final HikariDataSource replicaDataSource;
+    private static final PoolMetrics poolMetrics = new PoolMetrics();
+
+    // Admission gate in front of the pool (virtual-thread mode only, null otherwise)
+    private static final Semaphore connectionPermits;
+    private static final long connectionTimeoutMs;
 
     static {
         try{
@@ -30,12 +45,64 @@ public class DatabaseConfig {
             config.setConnectionTimeout(Long.parseLong(props.getProperty("hikari.connectionTimeout")));
             config.setMaxLifetime(Long.parseLong(props.getProperty("hikari.maxLifetime")));
 
+            // Driver Tuning + /metrics
+            applyDriverProfile(config, props.getProperty("db.profile", "tuned"), props);
+            config.setMetricsTrackerFactory(poolMetrics);
+
             dataSource = new HikariDataSource(config);
+            replicaDataSource = createReplicaDataSource(props, config);
+
+            // Virtual threads are cheap, so thousands can ask for a connection at once.
+            // A fair semaphore sized to the pool makes them queue FIFO outside HikariCP.
+            connectionTimeoutMs = config.getConnectionTimeout();
+            connectionPermits = BlockingDispatcher.isVirtual()
+                    ? new Semaphore(Integer.parseInt(props.getProperty("db.connectionPermits", String.valueOf(config.getMaximumPoolSize()))), true)
+                    : null;
         } catch (Exception e) {
             throw new RuntimeException("CRITICAL: Failed to initialize database connection pool", e);
         }
     }
 
+    /**
+     * tuned (default): every statement the repositories run is a constant SQL string, so have
+     * pgjdbc server-prepare it on first use and keep it in the per-connection statement cache;
+     * pooled connections then skip parse/plan for repeat calls. Batched INSERTs are rewritten
+     * into multi-row ones.
+     * driver: leave pgjdbc's defaults (server-prepare after 5 executions, no batch rewrite).
+     * Use driver behind a transaction-mode pgbouncer, which cannot keep server-side statements.
+     */
+    public static void applyDriverProfile(HikariConfig config, String profile, Properties props) {
+        switch (profile) {
+            case "tuned" -> {
+                config.addDataSourceProperty("prepareThreshold", props.getProperty("db.prepareThreshold", "1"));
+                config.addDataSourceProperty("preparedStatementCacheQueries", props.getProperty("db.preparedStatementCacheQueries", "256"));
+                config.addDataSourceProperty("preparedStatementCacheSizeMiB", props.getProperty("db.preparedStatementCacheSizeMiB", "5"));
+                config.addDataSourceProperty("reWriteBatchedInserts", "true");
+            }
+            case "driver" -> { }
+            default -> throw new IllegalStateException("Unknown db.profile: " + profile);
+        }
+    }
+
+    private static HikariDataSource createReplicaDataSource(Properties props, HikariConfig primary) {
+        String url = props.getProperty("db.replica.url");
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        HikariConfig config = new HikariConfig();
+        primary.copyStateTo(config);
+        config.setPoolName("jpesa-replica");
+        config.setMetricsTrackerFactory(null); // /metrics pool gauges describe the primary
+        config.setJdbcUrl(url);
+        config.setUsername(props.getProperty("db.replica.username", primary.getUsername()));
+        config.setPassword(props.getProperty("db.replica.password", primary.getPassword()));
+        config.setMaximumPoolSize(Integer.parseInt(props.getProperty("hikari.replica.maximumPoolSize", String.valueOf(primary.getMaximumPoolSize()))));
+        config.setReadOnly(true);
+        // Start even if the replica is down; ReadRouting falls back to the primary
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+
     private static Properties loadProperties() {
         Properties props = new Properties();
         try (InputStream input = DatabaseConfig.class.getClassLoader().getResourceAsStream("application.properties")){
@@ -51,7 +118,60 @@ public class DatabaseConfig {
 
     // Provides a connection from the pool
     public static Connection getConnection() throws SQLException{
-        return dataSource.getConnection();
+        if (connectionPermits == null) {
+            return dataSource.getConnection();
+        }
+        return gatedConnection();
+    }
+
+    private static Connection gatedConnection() throws SQLException {
+        try {
+            if (!connectionPermits.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Timed out waiting for a database connection permit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted waiting for a database connection permit", e);
+        }
+
+        Connection connection;
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            connectionPermits.release();
+            throw e;
+        }
+
+        // Hand the permit back exactly once, when the caller closes the connection
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    boolean releasePermit = "close".equals(method.getName()) && released.compareAndSet(false, true);
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if (releasePermit) connectionPermits.release();
+                    }
+                });
+    }
+
+    public static boolean hasReplica() {
+        return replicaDataSource != null;
+    }
+
+    // Read-only connection from the replica pool; callers go through ReadRouting
+    public static Connection getReplicaConnection() throws SQLException {
+        if (replicaDataSource == null) {
+            throw new SQLException("No read replica configured (db.replica.url)");
+        }
+        return replicaDataSource.getConnection();
+    }
+
+    // Pool gauges + acquire-time histogram, served on /metrics
+    public static void writeMetrics(PrometheusText out) {
+        poolMetrics.writeTo(out, connectionPermits == null ? 0 : connectionPermits.getQueueLength());
     }
 
     // Useful if we need to pass the DataSource to other libraries
@@ -64,5 +184,8 @@ public class DatabaseConfig {
         if (dataSource != null && !dataSource.isClosed()){
             dataSource.close();
         }
+        if (replicaDataSource != null && !replicaDataSource.isClosed()){
+            replicaDataSource.close();
+        }
     }
 }
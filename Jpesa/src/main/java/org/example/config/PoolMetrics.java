@@ -0,0 +1,95 @@
+package org.example.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.example.util.PrometheusText;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HikariCP metrics without a metrics library: pool gauges read from Hikari's PoolStats, plus
+ * a fixed-bucket histogram of how long callers waited for a connection.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    // Acquire-time bucket bounds in seconds (0.1 ms .. 5 s), Prometheus convention
+    static final double[] ACQUIRE_BUCKETS = {0.0001, 0.0005, 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5};
+
+    private final LongAdder[] acquireCounts = new LongAdder[ACQUIRE_BUCKETS.length + 1];
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+    private final LongAdder usages = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private volatile PoolStats poolStats;
+
+    public PoolMetrics() {
+        for (int i = 0; i < acquireCounts.length; i++) {
+            acquireCounts[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                created.increment();
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                recordAcquire(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageMillis.add(elapsedBorrowedMillis);
+                usages.increment();
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    void recordAcquire(long nanos) {
+        acquireNanos.add(nanos);
+        double seconds = nanos / 1e9;
+        int bucket = 0;
+        while (bucket < ACQUIRE_BUCKETS.length && seconds > ACQUIRE_BUCKETS[bucket]) {
+            bucket++;
+        }
+        acquireCounts[bucket].increment();
+    }
+
+    /**
+     * @param permitWaiters callers queued on the virtual-thread connection gate (0 in worker mode)
+     */
+    public void writeTo(PrometheusText out, int permitWaiters) {
+        PoolStats stats = poolStats;
+        if (stats != null) {
+            out.gauge("jpesa_db_pool_active_connections", "Connections currently borrowed", stats.getActiveConnections())
+               .gauge("jpesa_db_pool_idle_connections", "Connections idle in the pool", stats.getIdleConnections())
+               .gauge("jpesa_db_pool_pending_threads", "Threads waiting inside HikariCP for a connection", stats.getPendingThreads())
+               .gauge("jpesa_db_pool_total_connections", "Open connections", stats.getTotalConnections())
+               .gauge("jpesa_db_pool_max_connections", "hikari.maximumPoolSize", stats.getMaxConnections());
+        }
+        out.gauge("jpesa_db_permit_waiters", "Virtual threads queued for a connection permit", permitWaiters);
+
+        long[] buckets = new long[acquireCounts.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = acquireCounts[i].sum();
+        }
+        out.histogram("jpesa_db_pool_acquire_seconds", "Time to get a connection from the pool",
+                        ACQUIRE_BUCKETS, buckets, acquireNanos.sum() / 1e9)
+           .counter("jpesa_db_pool_usage_seconds_total", "Time connections were held by callers", usageMillis.sum() / 1e3)
+           .counter("jpesa_db_pool_usages_total", "Connections returned to the pool", usages.sum())
+           .counter("jpesa_db_pool_timeouts_total", "Connection requests that timed out", timeouts.sum())
+           .counter("jpesa_db_pool_connections_created_total", "Physical connections opened", created.sum());
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only repository calls to the replica pool (db.replica.url), but only inside
+ * replicaRead(...). Everywhere else, including reads that feed a write such as the balance
+ * an airtime purchase subtracts from, stays on the primary.
+ *
+ * Read-your-writes: after recordWrite(subject), that subject's reads stay on the primary for
+ * db.replica.readYourWritesMillis, or for the replica's measured lag if that is longer.
+ * A replica further behind than db.replica.maxLagMillis, or one that errors, is skipped and
+ * the read is served by the primary.
+ */
+public class ReadRouting {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadRouting.class);
+
+    private static volatile ReadRouting shared;
+
+    // Lag query: 0 when the replica has replayed everything it received (an idle primary
+    // otherwise makes pg_last_xact_replay_timestamp() look older and older)
+    private static final String REPLICA_LAG_MILLIS =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final ConnectionProvider primary;
+    private final ConnectionProvider replica; // null: no replica configured
+    private final long readYourWritesMillis;
+    private final long maxLagMillis;
+
+    // subject -> System.nanoTime() of its last write
+    private final Cache<String, Long> recentWrites;
+    private final ThreadLocal<Boolean> inReplicaRead = ThreadLocal.withInitial(() -> false);
+
+    private volatile long lagMillis;
+    private volatile boolean replicaHealthy = true;
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder pinnedReads = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReadRouting(ConnectionProvider primary, ConnectionProvider replica, long readYourWritesMillis, long maxLagMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWritesMillis = readYourWritesMillis;
+        this.maxLagMillis = maxLagMillis;
+        // Nothing is pinned for longer than maxLagMillis: beyond that the replica is skipped anyway
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(Math.max(readYourWritesMillis, maxLagMillis), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Routing for DatabaseConfig's pools.
+     */
+    public static ReadRouting shared() {
+        if (shared == null) {
+            synchronized (ReadRouting.class) {
+                if (shared == null) {
+                    shared = new ReadRouting(DatabaseConfig::getConnection,
+                            DatabaseConfig.hasReplica() ? DatabaseConfig::getReplicaConnection : null,
+                            AppProperties.getLong("db.replica.readYourWritesMillis", 1000),
+                            AppProperties.getLong("db.replica.maxLagMillis", 10_000));
+                }
+            }
+        }
+        return shared;
+    }
+
+    public boolean hasReplica() {
+        return replica != null;
+    }
+
+    /**
+     * Runs reads that may see slightly stale data (a mini-statement, a profile) with
+     * replica routing on for this thread. If the replica fails, the reads are run again on
+     * the primary, so they must not write.
+     * @param subject whose data is read (normalized phone), for read-your-writes
+     */
+    public <T> T replicaRead(String subject, Supplier<T> reads) {
+        if (replica == null || !replicaHealthy || inReplicaRead.get()) {
+            return reads.get();
+        }
+        Long lastWrite = recentWrites.getIfPresent(subject);
+        if (lastWrite != null && System.nanoTime() - lastWrite < TimeUnit.MILLISECONDS.toNanos(pinWindowMillis())) {
+            pinnedReads.increment();
+            return reads.get();
+        }
+
+        inReplicaRead.set(true);
+        try {
+            return reads.get();
+        } catch (RuntimeException e) {
+            if (!isDatabaseError(e)) throw e;
+            fallbacks.increment();
+            log.warn("Replica read failed, retrying on primary: {}", e.getMessage());
+            inReplicaRead.set(false);
+            return reads.get();
+        } finally {
+            inReplicaRead.set(false);
+        }
+    }
+
+    /**
+     * Call after a commit that changed the subject's data.
+     */
+    public void recordWrite(String subject) {
+        if (replica != null) {
+            recentWrites.put(subject, System.nanoTime());
+        }
+    }
+
+    /**
+     * For repository methods that only read: the replica inside replicaRead(...), else the primary.
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (!inReplicaRead.get() || !replicaHealthy) {
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection conn = replica.getConnection();
+            replicaReads.increment();
+            return conn;
+        } catch (SQLException e) {
+            fallbacks.increment();
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Measures replica lag; scheduled by JpesaApp every db.replica.lagCheckMillis.
+     * An unreachable or too-far-behind replica is taken out of rotation until the next check.
+     */
+    public void checkLag() {
+        if (replica == null) return;
+        try (Connection conn = replica.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(REPLICA_LAG_MILLIS)) {
+            rs.next();
+            lagMillis = (long) rs.getDouble(1);
+            replicaHealthy = lagMillis <= maxLagMillis;
+        } catch (SQLException e) {
+            replicaHealthy = false;
+            log.warn("Replica lag check failed: {}", e.getMessage());
+        }
+    }
+
+    private long pinWindowMillis() {
+        return Math.max(readYourWritesMillis, lagMillis);
+    }
+
+    private static boolean isDatabaseError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) return true;
+        }
+        return false;
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("replica_reads", replicaReads.sum());
+        stats.put("primary_reads", primaryReads.sum());
+        stats.put("pinned_reads", pinnedReads.sum());
+        stats.put("fallbacks", fallbacks.sum());
+        stats.put("lag_millis", lagMillis);
+        stats.put("replica_healthy", replicaHealthy && replica != null ? 1L : 0L);
+        return stats;
+    }
+}
@@ -4,33 +4,21 @@ import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Properties;
-
 public class RedisConfig {
 
     private static final JedisPool pool;
     public static final int TTL_SECONDS;
 
     static {
-        try {
-            Properties props = new Properties();
-            try (InputStream input = RedisConfig.class.getClassLoader().getResourceAsStream("application.properties")) {
-                props.load(input);
-            }
-
-            String host = props.getProperty("redis.host", "localhost");
-            int port = Integer.parseInt(props.getProperty("redis.port", "6379"));
-            TTL_SECONDS = Integer.parseInt(props.getProperty("redis.ttl", "600"));
+        // Through AppProperties so harnesses can point at another Redis with -Dredis.host
+        String host = AppProperties.get("redis.host", "localhost");
+        int port = AppProperties.getInt("redis.port", 6379);
+        TTL_SECONDS = AppProperties.getInt("redis.ttl", 600);
 
-            JedisPoolConfig poolConfig = new JedisPoolConfig();
-            poolConfig.setMaxTotal(128); // Max active connections
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(128); // Max active connections
 
-            pool = new JedisPool(poolConfig, host, port);
-        } catch (IOException e){
-            throw new RuntimeException("Failed to load Redis config", e);
-        }
+        pool = new JedisPool(poolConfig, host, port);
     }
 
     public static Jedis getConnection(){
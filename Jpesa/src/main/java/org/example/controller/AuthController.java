@@ -1,71 +1,91 @@
 package org.example.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.Headers;
+import org.example.config.BlockingDispatcher;
+import org.example.config.RequestTrace;
+import org.example.config.RequestTrace.Phase;
 import org.example.dto.*;
 import org.example.model.User;
+import org.example.service.AuditLogger;
+import org.example.service.ServerBusyException;
 import org.example.service.UserService;
 import org.example.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.Map;
 
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final UserService userService;
+    private final AuditLogger auditLogger;
     private final ObjectMapper objectMapper;
 
+    // Pre-built, thread-safe readers (one per request DTO)
+    private final ObjectReader registerReader;
+    private final ObjectReader loginReader;
+    private final ObjectReader verifyOtpReader;
+    private final ObjectReader mapReader;
+    private final ObjectReader passwordResetReader;
+
     public AuthController() {
         this.userService = new UserService();
+        this.auditLogger = AuditLogger.shared();
         this.objectMapper = new ObjectMapper();
         // Critical: Register module to handle LocalDateTime in JSON
         this.objectMapper.registerModule(new JavaTimeModule());
+
+        this.registerReader = objectMapper.readerFor(RegisterRequest.class);
+        this.loginReader = objectMapper.readerFor(LoginRequest.class);
+        this.verifyOtpReader = objectMapper.readerFor(VerifyOtpRequest.class);
+        this.mapReader = objectMapper.readerFor(Map.class);
+        this.passwordResetReader = objectMapper.readerFor(PasswordResetRequest.class);
     }
 
     /**
      * Handler for POST /api/auth/register
      */
     public HttpHandler registerHandler() {
-        return exchange -> {
-            if (exchange.isInIoThread()) {
-                exchange.dispatch(this::handleRegister); // Offload to worker thread
-                return;
-            }
-            handleRegister(exchange);
-        };
+        return JsonBody.read(registerReader, this::handleRegister);
     }
 
-    private void handleRegister(HttpServerExchange exchange) {
+    private void handleRegister(HttpServerExchange exchange, RegisterRequest request) {
         try {
-            // FIX: Must explicitly switch to blocking mode before reading the stream
-            exchange.startBlocking();
+            // 1. Body was already read & parsed (non-blocking) by JsonBody
 
-            // 1. Read JSON from request body (InputStream) -> DTO
-            InputStream inputStream = exchange.getInputStream();
-            RegisterRequest request = objectMapper.readValue(inputStream, RegisterRequest.class);
+            RequestTrace trace = RequestTrace.of(exchange);
 
             // 2. Call Service Logic
+            long dbStart = System.nanoTime();
             User newUser = userService.registerUser(request);
+            trace.record(Phase.DB, dbStart);
 
             // 3. Send Response (Convert Model -> JSON)
+            long serializeStart = System.nanoTime();
             UserResponse response = new UserResponse(newUser);
             String jsonResponse = objectMapper.writeValueAsString(response);
+            trace.record(Phase.SERIALIZE, serializeStart);
 
             exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
             exchange.setStatusCode(201); // Created
             exchange.getResponseSender().send(jsonResponse);
 
+        } catch (ServerBusyException e) {
+            sendServerBusy(exchange, e);
         } catch (IllegalArgumentException e) {
             // Client Error (Bad Input)
             exchange.setStatusCode(400);
             exchange.getResponseSender().send("{\"error\": \"" + e.getMessage() + "\"}");
         } catch (Exception e) {
             // Server Error
-            e.printStackTrace();
+            log.error("Registration failed", e);
             exchange.setStatusCode(500);
             exchange.getResponseSender().send("{\"error\": \"Internal Server Error\"}");
         }
@@ -75,56 +95,49 @@ public class AuthController {
      * Handler for POST /api/auth/login
      */
     public HttpHandler loginHandler() {
-        return exchange -> {
-            if (exchange.isInIoThread()) {
-                exchange.dispatch(this::handleLogin);
-                return;
-            }
-            handleLogin(exchange);
-        };
+        return JsonBody.read(loginReader, this::handleLogin);
     }
 
-    private void handleLogin(HttpServerExchange exchange) {
+    private void handleLogin(HttpServerExchange exchange, LoginRequest request) {
         try {
-            // FIX: Must explicitly switch to blocking mode here too
-            exchange.startBlocking();
-            InputStream inputStream = exchange.getInputStream();
-            LoginRequest request = objectMapper.readValue(inputStream, LoginRequest.class);
+            RequestTrace trace = RequestTrace.of(exchange);
 
             // Logic: Verify credentials & Generate OTP
+            long dbStart = System.nanoTime();
             String message = userService.loginUser(request);
+            trace.record(Phase.DB, dbStart);
+            auditLogger.log(null, "LOGIN_OTP_SENT " + request.getPhoneNumber(), clientIp(exchange));
 
             // Send JSON response
             // Map.of is a Java 9+ shortcut to create a quick map for JSON
+            long serializeStart = System.nanoTime();
             String jsonResponse = objectMapper.writeValueAsString(Map.of("message", message));
+            trace.record(Phase.SERIALIZE, serializeStart);
 
             exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
             exchange.setStatusCode(200); //OK
             exchange.getResponseSender().send(jsonResponse);
 
+        } catch (ServerBusyException e) {
+            sendServerBusy(exchange, e);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Login failed for {}: {}", request.getPhoneNumber(), e.getMessage());
+            auditLogger.log(null, "LOGIN_FAILED " + request.getPhoneNumber(), clientIp(exchange));
             exchange.setStatusCode(500);
             exchange.getResponseSender().send("{\"error\": \"Login Failed\"}");
         }
     }
     // Verify OTP
     public HttpHandler verifyOtpHandler(){
-        return exchange -> {
-            if (exchange.isInIoThread()){
-                exchange.dispatch(this::handleVerifyOtp);
-                return;
-            }
-            handleVerifyOtp(exchange);
-        };
+        return JsonBody.read(verifyOtpReader, this::handleVerifyOtp);
     }
-    private void handleVerifyOtp(HttpServerExchange exchange){
+    private void handleVerifyOtp(HttpServerExchange exchange, VerifyOtpRequest request){
         try {
-            exchange.startBlocking();
-            InputStream inputStream = exchange.getInputStream();
-            VerifyOtpRequest request = objectMapper.readValue(inputStream, VerifyOtpRequest.class);
-
+            RequestTrace trace = RequestTrace.of(exchange);
+            long dbStart = System.nanoTime();
             User user = userService.verifyOtp(request);
+            trace.record(Phase.DB, dbStart);
+            auditLogger.log(user.getUserId(), "LOGIN_SUCCESS", clientIp(exchange));
 
             // NEW: Generate Token
             String token = JwtUtil.generateToken(user.getPhoneNumber(), user.getUserId());
@@ -132,20 +145,23 @@ public class AuthController {
             UserResponse response = new UserResponse(user); // Hide password
 
             // Return success
+            long serializeStart = System.nanoTime();
             String jsonResponse = objectMapper.writeValueAsString(Map.of(
                     "message", "Authentication Successful",
                     "token", token,
                     "user", response
             ));
+            trace.record(Phase.SERIALIZE, serializeStart);
 
             exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
             exchange.setStatusCode(200);
             exchange.getResponseSender().send(jsonResponse);
         } catch (IllegalArgumentException e) {
+            auditLogger.log(null, "OTP_FAILED " + request.getPhoneNumber(), clientIp(exchange));
             exchange.setStatusCode(401); // Unauthorized / Bad Request
             exchange.getResponseSender().send("{\"error\": \"" + e.getMessage() + "\"}");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("OTP verification failed", e);
             exchange.setStatusCode(500);
             exchange.getResponseSender().send("{\"error\": \"Verification Failed\"}");
         }
@@ -154,32 +170,20 @@ public class AuthController {
      * Handler for Reset Password
      */
     public HttpHandler initiateResetHandler() {
-        return exchange -> {
-            if (exchange.isInIoThread()){
-                exchange.dispatch(this::handleInitiateReset);
-                return;
-            }
-            handleInitiateReset(exchange);
-        };
+        return JsonBody.read(mapReader, this::handleInitiateReset);
     }
     public HttpHandler completeResetHandler(){
-        return exchange -> {
-            if (exchange.isInIoThread()){
-                exchange.dispatch(this::handleCompleteReset);
-                return;
-            }
-            handleCompleteReset(exchange);
-        };
+        return JsonBody.read(passwordResetReader, this::handleCompleteReset);
     }
 
-    private void handleInitiateReset(HttpServerExchange exchange){
+    private void handleInitiateReset(HttpServerExchange exchange, Map<String, String> body){
         try {
-            exchange.startBlocking();
             // Expecting simple JSON "{"phoneNumber" : "..."}
-            Map<String, String> body = objectMapper.readValue(exchange.getInputStream(), Map.class);
             String phone = body.get("phoneNumber");
 
+            long dbStart = System.nanoTime();
             String msg = userService.initiatePasswordReset(phone);
+            RequestTrace.of(exchange).record(Phase.DB, dbStart);
 
             exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
             exchange.setStatusCode(200);
@@ -189,31 +193,42 @@ public class AuthController {
             exchange.getResponseSender().send("{\"error\": \"" + e.getMessage() + "\"}");
         }
     }
-    private void handleCompleteReset(HttpServerExchange exchange) {
+    private void handleCompleteReset(HttpServerExchange exchange, PasswordResetRequest request) {
         try {
-            exchange.startBlocking();
-            PasswordResetRequest request = objectMapper.readValue(exchange.getInputStream(), PasswordResetRequest.class);
-
+            long dbStart = System.nanoTime();
             userService.completePasswordReset(request);
+            RequestTrace.of(exchange).record(Phase.DB, dbStart);
+            auditLogger.log(null, "PASSWORD_RESET " + request.getPhoneNumber(), clientIp(exchange));
 
             exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
             exchange.setStatusCode(200);
             exchange.getResponseSender().send("{\"message\": \"Password reset successful\"}");
 
+        } catch (ServerBusyException e) {
+            sendServerBusy(exchange, e);
         } catch (Exception e) {
+            auditLogger.log(null, "PASSWORD_RESET_FAILED " + request.getPhoneNumber(), clientIp(exchange));
             exchange.setStatusCode(400);
             exchange.getResponseSender().send("{\"error\": \"" + e.getMessage() + "\"}");
         }
     }
 
+    static String clientIp(HttpServerExchange exchange) {
+        return exchange.getSourceAddress() == null ? null : exchange.getSourceAddress().getAddress().getHostAddress();
+    }
+
+    /**
+     * The BCrypt pool is saturated: tell the client when to come back instead of queueing.
+     */
+    private void sendServerBusy(HttpServerExchange exchange, ServerBusyException e) {
+        exchange.setStatusCode(503);
+        exchange.getResponseHeaders().put(Headers.RETRY_AFTER, e.getRetryAfterSeconds());
+        exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
+        exchange.getResponseSender().send("{\"error\": \"" + e.getMessage() + "\"}");
+    }
+
     public HttpHandler profileHandler() {
-        return exchange -> {
-            if (exchange.isInIoThread()) {
-                exchange.dispatch(this::handleProfile);
-                return;
-            }
-            handleProfile(exchange);
-        };
+        return BlockingDispatcher.dispatch(this::handleProfile);
     }
 
     private void handleProfile(HttpServerExchange exchange){
@@ -221,18 +236,24 @@ public class AuthController {
             // 1. Get phone from Token
             String authenticatedPhone = exchange.getAttachment(TransactionController.USER_PHONE_KEY);
 
+            RequestTrace trace = RequestTrace.of(exchange);
+
             //2. Call the CACHED service method
+            long dbStart = System.nanoTime();
             User user = userService.getCachedUser(authenticatedPhone);
+            trace.record(Phase.DB, dbStart);
 
             // 3. Return
+            long serializeStart = System.nanoTime();
             UserResponse response = new UserResponse(user);
             String json = objectMapper.writeValueAsString(response);
+            trace.record(Phase.SERIALIZE, serializeStart);
 
             exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
             exchange.setStatusCode(200);
             exchange.getResponseSender().send(json);
         } catch (Exception e){
-            e.printStackTrace();
+            log.error("Profile lookup failed", e);
             exchange.setStatusCode(500);
             exchange.getResponseSender().send("{\"error\": \"Error fetching profile\"}");
         }
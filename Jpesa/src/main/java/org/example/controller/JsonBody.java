@@ -0,0 +1,83 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.RequestTooBigException;
+import io.undertow.util.Headers;
+import org.example.config.AppProperties;
+import org.example.config.BlockingDispatcher;
+import org.example.config.RequestTrace;
+
+import java.io.IOException;
+
+/**
+ * Reads a JSON request body without blocking a thread.
+ *
+ * The bytes are collected on the IO thread by Undertow's Receiver as they arrive, so a
+ * slow client costs a buffer, not a parked worker. Only once the whole body is in memory
+ * is it parsed (with a pre-built ObjectReader) and the blocking handler dispatched.
+ */
+public final class JsonBody {
+
+    // Requests here are tiny (phone, amount, password); anything bigger is rejected up front
+    private static final long MAX_BODY_BYTES = AppProperties.getLong("server.maxBodyBytes", 16 * 1024);
+
+    @FunctionalInterface
+    public interface Handler<T> {
+        void handle(HttpServerExchange exchange, T body) throws Exception;
+    }
+
+    private JsonBody() {}
+
+    /**
+     * @param reader  pre-built reader for the DTO type (ObjectReader is immutable and thread-safe)
+     * @param handler blocking handler; runs on the BlockingDispatcher executor with the parsed body
+     */
+    public static <T> HttpHandler read(ObjectReader reader, Handler<T> handler) {
+        return exchange -> {
+            if (exchange.getRequestContentLength() > MAX_BODY_BYTES) {
+                sendError(exchange, 413, "Request body too large");
+                return;
+            }
+            // Also covers chunked bodies that never declared a length
+            exchange.setMaxEntitySize(MAX_BODY_BYTES);
+
+            exchange.getRequestReceiver().receiveFullBytes(
+                    (ex, bytes) -> {
+                        T body;
+                        long parseStart = System.nanoTime();
+                        try {
+                            body = reader.readValue(bytes);
+                            RequestTrace.of(ex).record(RequestTrace.Phase.PARSE, parseStart);
+                        } catch (JacksonException e) {
+                            sendError(ex, 400, "Malformed JSON body");
+                            return;
+                        } catch (IOException e) {
+                            sendError(ex, 400, "Unreadable request body");
+                            return;
+                        }
+                        try {
+                            BlockingDispatcher.dispatch(blocking -> handler.handle(blocking, body)).handleRequest(ex);
+                        } catch (Exception e) {
+                            sendError(ex, 500, "Internal Server Error");
+                        }
+                    },
+                    (ex, e) -> {
+                        if (e instanceof RequestTooBigException) {
+                            sendError(ex, 413, "Request body too large");
+                        } else {
+                            sendError(ex, 400, "Unreadable request body");
+                        }
+                    });
+        };
+    }
+
+    private static void sendError(HttpServerExchange exchange, int status, String message) {
+        if (exchange.isResponseStarted()) return;
+        exchange.setStatusCode(status);
+        exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
+        exchange.getResponseSender().send("{\"error\": \"" + message + "\"}");
+    }
+}
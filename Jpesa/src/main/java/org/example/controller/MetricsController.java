@@ -0,0 +1,36 @@
+package org.example.controller;
+
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Headers;
+import org.example.config.DatabaseConfig;
+import org.example.config.ReadRouting;
+import org.example.service.AuditLogger;
+import org.example.service.PasswordHasher;
+import org.example.service.UserCache;
+import org.example.util.PrometheusText;
+import org.example.util.VerifiedTokenCache;
+
+public class MetricsController {
+
+    /**
+     * Handler for GET /metrics (Prometheus text format). Only reads in-memory counters,
+     * so it runs on the IO thread like /health.
+     */
+    public HttpHandler metricsHandler() {
+        return this::handleMetrics;
+    }
+
+    private void handleMetrics(HttpServerExchange exchange) {
+        PrometheusText metrics = new PrometheusText();
+        DatabaseConfig.writeMetrics(metrics);
+        metrics.stats("jpesa_user_cache", "UserCache.stats()", UserCache.shared().stats())
+               .stats("jpesa_token_cache", "VerifiedTokenCache.stats()", VerifiedTokenCache.shared().stats())
+               .stats("jpesa_password_hasher", "PasswordHasher.stats()", PasswordHasher.shared().stats())
+               .stats("jpesa_read_routing", "ReadRouting.stats()", ReadRouting.shared().stats())
+               .stats("jpesa_audit", "AuditLogger.stats()", AuditLogger.shared().stats());
+
+        exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, PrometheusText.CONTENT_TYPE);
+        exchange.getResponseSender().send(metrics.toString());
+    }
+}
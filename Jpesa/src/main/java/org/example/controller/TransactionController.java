@@ -1,138 +1,168 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.AttachmentKey;
 import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
+import org.example.config.AppProperties;
+import org.example.config.BlockingDispatcher;
+import org.example.config.DatabaseConfig;
+import org.example.config.ReadRouting;
+import org.example.config.RequestTrace;
+import org.example.config.RequestTrace.Phase;
 import org.example.dto.SendMoneyRequest;
+import org.example.dto.StatementCursor;
 import org.example.dto.TransactionRequest;
 import org.example.model.Transaction;
 import org.example.repository.TransactionRepository;
-import org.example.repository.UserRepository;
 import org.example.repository.WalletRepository;
+import org.example.service.AuditLogger;
+import org.example.service.GroupCommitLedger;
+import org.example.service.IdempotencyService;
+import org.example.service.MiniStatementCache;
+import org.example.service.RevenueShards;
+import org.example.service.ServerBusyException;
 import org.example.service.TransactionService;
+import org.example.service.UserCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 
 public class TransactionController {
 
+    private static final Logger log = LoggerFactory.getLogger(TransactionController.class);
+
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final AuditLogger auditLogger;
     private final ObjectMapper objectMapper;
+    private final ObjectReader transactionRequestReader;
+    private final ObjectReader sendMoneyRequestReader;
+
+    private static final int STATEMENT_DEFAULT_LIMIT = 100;
+    private static final int STATEMENT_MAX_LIMIT = AppProperties.getInt("txn.statement.maxLimit", 5000);
+    // Same format as the @JsonFormat on Transaction's timestamps
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+
+    private static final HttpString IDEMPOTENCY_KEY = new HttpString("Idempotency-Key");
+    private static final HttpString IDEMPOTENT_REPLAYED = new HttpString("Idempotent-Replayed");
 
-    // Define the Key to retrieve the attached phone number from AuthMiddleware
+    // Define the Keys to retrieve the attached phone number / user id from AuthMiddleware
     public static final AttachmentKey<String> USER_PHONE_KEY = AttachmentKey.create(String.class);
+    public static final AttachmentKey<Long> USER_ID_KEY = AttachmentKey.create(Long.class);
 
     public TransactionController() {
+        this(new RevenueShards(new WalletRepository()), null);
+    }
+
+    public TransactionController(RevenueShards revenueShards, GroupCommitLedger groupCommitLedger) {
         this.transactionService = new TransactionService(
-                new UserRepository(),
+                UserCache.shared(),
                 new WalletRepository(),
-                new TransactionRepository()
+                new TransactionRepository(),
+                DatabaseConfig::getConnection,
+                revenueShards,
+                groupCommitLedger,
+                MiniStatementCache.fromProperties(),
+                ReadRouting.shared()
         );
+        this.idempotencyService = new IdempotencyService();
+        this.auditLogger = AuditLogger.shared();
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
+        this.transactionRequestReader = objectMapper.readerFor(TransactionRequest.class);
+        this.sendMoneyRequestReader = objectMapper.readerFor(SendMoneyRequest.class);
     }
 
     // --- HANDLER DEFINITIONS ---
     public HttpHandler depositHandler() {
-        return exchange -> {
-            if (exchange.isInIoThread()) {
-                exchange.dispatch(this::handleDeposit);
-                return;
-            }
-            handleDeposit(exchange);
-        };
+        return JsonBody.read(transactionRequestReader, this::handleDeposit);
     }
 
     public HttpHandler airtimeHandler() {
-        return exchange -> {
-            if (exchange.isInIoThread()) {
-                exchange.dispatch(this::handleAirtime);
-                return;
-            }
-            handleAirtime(exchange);
-        };
+        return JsonBody.read(transactionRequestReader, this::handleAirtime);
     }
 
     public HttpHandler sendMoneyHandler() {
-        return exchange -> {
-            if (exchange.isInIoThread()) {
-                exchange.dispatch(this::handleSendMoney);
-                return;
-            }
-            handleSendMoney(exchange);
-        };
+        return JsonBody.read(sendMoneyRequestReader, this::handleSendMoney);
     }
 
     public HttpHandler miniStatementHandler() {
-        return exchange -> {
-            if (exchange.isInIoThread()) {
-                exchange.dispatch(this::handleMiniStatement);
-                return;
-            }
-            handleMiniStatement(exchange);
-        };
+        return BlockingDispatcher.dispatch(this::handleMiniStatement);
+    }
+
+    public HttpHandler statementHandler() {
+        return BlockingDispatcher.dispatch(this::handleStatement);
     }
 
     // --- LOGIC ---
 
-    private void handleDeposit(HttpServerExchange exchange) {
+    private void handleDeposit(HttpServerExchange exchange, TransactionRequest request) {
         try {
-            exchange.startBlocking();
             String authenticatedPhone = exchange.getAttachment(USER_PHONE_KEY);
 
-            InputStream inputStream = exchange.getInputStream();
-            TransactionRequest request = objectMapper.readValue(inputStream, TransactionRequest.class);
-
             // Force security: Use the phone number from the Token
             request.setPhoneNumber(authenticatedPhone);
 
-            Transaction txn = transactionService.deposit(request);
-            sendSuccess(exchange, txn);
+            respondOnce(exchange, "deposit", request, trace -> {
+                long dbStart = System.nanoTime();
+                Transaction receipt = transactionService.deposit(request);
+                trace.record(Phase.DB, dbStart);
+                audit(exchange, "DEPOSIT " + receipt.getReferenceCode() + " " + request.getAmount());
+                return successBody(trace, receipt);
+            });
 
         } catch (Exception e) {
             handleError(exchange, e);
         }
     }
 
-    private void handleAirtime(HttpServerExchange exchange) {
+    private void handleAirtime(HttpServerExchange exchange, TransactionRequest request) {
         try {
-            exchange.startBlocking();
             String authenticatedPhone = exchange.getAttachment(USER_PHONE_KEY);
 
-            InputStream inputStream = exchange.getInputStream();
-            TransactionRequest request = objectMapper.readValue(inputStream, TransactionRequest.class);
-
             request.setPhoneNumber(authenticatedPhone);
 
-            Transaction txn = transactionService.buyAirtime(request);
-            sendSuccess(exchange, txn);
+            respondOnce(exchange, "airtime", request, trace -> {
+                long dbStart = System.nanoTime();
+                Transaction receipt = transactionService.buyAirtime(request);
+                trace.record(Phase.DB, dbStart);
+                audit(exchange, "AIRTIME " + receipt.getReferenceCode() + " " + request.getAmount());
+                return successBody(trace, receipt);
+            });
 
         } catch (Exception e) {
             handleError(exchange, e);
         }
     }
 
-    private void handleSendMoney(HttpServerExchange exchange) {
+    private void handleSendMoney(HttpServerExchange exchange, SendMoneyRequest request) {
         try {
-            exchange.startBlocking();
             String authenticatedPhone = exchange.getAttachment(USER_PHONE_KEY);
 
-            InputStream inputStream = exchange.getInputStream();
-            SendMoneyRequest request = objectMapper.readValue(inputStream, SendMoneyRequest.class);
-
             // Force Sender to be the logged-in user
             request.setSenderPhone(authenticatedPhone);
 
-            transactionService.sendMoney(request);
-
-            String jsonResponse = objectMapper.writeValueAsString(Map.of("message", "Transfer Successful"));
-            exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
-            exchange.setStatusCode(200);
-            exchange.getResponseSender().send(jsonResponse);
+            respondOnce(exchange, "send", request, trace -> {
+                long dbStart = System.nanoTime();
+                transactionService.sendMoney(request);
+                trace.record(Phase.DB, dbStart);
+                audit(exchange, "SEND_MONEY " + request.getAmount() + " TO " + request.getRecipientPhone());
+                long serializeStart = System.nanoTime();
+                String body = objectMapper.writeValueAsString(Map.of("message", "Transfer Successful"));
+                trace.record(Phase.SERIALIZE, serializeStart);
+                return body;
+            });
 
         } catch (Exception e) {
             handleError(exchange, e);
@@ -144,10 +174,15 @@ public class TransactionController {
             // SECURE UPDATE: We no longer need ?phoneNumber=... in the URL.
             // We get the phone number directly from the Token.
             String authenticatedPhone = exchange.getAttachment(USER_PHONE_KEY);
+            RequestTrace trace = RequestTrace.of(exchange);
 
+            long dbStart = System.nanoTime();
             List<Transaction> statement = transactionService.getMiniStatement(authenticatedPhone);
+            trace.record(Phase.DB, dbStart);
 
+            long serializeStart = System.nanoTime();
             String jsonResponse = objectMapper.writeValueAsString(statement);
+            trace.record(Phase.SERIALIZE, serializeStart);
             exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
             exchange.setStatusCode(200);
             exchange.getResponseSender().send(jsonResponse);
@@ -157,24 +192,171 @@ public class TransactionController {
         }
     }
 
+    /**
+     * GET /api/txn/statement?limit=100&cursor=...
+     * Response: {"transactions": [...], "nextCursor": "..." | null}, written row by row
+     * with a JsonGenerator while the DB cursor is open.
+     */
+    private void handleStatement(HttpServerExchange exchange) {
+        try {
+            String authenticatedPhone = exchange.getAttachment(USER_PHONE_KEY);
+            int limit = parseLimit(queryParam(exchange, "limit"));
+            String cursorParam = queryParam(exchange, "cursor");
+            StatementCursor before = cursorParam == null ? null : StatementCursor.decode(cursorParam);
+
+            exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
+            exchange.setStatusCode(200);
+            exchange.startBlocking();
+
+            // Not try-with-resources: if the user/wallet lookup fails, nothing has been flushed
+            // yet and the buffered generator is simply dropped in favour of the error response
+            JsonGenerator json = objectMapper.getFactory().createGenerator(exchange.getOutputStream());
+            StatementCursor[] last = new StatementCursor[1];
+            json.writeStartObject();
+            json.writeArrayFieldStart("transactions");
+            // Rows are written while the cursor is open, so serialization is counted as db time here
+            long dbStart = System.nanoTime();
+            int rows = transactionService.streamStatement(authenticatedPhone, before, limit, txn -> {
+                writeTransaction(json, txn);
+                last[0] = new StatementCursor(txn.getCreatedAt(), txn.getTransactionId());
+            });
+            json.writeEndArray();
+            // A full page means there may be more; the client stops at the first null
+            json.writeStringField("nextCursor", rows == limit ? last[0].encode() : null);
+            json.writeEndObject();
+            json.close();
+            RequestTrace.of(exchange).record(Phase.DB, dbStart);
+
+        } catch (Exception e) {
+            if (!exchange.isResponseStarted()) {
+                handleError(exchange, e);
+                return;
+            }
+            // Status and part of the body are already on the wire: log and cut the response short
+            log.error("Statement stream failed after the response started", e);
+            exchange.endExchange();
+        }
+    }
+
     // --- HELPERS ---
 
-    private void sendSuccess(HttpServerExchange exchange, Object body) throws Exception {
-        String jsonResponse = objectMapper.writeValueAsString(Map.of(
+    private void writeTransaction(JsonGenerator json, Transaction txn) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("transactionId", txn.getTransactionId());
+        json.writeNumberField("walletId", txn.getWalletId());
+        json.writeStringField("txnType", txn.getTxnType().name());
+        json.writeNumberField("amount", txn.getAmount());
+        json.writeStringField("referenceCode", txn.getReferenceCode());
+        json.writeStringField("createdAt", TIMESTAMP_FORMAT.format(txn.getCreatedAt()));
+        json.writeStringField("updatedAt", txn.getUpdatedAt() == null ? null : TIMESTAMP_FORMAT.format(txn.getUpdatedAt()));
+        json.writeEndObject();
+    }
+
+    private static String queryParam(HttpServerExchange exchange, String name) {
+        Deque<String> values = exchange.getQueryParameters().get(name);
+        return values == null || values.isEmpty() ? null : values.getFirst();
+    }
+
+    private static int parseLimit(String value) {
+        if (value == null) return STATEMENT_DEFAULT_LIMIT;
+        try {
+            int limit = Integer.parseInt(value);
+            if (limit < 1 || limit > STATEMENT_MAX_LIMIT) {
+                throw new IllegalArgumentException("limit must be between 1 and " + STATEMENT_MAX_LIMIT);
+            }
+            return limit;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("limit must be a number");
+        }
+    }
+
+    /**
+     * Money-moving request body producing the 200 response.
+     */
+    @FunctionalInterface
+    private interface Action {
+        String run(RequestTrace trace) throws Exception;
+    }
+
+    /**
+     * Without an Idempotency-Key header the action simply runs. With one, it runs at most once
+     * per (user, key): retries get the first response again, marked Idempotent-Replayed.
+     */
+    private void respondOnce(HttpServerExchange exchange, String route, Object request, Action action) throws Exception {
+        RequestTrace trace = RequestTrace.of(exchange);
+        String key = exchange.getRequestHeaders().getFirst(IDEMPOTENCY_KEY);
+        if (key == null) {
+            send(exchange, 200, action.run(trace));
+            return;
+        }
+
+        String requestHash = IdempotencyService.hash(route, objectMapper.writeValueAsString(request));
+        IdempotencyService.StoredResponse response = idempotencyService.execute(
+                exchange.getAttachment(USER_PHONE_KEY), key, requestHash, () -> toResponse(trace, action));
+        if (response.replayed()) {
+            exchange.getResponseHeaders().put(IDEMPOTENT_REPLAYED, "true");
+        }
+        send(exchange, response.status(), response.body());
+    }
+
+    // Same status mapping as handleError, but as a value the idempotency store can keep
+    private IdempotencyService.StoredResponse toResponse(RequestTrace trace, Action action) {
+        try {
+            return new IdempotencyService.StoredResponse(200, action.run(trace), false);
+        } catch (ServerBusyException e) {
+            throw e; // 503 + Retry-After, never stored
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return new IdempotencyService.StoredResponse(400, errorBody(e), false);
+        } catch (Exception e) {
+            log.error("Transaction failed", e);
+            return new IdempotencyService.StoredResponse(500, errorBody(e), false);
+        }
+    }
+
+    // Runs inside the idempotent action, so a replayed request is not audited twice
+    private void audit(HttpServerExchange exchange, String action) {
+        auditLogger.log(exchange.getAttachment(USER_ID_KEY), action, AuthController.clientIp(exchange));
+    }
+
+    private String successBody(RequestTrace trace, Object receipt) throws Exception {
+        long serializeStart = System.nanoTime();
+        String body = objectMapper.writeValueAsString(Map.of(
                 "message", "Success",
-                "receipt", body
+                "receipt", receipt
         ));
+        trace.record(Phase.SERIALIZE, serializeStart);
+        return body;
+    }
+
+    private static String errorBody(Exception e) {
+        return "{\"error\": \"" + e.getMessage() + "\"}";
+    }
+
+    private void send(HttpServerExchange exchange, int status, String json) {
         exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
-        exchange.setStatusCode(200);
-        exchange.getResponseSender().send(jsonResponse);
+        exchange.setStatusCode(status);
+        exchange.getResponseSender().send(json);
     }
 
     private void handleError(HttpServerExchange exchange, Exception e) {
-        e.printStackTrace();
+        if (e instanceof ServerBusyException busy) {
+            sendServerBusy(exchange, busy);
+            return;
+        }
         exchange.setStatusCode(500);
         if (e instanceof IllegalArgumentException || e instanceof IllegalStateException) {
             exchange.setStatusCode(400); // Bad Request
+            log.debug("Rejected: {}", e.getMessage()); // expected (bad input, insufficient funds): no stack trace
+        } else {
+            log.error("Transaction request failed", e);
         }
         exchange.getResponseSender().send("{\"error\": \"" + e.getMessage() + "\"}");
     }
-}
\ No newline at end of file
+
+    private void sendServerBusy(HttpServerExchange exchange, ServerBusyException e) {
+        exchange.setStatusCode(503);
+        exchange.getResponseHeaders().put(Headers.RETRY_AFTER, e.getRetryAfterSeconds());
+        exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
+        exchange.getResponseSender().send("{\"error\": \"" + e.getMessage() + "\"}");
+    }
+}
@@ -5,5 +5,6 @@ public enum TransactionType {
     WITHDRAWAL,
     AIRTIME_PURCHASE,
     TRANSFER,
-    TRANSACTION_FEE
+    TRANSACTION_FEE,
+    REVENUE_SWEEP
 }
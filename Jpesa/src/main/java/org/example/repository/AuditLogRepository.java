@@ -0,0 +1,34 @@
+package org.example.repository;
+
+import org.example.model.AuditLog;
+
+import java.sql.*;
+import java.util.List;
+
+public class AuditLogRepository {
+
+    private static final String INSERT_LOG = "INSERT INTO audit_logs (user_id, action, ip_address, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * Writes a batch of events on the caller's connection (one JDBC batch; pgjdbc turns it into
+     * multi-row INSERTs when reWriteBatchedInserts is on, see db.profile).
+     * The caller owns the transaction.
+     */
+    public void saveAll(Connection conn, List<AuditLog> logs) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_LOG)) {
+            for (AuditLog log : logs) {
+                if (log.getUserId() != null) {
+                    stmt.setLong(1, log.getUserId());
+                } else {
+                    stmt.setNull(1, Types.BIGINT);
+                }
+                stmt.setString(2, log.getAction());
+                stmt.setString(3, log.getIpAddress());
+                stmt.setTimestamp(4, Timestamp.valueOf(log.getCreatedAt()));
+                stmt.setTimestamp(5, Timestamp.valueOf(log.getUpdatedAt()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+}
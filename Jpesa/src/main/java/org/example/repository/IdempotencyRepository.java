@@ -0,0 +1,104 @@
+package org.example.repository;
+
+import org.example.config.DatabaseConfig;
+
+import java.sql.*;
+import java.util.Optional;
+
+/**
+ * The idempotency_keys table (see db/idempotency_keys.sql). The primary key on
+ * (user_phone, idempotency_key) is what guarantees one winner per key across nodes.
+ */
+public class IdempotencyRepository {
+
+    private static final String CLAIM = "INSERT INTO idempotency_keys (user_phone, idempotency_key, request_hash) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String FIND = "SELECT request_hash, response_status, response_body FROM idempotency_keys WHERE user_phone = ? AND idempotency_key = ?";
+    private static final String COMPLETE = "UPDATE idempotency_keys SET response_status = ?, response_body = ? WHERE user_phone = ? AND idempotency_key = ?";
+    private static final String RELEASE = "DELETE FROM idempotency_keys WHERE user_phone = ? AND idempotency_key = ? AND response_status IS NULL";
+    private static final String EXPIRE_CLAIM = "UPDATE idempotency_keys SET response_status = ?, response_body = ? " +
+            "WHERE user_phone = ? AND idempotency_key = ? AND response_status IS NULL " +
+            "AND claimed_at < CURRENT_TIMESTAMP - ? * INTERVAL '1 second'";
+
+    /**
+     * @param responseStatus null while the first request is still in progress
+     */
+    public record StoredKey(String requestHash, Integer responseStatus, String responseBody) {}
+
+    /**
+     * @return true if this caller inserted the key and must now run the request
+     */
+    public boolean tryClaim(String userPhone, String key, String requestHash) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(CLAIM)) {
+            stmt.setString(1, userPhone);
+            stmt.setString(2, key);
+            stmt.setString(3, requestHash);
+            return stmt.executeUpdate() == 1;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error claiming idempotency key", e);
+        }
+    }
+
+    public Optional<StoredKey> find(String userPhone, String key) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND)) {
+            stmt.setString(1, userPhone);
+            stmt.setString(2, key);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    int status = rs.getInt("response_status");
+                    return Optional.of(new StoredKey(rs.getString("request_hash"),
+                            rs.wasNull() ? null : status, rs.getString("response_body")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading idempotency key", e);
+        }
+        return Optional.empty();
+    }
+
+    public void complete(String userPhone, String key, int responseStatus, String responseBody) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COMPLETE)) {
+            stmt.setInt(1, responseStatus);
+            stmt.setString(2, responseBody);
+            stmt.setString(3, userPhone);
+            stmt.setString(4, key);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving idempotent response", e);
+        }
+    }
+
+    /**
+     * Completes a claim nobody finished within claimTimeoutSeconds with the given response.
+     * @return false if the claim is still fresh, or was completed meanwhile
+     */
+    public boolean expireClaim(String userPhone, String key, long claimTimeoutSeconds, int responseStatus, String responseBody) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(EXPIRE_CLAIM)) {
+            stmt.setInt(1, responseStatus);
+            stmt.setString(2, responseBody);
+            stmt.setString(3, userPhone);
+            stmt.setString(4, key);
+            stmt.setLong(5, claimTimeoutSeconds);
+            return stmt.executeUpdate() == 1;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error expiring idempotency key", e);
+        }
+    }
+
+    /**
+     * Drops an unfinished claim so the client's retry can run the request again.
+     */
+    public void release(String userPhone, String key) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(RELEASE)) {
+            stmt.setString(1, userPhone);
+            stmt.setString(2, key);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error releasing idempotency key", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.repository;
 
+import org.example.config.ConnectionProvider;
 import org.example.config.DatabaseConfig;
 import org.example.model.OtpCode;
 import org.example.model.OtpPurpose;
@@ -7,18 +8,32 @@ import org.example.model.OtpPurpose;
 import java.sql.*;
 import java.util.Optional;
 
-public class OtpRepository {
+public class OtpRepository implements OtpStore {
 
     private static final String INSERT_OTP = "INSERT INTO otp_codes (user_id, otp_code, purpose, expires_at, is_used, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
-    // Find valid OTP: Matches User, Code, Not Used, and Not Expired
-    private static final String FIND_VALID_OTP =
-            "SELECT * FROM otp_codes WHERE user_id = ? AND otp_code = ? AND is_used = false AND expires_at > CURRENT_TIMESTAMP";
+    // Find + mark used in one statement: matches User, Purpose, Code, Not Used, and Not Expired.
+    // The row lock taken by the UPDATE makes a concurrent second attempt see is_used = true.
+    private static final String CONSUME_OTP =
+            "UPDATE otp_codes SET is_used = true, updated_at = ? WHERE otp_id = (" +
+            "SELECT otp_id FROM otp_codes WHERE user_id = ? AND purpose = ? AND otp_code = ? " +
+            "AND is_used = false AND expires_at > CURRENT_TIMESTAMP ORDER BY otp_id DESC LIMIT 1) " +
+            "AND is_used = false RETURNING *";
 
-    private static final String MARK_AS_USED = "UPDATE otp_codes SET is_used = true, updated_at = ? WHERE otp_id = ?";
+    private final ConnectionProvider connectionProvider;
 
+    // 1. Default Constructor (Used by the App)
+    public OtpRepository() {
+        this(DatabaseConfig::getConnection);
+    }
+
+    // 2. Parameterized Constructor (Used by Benchmarks against a test database)
+    public OtpRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
 
+    @Override
     public void save(OtpCode otp) {
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(INSERT_OTP)){
 
             stmt.setLong(1, otp.getUserId());
@@ -34,35 +49,28 @@ public class OtpRepository {
             throw new RuntimeException("Error saving OTP: " + e.getMessage(), e);
         }
     }
-    public Optional<OtpCode> findValidOtp(Long userId, String code) {
-        try (Connection conn = DatabaseConfig.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(FIND_VALID_OTP)){
 
-            stmt.setLong(1, userId);
-            stmt.setString(2, code);
+    @Override
+    public Optional<OtpCode> consume(Long userId, OtpPurpose purpose, String code) {
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(CONSUME_OTP)){
+
+            stmt.setTimestamp(1, Timestamp.valueOf(java.time.LocalDateTime.now()));
+            stmt.setLong(2, userId);
+            stmt.setString(3, purpose.name());
+            stmt.setString(4, code);
 
             try (ResultSet rs = stmt.executeQuery()){
                 if (rs.next()){
                     return Optional.of(mapRowToOtp(rs));
                 }
             }
-            } catch (SQLException e) {
+        } catch (SQLException e) {
             throw new RuntimeException("Error checking OTP: " + e.getMessage(), e);
         }
         return Optional.empty();
     }
-    public void markAsUsed(Long otpId) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(MARK_AS_USED)) {
 
-            stmt.setTimestamp(1, Timestamp.valueOf(java.time.LocalDateTime.now()));
-            stmt.setLong(2, otpId);
-            stmt.executeUpdate();
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Error updating OTP status", e);
-        }
-    }
     public OtpCode mapRowToOtp(ResultSet rs) throws SQLException {
         OtpCode otp = new OtpCode();
         otp.setOtpId(rs.getLong("otp_id"));
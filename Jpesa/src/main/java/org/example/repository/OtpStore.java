@@ -0,0 +1,36 @@
+package org.example.repository;
+
+import org.example.config.AppProperties;
+import org.example.model.OtpCode;
+import org.example.model.OtpPurpose;
+
+import java.util.Optional;
+
+/**
+ * Where login / password-reset OTPs live until they are used or expire.
+ *
+ * Selected with otp.store=jdbc|redis (default jdbc). The Redis store expires codes with
+ * native TTLs instead of leaving used and expired rows in otp_codes, and locks a code
+ * after otp.maxAttempts wrong guesses.
+ */
+public interface OtpStore {
+
+    void save(OtpCode otp);
+
+    /**
+     * Checks and uses up a code in one atomic step: of two concurrent calls with the same
+     * valid code, exactly one gets it back.
+     * @return the consumed OTP, or empty if the code is wrong, expired or already used
+     * @throws IllegalArgumentException when too many wrong codes were tried (the code is burned)
+     */
+    Optional<OtpCode> consume(Long userId, OtpPurpose purpose, String code);
+
+    static OtpStore fromProperties() {
+        String store = AppProperties.get("otp.store", "jdbc");
+        return switch (store) {
+            case "jdbc" -> new OtpRepository();
+            case "redis" -> new RedisOtpStore(AppProperties.getInt("otp.maxAttempts", 5));
+            default -> throw new IllegalStateException("Unknown otp.store: " + store);
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.repository;
+
+import org.example.config.RedisConfig;
+import org.example.model.OtpCode;
+import org.example.model.OtpPurpose;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * OtpStore on Redis: one key "otp:<userId>:<purpose>" holding the pending code, expired by
+ * Redis itself after the OtpCode's validity (5 min login, 10 min reset). Requesting a new
+ * code replaces the previous one for that purpose.
+ *
+ * Verification is a Lua script, so compare + delete (a conditional GETDEL) and the wrong-guess
+ * counter run as one step on the server: two concurrent verifies can never both succeed, and
+ * the maxAttempts-th wrong guess deletes the code.
+ */
+public class RedisOtpStore implements OtpStore {
+
+    // KEYS[1] = code key, KEYS[2] = attempts key, ARGV[1] = submitted code, ARGV[2] = max attempts
+    // Returns 1 = consumed, 0 = wrong code, -1 = no pending code, -2 = locked out (code deleted)
+    private static final String CONSUME_SCRIPT = """
+            local code = redis.call('GET', KEYS[1])
+            if not code then return -1 end
+            if code == ARGV[1] then
+                redis.call('DEL', KEYS[1], KEYS[2])
+                return 1
+            end
+            local attempts = redis.call('INCR', KEYS[2])
+            if attempts == 1 then
+                redis.call('PEXPIRE', KEYS[2], math.max(redis.call('PTTL', KEYS[1]), 1))
+            end
+            if attempts >= tonumber(ARGV[2]) then
+                redis.call('DEL', KEYS[1], KEYS[2])
+                return -2
+            end
+            return 0
+            """;
+
+    private final int maxAttempts;
+    private volatile String scriptSha;
+
+    public RedisOtpStore(int maxAttempts) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("otp.maxAttempts must be at least 1");
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void save(OtpCode otp) {
+        long ttlSeconds = Math.max(1, Duration.between(LocalDateTime.now(), otp.getExpiresAt()).toSeconds());
+        String key = key(otp.getUserId(), otp.getPurpose());
+        try (Jedis redis = RedisConfig.getConnection()) {
+            // A fresh code also gets a fresh attempt budget
+            redis.clients.jedis.Transaction multi = redis.multi();
+            multi.setex(key, ttlSeconds, otp.getOtpCode());
+            multi.del(key + ":attempts");
+            multi.exec();
+        }
+    }
+
+    @Override
+    public Optional<OtpCode> consume(Long userId, OtpPurpose purpose, String code) {
+        String key = key(userId, purpose);
+        long result;
+        try (Jedis redis = RedisConfig.getConnection()) {
+            result = (Long) evalConsume(redis, List.of(key, key + ":attempts"), List.of(code, String.valueOf(maxAttempts)));
+        }
+
+        if (result == -2) {
+            throw new IllegalArgumentException("Too many wrong OTP attempts. Please request a new code");
+        }
+        if (result != 1) {
+            return Optional.empty();
+        }
+        OtpCode otp = new OtpCode();
+        otp.setUserId(userId);
+        otp.setOtpCode(code);
+        otp.setPurpose(purpose);
+        otp.setUsed(true);
+        return Optional.of(otp);
+    }
+
+    // EVALSHA keeps the script off the wire; reload it after a Redis restart / SCRIPT FLUSH
+    private Object evalConsume(Jedis redis, List<String> keys, List<String> args) {
+        String sha = scriptSha;
+        if (sha != null) {
+            try {
+                return redis.evalsha(sha, keys, args);
+            } catch (JedisNoScriptException e) {
+                // fall through and load it again
+            }
+        }
+        scriptSha = redis.scriptLoad(CONSUME_SCRIPT);
+        return redis.evalsha(scriptSha, keys, args);
+    }
+
+    private static String key(Long userId, OtpPurpose purpose) {
+        return "otp:" + userId + ":" + purpose.name();
+    }
+}
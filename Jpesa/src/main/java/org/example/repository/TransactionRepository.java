@@ -1,20 +1,48 @@
 package org.example.repository;
 
 import org.example.config.DatabaseConfig;
+import org.example.config.ReadRouting;
+import org.example.dto.StatementCursor;
 import org.example.model.Transaction;
 import org.example.model.TransactionType;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TransactionRepository {
 
     private static String INSERT_TXN = "INSERT INTO transactions (wallet_id, txn_type, amount, reference_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?) RETURNING transaction_id";
+    private static final String INSERT_TXN_PREFIX = "INSERT INTO transactions (wallet_id, txn_type, amount, reference_code, created_at, updated_at) VALUES ";
+    private static final String INSERT_TXN_ROW = "(?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_TXN_SUFFIX = " RETURNING transaction_id, reference_code";
+
+    // Multi-row INSERT statements by row count (a transfer always writes 4 rows, so this stays tiny)
+    private static final Map<Integer, String> INSERT_MANY = new ConcurrentHashMap<>();
 
     // Fetch last 10 transactions for a specific wallet, newest first
     private static final String FIND_MINI_STATEMENT = "SELECT * FROM transactions WHERE wallet_id = ? ORDER BY created_at DESC LIMIT 10";
 
+    // Keyset pages, newest first (served by idx_transactions_wallet_statement, see db/statement_index.sql)
+    private static final String STATEMENT_COLUMNS = "SELECT transaction_id, wallet_id, txn_type, amount, reference_code, created_at, updated_at FROM transactions ";
+    private static final String FIND_STATEMENT_FIRST_PAGE = STATEMENT_COLUMNS
+            + "WHERE wallet_id = ? ORDER BY created_at DESC, transaction_id DESC LIMIT ?";
+    private static final String FIND_STATEMENT_PAGE = STATEMENT_COLUMNS
+            + "WHERE wallet_id = ? AND (created_at, transaction_id) < (?, ?) ORDER BY created_at DESC, transaction_id DESC LIMIT ?";
+
+    /**
+     * Receives statement rows one at a time while the ResultSet is still open.
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(Transaction txn) throws IOException;
+    }
+
     /**
      * Standard save (Single operation)
      */
@@ -44,9 +72,46 @@ public class TransactionRepository {
             return txn;
         }
     }
+    /**
+     * Inserts several ledger rows in ONE round trip (multi-row INSERT ... RETURNING)
+     * and sets the generated id on each Transaction. Reference codes must be unique,
+     * they are used to match generated ids back to rows.
+     */
+    public List<Transaction> saveAll(Connection conn, List<Transaction> txns) throws SQLException {
+        if (txns.isEmpty()) return txns;
+
+        String sql = INSERT_MANY.computeIfAbsent(txns.size(), rows ->
+                INSERT_TXN_PREFIX + String.join(", ", Collections.nCopies(rows, INSERT_TXN_ROW)) + INSERT_TXN_SUFFIX);
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            Map<String, Transaction> byReference = new HashMap<>();
+            int i = 1;
+            for (Transaction txn : txns) {
+                stmt.setLong(i++, txn.getWalletId());
+                stmt.setString(i++, txn.getTxnType().name());
+                stmt.setBigDecimal(i++, txn.getAmount());
+                stmt.setString(i++, txn.getReferenceCode());
+                stmt.setTimestamp(i++, Timestamp.valueOf(txn.getCreatedAt()));
+                stmt.setTimestamp(i++, Timestamp.valueOf(txn.getUpdatedAt()));
+                byReference.put(txn.getReferenceCode(), txn);
+            }
+
+            try (ResultSet generatedKeys = stmt.executeQuery()) {
+                while (generatedKeys.next()) {
+                    Transaction txn = byReference.get(generatedKeys.getString("reference_code"));
+                    if (txn != null) {
+                        txn.setTransactionId(generatedKeys.getLong("transaction_id"));
+                    }
+                }
+            }
+            return txns;
+        }
+    }
+
+    // Read-only: served by the replica inside ReadRouting.replicaRead(...)
     public List<Transaction> findMiniStatement(Long walletId){
         List<Transaction> transactions = new ArrayList<>();
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = ReadRouting.shared().getReadConnection();
             PreparedStatement stmt = conn.prepareStatement(FIND_MINI_STATEMENT)) {
 
             stmt.setLong(1, walletId);
@@ -61,6 +126,36 @@ public class TransactionRepository {
         return transactions;
     }
 
+    /**
+     * Streams one statement page (rows strictly older than the cursor, or the newest rows
+     * when it is null) to the consumer without building a list. The caller must turn
+     * autocommit off on conn: only then does pgjdbc fetch fetchSize rows per round trip
+     * through a cursor instead of loading the whole result.
+     * @return the number of rows streamed
+     */
+    public int streamStatement(Connection conn, Long walletId, StatementCursor before, int limit, int fetchSize,
+                               RowConsumer consumer) throws SQLException, IOException {
+        try (PreparedStatement stmt = conn.prepareStatement(before == null ? FIND_STATEMENT_FIRST_PAGE : FIND_STATEMENT_PAGE)) {
+            stmt.setFetchSize(fetchSize);
+            int i = 1;
+            stmt.setLong(i++, walletId);
+            if (before != null) {
+                stmt.setTimestamp(i++, Timestamp.valueOf(before.createdAt()));
+                stmt.setLong(i++, before.transactionId());
+            }
+            stmt.setInt(i, limit);
+
+            int rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapRowToTransaction(rs));
+                    rows++;
+                }
+            }
+            return rows;
+        }
+    }
+
     private Transaction mapRowToTransaction(ResultSet rs) throws SQLException {
         Transaction txn = new Transaction();
         txn.setTransactionId(rs.getLong("transaction_id"));
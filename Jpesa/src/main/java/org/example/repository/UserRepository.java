@@ -1,6 +1,7 @@
 package org.example.repository;
 
 import org.example.config.DatabaseConfig;
+import org.example.config.ReadRouting;
 import org.example.model.User;
 import org.example.model.UserStatus;
 
@@ -45,8 +46,9 @@ public class UserRepository {
             throw new RuntimeException("Error saving user: " + e.getMessage(), e);
         }
     }
+    // Read-only: served by the replica inside ReadRouting.replicaRead(...)
     public Optional<User> findByPhoneNumber(String phoneNumber){
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = ReadRouting.shared().getReadConnection();
             PreparedStatement stmt = conn.prepareStatement(FIND_BY_PHONE)){
 
             stmt.setString(1, phoneNumber);
@@ -56,12 +58,13 @@ public class UserRepository {
                 }
             }
         } catch (SQLException e){
-            throw new RuntimeException("Error finding user by phone: " + e.getMessage());
+            throw new RuntimeException("Error finding user by phone: " + e.getMessage(), e);
         }
         return Optional.empty();
     }
+    // Read-only: served by the replica inside ReadRouting.replicaRead(...)
     public Optional<User> findById(Long id){
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = ReadRouting.shared().getReadConnection();
         PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID)){
 
             stmt.setLong(1, id);
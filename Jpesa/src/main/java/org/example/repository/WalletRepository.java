@@ -1,11 +1,15 @@
 package org.example.repository;
 
 import org.example.config.DatabaseConfig;
+import org.example.config.ReadRouting;
 import org.example.model.Wallet;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 public class WalletRepository {
@@ -14,6 +18,11 @@ public class WalletRepository {
     private static final String INSERT_WALLET = "INSERT INTO wallets (user_id, balance, currency, created_at, updated_at) VALUES (?,?,?,?,?) RETURNING wallet_id";
     private static final String FIND_BY_USER_ID = "SELECT * FROM wallets WHERE user_id = ?";
     private static final String UPDATE_BALANCE = "UPDATE wallets SET balance = ?, updated_at = ? WHERE wallet_id = ?";
+    private static final String FIND_IDS_BY_PHONES = "SELECT u.phone_number, w.wallet_id FROM wallets w JOIN users u ON u.user_id = w.user_id WHERE u.phone_number = ANY (?)";
+    // Delta updates: the row lock is taken by the UPDATE itself, and the guard stops the balance going negative
+    private static final String DEBIT = "UPDATE wallets SET balance = balance - ?, updated_at = ? WHERE wallet_id = ? AND balance >= ?";
+    private static final String FIND_BALANCE = "SELECT balance FROM wallets WHERE wallet_id = ?";
+    private static final String CREDIT = "UPDATE wallets SET balance = balance + ?, updated_at = ? WHERE wallet_id = ?";
 
     /*
     * Creates a new wallet for a user.
@@ -42,8 +51,9 @@ public class WalletRepository {
         }
     }
 
+    // Read-only: served by the replica inside ReadRouting.replicaRead(...)
     public Optional<Wallet> findByUserId(Long userId) {
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = ReadRouting.shared().getReadConnection();
             PreparedStatement stmt = conn.prepareStatement(FIND_BY_USER_ID)){
 
             stmt.setLong(1, userId);
@@ -82,6 +92,63 @@ public class WalletRepository {
         }
     }
 
+    /**
+     * Resolves wallet ids for several phone numbers in one round trip.
+     * Phones without a wallet are simply missing from the returned map.
+     */
+    public Map<String, Long> findWalletIdsByPhones(Connection conn, Collection<String> phoneNumbers) throws SQLException {
+        Map<String, Long> walletIds = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(FIND_IDS_BY_PHONES)) {
+            stmt.setArray(1, conn.createArrayOf("varchar", phoneNumbers.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    walletIds.put(rs.getString("phone_number"), rs.getLong("wallet_id"));
+                }
+            }
+        }
+        return walletIds;
+    }
+
+    public BigDecimal findBalance(Connection conn, Long walletId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(FIND_BALANCE)) {
+            stmt.setLong(1, walletId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getBigDecimal("balance");
+                }
+            }
+        }
+        throw new SQLException("Wallet " + walletId + " not found");
+    }
+
+    /**
+     * Subtracts amount from the wallet only if the balance covers it.
+     * @return false if the balance was too low (nothing is changed)
+     */
+    public boolean debit(Connection conn, Long walletId, BigDecimal amount) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(DEBIT)) {
+            stmt.setBigDecimal(1, amount);
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setLong(3, walletId);
+            stmt.setBigDecimal(4, amount);
+            return stmt.executeUpdate() == 1;
+        }
+    }
+
+    /**
+     * Adds amount to the wallet relative to its current balance.
+     */
+    public void credit(Connection conn, Long walletId, BigDecimal amount) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(CREDIT)) {
+            stmt.setBigDecimal(1, amount);
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setLong(3, walletId);
+            if (stmt.executeUpdate() != 1) {
+                throw new SQLException("Wallet " + walletId + " not found");
+            }
+        }
+    }
+
     private Wallet mapRowToWallet(ResultSet rs) throws SQLException {
         Wallet wallet = new Wallet();
         wallet.setWalletId(rs.getLong("wallet_id"));
@@ -0,0 +1,200 @@
+package org.example.service;
+
+import org.example.config.AppProperties;
+import org.example.config.ConnectionProvider;
+import org.example.config.DatabaseConfig;
+import org.example.model.AuditLog;
+import org.example.repository.AuditLogRepository;
+import org.jctools.queues.MpscArrayQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit_logs writer.
+ *
+ * Request threads only offer the event to a bounded lock-free ring (JCTools MpscArrayQueue):
+ * no lock, no DB round trip, no wake-up call. One writer thread drains the ring every
+ * audit.flushIntervalMillis (or straight away while there is a backlog) and inserts up to
+ * audit.maxBatch events per JDBC batch, in one transaction.
+ *
+ * When the ring is full, audit.overflow decides: drop (default) loses the event and counts it,
+ * block makes the request thread wait for space.
+ */
+public class AuditLogger implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogger.class);
+
+    public enum OverflowPolicy { DROP, BLOCK }
+
+    private static final int MAX_ACTION_LENGTH = 100; // audit_logs.action is VARCHAR(100)
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Discards every event (audit.enabled=false, and services built by tests).
+     */
+    public static final AuditLogger DISABLED = new AuditLogger();
+
+    private static volatile AuditLogger shared;
+
+    private final AuditLogRepository auditLogRepository;
+    private final ConnectionProvider connectionProvider;
+    private final MpscArrayQueue<AuditLog> queue;
+    private final int maxBatch;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder logged = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blockedWaits = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    private AuditLogger() {
+        this.auditLogRepository = null;
+        this.connectionProvider = null;
+        this.queue = null;
+        this.maxBatch = 0;
+        this.flushIntervalNanos = 0;
+        this.overflowPolicy = OverflowPolicy.DROP;
+        this.writer = null;
+        this.running = false;
+    }
+
+    /**
+     * @param capacity ring size, rounded up to a power of two
+     */
+    public AuditLogger(AuditLogRepository auditLogRepository, ConnectionProvider connectionProvider,
+                       int capacity, int maxBatch, long flushIntervalMillis, OverflowPolicy overflowPolicy) {
+        this.auditLogRepository = auditLogRepository;
+        this.connectionProvider = connectionProvider;
+        this.queue = new MpscArrayQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.running = true;
+        this.writer = new Thread(this::runWriter, "jpesa-audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * The logger used by the controllers, configured from application.properties.
+     */
+    public static AuditLogger shared() {
+        if (shared == null) {
+            synchronized (AuditLogger.class) {
+                if (shared == null) {
+                    shared = AppProperties.getBoolean("audit.enabled", true)
+                            ? new AuditLogger(new AuditLogRepository(), DatabaseConfig::getConnection,
+                                    AppProperties.getInt("audit.queueCapacity", 65_536),
+                                    AppProperties.getInt("audit.maxBatch", 1000),
+                                    AppProperties.getLong("audit.flushIntervalMillis", 10),
+                                    OverflowPolicy.valueOf(AppProperties.get("audit.overflow", "drop").toUpperCase()))
+                            : DISABLED;
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Records an event without waiting for the database.
+     * @param userId null when the actor is not known (e.g. a failed login)
+     * @param action e.g. "LOGIN_FAILED 254712345678", cut to 100 characters
+     */
+    public void log(Long userId, String action, String ipAddress) {
+        if (queue == null) return;
+        if (action.length() > MAX_ACTION_LENGTH) action = action.substring(0, MAX_ACTION_LENGTH);
+        AuditLog event = new AuditLog(userId, action, ipAddress);
+
+        if (queue.offer(event)) {
+            logged.increment();
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            dropped.increment();
+            return;
+        }
+        blockedWaits.increment();
+        while (!queue.offer(event)) {
+            if (!running) {
+                dropped.increment();
+                return;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        logged.increment();
+    }
+
+    private void runWriter() {
+        List<AuditLog> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            queue.drain(batch::add, maxBatch);
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(flushIntervalNanos);
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                auditLogRepository.saveAll(conn, batch);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+            written.add(batch.size());
+            batches.increment();
+        } catch (SQLException | RuntimeException e) {
+            // Never retried: holding failed batches would break the memory bound
+            failed.add(batch.size());
+            log.error("Audit batch of {} events lost: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("queue_depth", queue == null ? 0L : queue.size());
+        stats.put("logged", logged.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("blocked_waits", blockedWaits.sum());
+        stats.put("written", written.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        return stats;
+    }
+
+    /**
+     * Stops the writer after it has flushed what is already queued.
+     */
+    @Override
+    public void close() {
+        if (writer == null) return;
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.service;
+
+import org.example.model.User;
+import org.example.model.UserStatus;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Hand-written binary format holding only what request handling reads
+ * (the profile response and the transaction lookups). No password hash, no updatedAt.
+ *
+ * Layout (big-endian), version 1:
+ *   byte    version
+ *   long    userId
+ *   byte    status ordinal
+ *   long    createdAt epoch millis (UTC), Long.MIN_VALUE = null
+ *   string  phoneNumber, fullName, email (short length + UTF-8 bytes, -1 = null)
+ *
+ * Entries whose first byte is not VERSION (older formats, or the JSON codec's '{')
+ * decode to null. Bump VERSION whenever the layout changes.
+ */
+public class BinaryUserCodec implements UserCodec {
+
+    static final byte VERSION = 1;
+
+    private static final UserStatus[] STATUSES = UserStatus.values();
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    @Override
+    public byte[] encode(User user) {
+        byte[] phone = utf8(user.getPhoneNumber());
+        byte[] name = utf8(user.getFullName());
+        byte[] email = utf8(user.getEmail());
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 1 + 8 + sizeOf(phone) + sizeOf(name) + sizeOf(email));
+        buffer.put(VERSION);
+        buffer.putLong(user.getUserId());
+        buffer.put((byte) user.getStatus().ordinal());
+        buffer.putLong(user.getCreatedAt() == null
+                ? NO_TIME
+                : user.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+        putString(buffer, phone);
+        putString(buffer, name);
+        putString(buffer, email);
+        return buffer.array();
+    }
+
+    @Override
+    public User decode(byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] != VERSION) return null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            User user = new User();
+            user.setUserId(buffer.getLong());
+            int status = buffer.get();
+            if (status < 0 || status >= STATUSES.length) return null;
+            user.setStatus(STATUSES[status]);
+            long createdAt = buffer.getLong();
+            if (createdAt != NO_TIME) {
+                user.setCreatedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAt), ZoneOffset.UTC));
+            }
+            user.setPhoneNumber(getString(buffer));
+            user.setFullName(getString(buffer));
+            user.setEmail(getString(buffer));
+            return buffer.hasRemaining() ? null : user;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            return null; // truncated or corrupt entry
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int sizeOf(byte[] value) {
+        return 2 + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        if (value.length > Short.MAX_VALUE) throw new IllegalArgumentException("Field too long to cache");
+        buffer.putShort((short) value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) return null;
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,248 @@
+package org.example.service;
+
+import org.example.config.AppProperties;
+import org.example.config.ConnectionProvider;
+import org.example.model.Transaction;
+import org.example.model.TransactionType;
+import org.example.repository.TransactionRepository;
+import org.example.repository.WalletRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group commit for single-wallet balance mutations (deposits, airtime).
+ *
+ * Request threads enqueue a mutation and wait on its future. One committer thread
+ * drains the queue in micro-batches (up to maxBatch ops or maxWait, whichever comes first)
+ * and applies the whole batch - balance updates plus ledger rows - in ONE DB transaction,
+ * so N requests share a single commit/fsync instead of paying two each.
+ *
+ * A caller that stops waiting must not report a failure for money that may still move:
+ * it withdraws its mutation, which only succeeds while the committer has not taken it.
+ * For the same reason a batch is only retried mutation by mutation if it failed before
+ * COMMIT was sent; a failed COMMIT may still have committed, so its mutations fail with
+ * "outcome unknown" and are never applied again.
+ */
+public class GroupCommitLedger implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitLedger.class);
+
+    /**
+     * One queued mutation. A negative amount is a debit and is guarded against overdraft.
+     */
+    private record Mutation(long walletId, TransactionType type, BigDecimal amount, String referenceCode,
+                            Pending result) {
+        boolean isDebit() {
+            return amount.signum() < 0;
+        }
+    }
+
+    /**
+     * The outcome of a submitted mutation. Completes once the batch holding it has committed
+     * (or failed), unless it is withdrawn first.
+     */
+    public static final class Pending extends CompletableFuture<Transaction> {
+
+        private static final int QUEUED = 0;
+        private static final int TAKEN = 1;
+        private static final int WITHDRAWN = 2;
+
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        /**
+         * Takes the mutation back out of the queue. Returns false once the committer has
+         * taken it into a batch: from then on it may commit, and only this future knows.
+         */
+        public boolean withdraw() {
+            if (!state.compareAndSet(QUEUED, WITHDRAWN)) return false;
+            completeExceptionally(new ServerBusyException("Server busy, transaction not applied, please retry", 1));
+            return true;
+        }
+
+        boolean take() {
+            return state.compareAndSet(QUEUED, TAKEN);
+        }
+    }
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final ConnectionProvider connectionProvider;
+    private final BlockingQueue<Mutation> queue;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final Thread committer;
+    private volatile boolean running = true;
+
+    public GroupCommitLedger(WalletRepository walletRepository, TransactionRepository transactionRepository,
+                             ConnectionProvider connectionProvider) {
+        this(walletRepository, transactionRepository, connectionProvider,
+                AppProperties.getInt("txn.groupCommit.queueCapacity", 10_000),
+                AppProperties.getInt("txn.groupCommit.maxBatch", 256),
+                AppProperties.getLong("txn.groupCommit.maxWaitMillis", 2));
+    }
+
+    public GroupCommitLedger(WalletRepository walletRepository, TransactionRepository transactionRepository,
+                             ConnectionProvider connectionProvider, int queueCapacity, int maxBatch, long maxWaitMillis) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.connectionProvider = connectionProvider;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.committer = new Thread(this::runCommitter, "jpesa-group-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Queues a credit (positive amount) or a guarded debit (negative amount).
+     * The future completes once the batch holding this mutation has committed; a debit
+     * larger than the balance fails with IllegalStateException("Insufficient funds").
+     */
+    public Pending submit(long walletId, TransactionType type, BigDecimal amount, String referenceCode) {
+        Pending result = new Pending();
+        if (!running) {
+            result.completeExceptionally(new IllegalStateException("Ledger is shutting down"));
+            return result;
+        }
+        // Bounded queue = backpressure: a full queue means the DB cannot keep up, so fail fast
+        if (!queue.offer(new Mutation(walletId, type, amount, referenceCode, result))) {
+            result.completeExceptionally(new ServerBusyException("Server busy, please retry", 1));
+        }
+        return result;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void runCommitter() {
+        List<Mutation> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Mutation first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // Collect more work until the batch is full or the wait window closes
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) continue;
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    Mutation next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                // Withdrawn by callers that gave up waiting: never applied
+                batch.removeIf(m -> !m.result().take());
+                if (!batch.isEmpty()) commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                batch.forEach(m -> m.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Mutation> batch) {
+        try {
+            applyInOneTransaction(batch);
+        } catch (SQLException e) {
+            // Nothing was committed (see applyInOneTransaction). One bad row must not sink its
+            // neighbours: retry each mutation on its own
+            log.warn("Group commit of {} ops failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (Mutation mutation : batch) {
+                try {
+                    applyInOneTransaction(List.of(mutation));
+                } catch (SQLException single) {
+                    mutation.result().completeExceptionally(new RuntimeException("Transaction failed: " + single.getMessage(), single));
+                }
+            }
+        }
+    }
+
+    private void applyInOneTransaction(List<Mutation> batch) throws SQLException {
+        // Wallet-id order (stable, so per-wallet submission order is kept) matches sendMoney's lock order
+        List<Mutation> ordered = new ArrayList<>(batch);
+        ordered.sort(Comparator.comparingLong(Mutation::walletId));
+
+        List<Mutation> applied = new ArrayList<>(ordered.size());
+        List<Mutation> rejected = new ArrayList<>();
+        List<Transaction> ledgerRows = new ArrayList<>(ordered.size());
+
+        boolean commitSent = false;
+        boolean committed = false;
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Mutation mutation : ordered) {
+                    if (mutation.isDebit()) {
+                        if (!walletRepository.debit(conn, mutation.walletId(), mutation.amount().negate())) {
+                            rejected.add(mutation);
+                            continue;
+                        }
+                    } else {
+                        walletRepository.credit(conn, mutation.walletId(), mutation.amount());
+                    }
+                    applied.add(mutation);
+                    ledgerRows.add(new Transaction(mutation.walletId(), mutation.type(), mutation.amount().abs(), mutation.referenceCode()));
+                }
+                transactionRepository.saveAll(conn, ledgerRows);
+                commitSent = true;
+                conn.commit();
+                committed = true;
+            } catch (SQLException | RuntimeException e) {
+                if (!commitSent) conn.rollback();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (!commitSent) throw e; // rolled back: safe to apply again
+            if (!committed) {
+                // The server may have committed before the error reached us: applying these
+                // again could move the money twice, and reporting "busy" would invite a retry
+                log.error("Group commit of {} ops failed after COMMIT was sent, outcome unknown", applied.size(), e);
+                RuntimeException unknown = new RuntimeException(
+                        "Transaction outcome unknown, check your statement before retrying", e);
+                applied.forEach(m -> m.result().completeExceptionally(unknown));
+                rejected.forEach(m -> m.result().completeExceptionally(new IllegalStateException("Insufficient funds")));
+                return;
+            }
+            log.warn("Closing the group commit connection failed after commit: {}", e.getMessage());
+        }
+
+        // Only now is the money durable: release the waiting callers
+        for (int i = 0; i < applied.size(); i++) {
+            applied.get(i).result().complete(ledgerRows.get(i));
+        }
+        rejected.forEach(m -> m.result().completeExceptionally(new IllegalStateException("Insufficient funds")));
+    }
+
+    /**
+     * Stops accepting work, commits what is already queued, then returns.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            committer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.service;
+
+import org.example.config.AppProperties;
+import org.example.config.RedisConfig;
+import org.example.repository.IdempotencyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a money-moving request at most once per (user, Idempotency-Key) and replays the
+ * first response to every retry.
+ *
+ * 1. Redis fast path: a finished key is answered from "idem:<phone>:<key>" without the DB.
+ * 2. Single flight: concurrent duplicates on this node wait for the first one's response.
+ * 3. The idempotency_keys primary key picks one winner across nodes; a duplicate that
+ *    arrives while the winner is still running elsewhere gets 409.
+ *
+ * Only a ServerBusyException releases the claim: it is thrown before anything is applied
+ * (full group-commit queue, withdrawn mutation), so the retry may run the request. Any other
+ * failure may have come after the money moved, so it is stored like a normal response and
+ * replayed: the client checks its statement and uses a new key. A claim its node never
+ * finished (crash, failed store) is answered the same way once it is older than
+ * idempotency.claimTimeoutSeconds, instead of 409 forever.
+ */
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 100;
+    private static final long WAIT_SECONDS = 30;
+    private static final StoredResponse OUTCOME_UNKNOWN = new StoredResponse(500,
+            "{\"error\": \"The outcome of this request is unknown. Check your statement before retrying with a new Idempotency-Key\"}", false);
+
+    private final IdempotencyRepository repository;
+    private final boolean redisEnabled;
+    private final long ttlSeconds = AppProperties.getLong("idempotency.ttlSeconds", 86_400);
+    // Well past the longest a live node takes to answer (group-commit wait, WAIT_SECONDS)
+    private final long claimTimeoutSeconds = AppProperties.getLong("idempotency.claimTimeoutSeconds", 120);
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param replayed true when this is a stored response sent again for a retry
+     */
+    public record StoredResponse(int status, String body, boolean replayed) {
+        StoredResponse asReplay() {
+            return new StoredResponse(status, body, true);
+        }
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<StoredResponse> response) {}
+
+    // 1. Default Constructor (Used by the App)
+    public IdempotencyService() {
+        this(new IdempotencyRepository(), true);
+    }
+
+    // 2. Parameterized Constructor (Used by Tests for Injection)
+    public IdempotencyService(IdempotencyRepository repository, boolean redisEnabled) {
+        this.repository = repository;
+        this.redisEnabled = redisEnabled;
+    }
+
+    /**
+     * @param userPhone   normalized phone of the authenticated user (keys are scoped per user)
+     * @param requestHash hash of the route and body, see hash(); reusing a key for a different request is rejected
+     * @param action      the request itself; runs at most once per key unless it throws ServerBusyException
+     */
+    public StoredResponse execute(String userPhone, String key, String requestHash, Supplier<StoredResponse> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        String id = userPhone + ":" + key;
+
+        // 1. Finished earlier (any node)
+        StoredResponse cached = readRedis(id, requestHash);
+        if (cached != null) return cached;
+
+        // 2. Same key already running on this node: wait for it instead of racing it
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            if (!running.requestHash().equals(requestHash)) return keyReused();
+            return await(running.response()).asReplay();
+        }
+
+        try {
+            StoredResponse response = claimAndRun(userPhone, key, id, requestHash, action);
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    /**
+     * SHA-256 of route + request body, hex encoded (64 chars, fits request_hash).
+     */
+    public static String hash(String route, String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(route.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(body.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private StoredResponse claimAndRun(String userPhone, String key, String id, String requestHash,
+                                       Supplier<StoredResponse> action) {
+        // 3. One winner across nodes
+        if (!repository.tryClaim(userPhone, key, requestHash)) {
+            IdempotencyRepository.StoredKey stored = repository.find(userPhone, key)
+                    .orElseThrow(() -> new ServerBusyException("Idempotency-Key is being released, please retry", 1));
+            if (!stored.requestHash().equals(requestHash)) return keyReused();
+            if (stored.responseStatus() == null) {
+                // Abandoned by its node: whether the money moved is unknown, so never run it again
+                if (repository.expireClaim(userPhone, key, claimTimeoutSeconds, OUTCOME_UNKNOWN.status(), OUTCOME_UNKNOWN.body())) {
+                    log.warn("Idempotency-Key claim for {} went stale, answering outcome unknown", userPhone);
+                    writeRedis(id, requestHash, OUTCOME_UNKNOWN);
+                    return OUTCOME_UNKNOWN.asReplay();
+                }
+                return new StoredResponse(409, "{\"error\": \"A request with this Idempotency-Key is still in progress\"}", false);
+            }
+            StoredResponse replay = new StoredResponse(stored.responseStatus(), stored.responseBody(), true);
+            writeRedis(id, requestHash, replay);
+            return replay;
+        }
+
+        StoredResponse response;
+        try {
+            response = action.get();
+        } catch (ServerBusyException e) {
+            repository.release(userPhone, key); // rejected before anything was applied
+            throw e;
+        } catch (RuntimeException e) {
+            complete(userPhone, key, id, requestHash, OUTCOME_UNKNOWN);
+            throw e;
+        }
+        // 5xx included: the failure may have come after the commit
+        complete(userPhone, key, id, requestHash, response);
+        return response;
+    }
+
+    private void complete(String userPhone, String key, String id, String requestHash, StoredResponse response) {
+        repository.complete(userPhone, key, response.status(), response.body());
+        writeRedis(id, requestHash, response);
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> response) {
+        try {
+            return response.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServerBusyException("Request with this Idempotency-Key is still running, please retry", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for duplicate request", e);
+        }
+    }
+
+    private static StoredResponse keyReused() {
+        return new StoredResponse(422, "{\"error\": \"Idempotency-Key was already used for a different request\"}", false);
+    }
+
+    // Redis value: "<requestHash>|<status>|<body>"
+    private StoredResponse readRedis(String id, String requestHash) {
+        if (!redisEnabled) return null;
+        try (Jedis redis = RedisConfig.getConnection()) {
+            String value = redis.get("idem:" + id);
+            if (value == null) return null;
+            String[] parts = value.split("\\|", 3);
+            if (!parts[0].equals(requestHash)) return keyReused();
+            return new StoredResponse(Integer.parseInt(parts[1]), parts[2], true);
+        } catch (Exception e) {
+            log.warn("Redis error (ignoring): {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String id, String requestHash, StoredResponse response) {
+        if (!redisEnabled) return;
+        try (Jedis redis = RedisConfig.getConnection()) {
+            redis.setex("idem:" + id, ttlSeconds, requestHash + "|" + response.status() + "|" + response.body());
+        } catch (Exception e) {
+            log.warn("Redis error (ignoring): {}", e.getMessage());
+        }
+    }
+}
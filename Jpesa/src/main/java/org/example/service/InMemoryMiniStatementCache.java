@@ -0,0 +1,81 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.model.Transaction;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Single-node MiniStatementCache: an immutable newest-first list per wallet in a bounded
+ * Caffeine map, next to the wallet's generation. Appends and puts replace the entry
+ * atomically (compute), so readers never see a half-updated ring. Generations are drawn from
+ * one counter, so a wallet evicted and re-created never repeats a generation a miss has read.
+ */
+public class InMemoryMiniStatementCache implements MiniStatementCache {
+
+    // Newest first; the id breaks ties between rows committed in the same millisecond
+    static final Comparator<Transaction> NEWEST_FIRST = Comparator
+            .comparing(Transaction::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Transaction::getTransactionId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final Cache<Long, Entry> rings;
+    private final AtomicLong generations = new AtomicLong();
+
+    public InMemoryMiniStatementCache(long maxWallets, long ttlSeconds) {
+        this.rings = Caffeine.newBuilder()
+                .maximumSize(maxWallets)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    @Override
+    public Optional<List<Transaction>> get(long walletId) {
+        Entry entry = rings.getIfPresent(walletId);
+        return entry != null ? Optional.ofNullable(entry.ring()) : Optional.empty();
+    }
+
+    @Override
+    public long generation(long walletId) {
+        Entry entry = rings.getIfPresent(walletId);
+        return entry != null ? entry.generation() : 0L;
+    }
+
+    @Override
+    public void put(long walletId, long generation, List<Transaction> rows) {
+        rings.asMap().compute(walletId, (id, entry) -> {
+            long current = entry != null ? entry.generation() : 0L;
+            return current == generation ? new Entry(current, trim(rows)) : entry;
+        });
+    }
+
+    @Override
+    public void append(List<Transaction> committed) {
+        Map<Long, List<Transaction>> byWallet = committed.stream()
+                .collect(Collectors.groupingBy(Transaction::getWalletId));
+        byWallet.forEach((walletId, rows) -> rings.asMap().compute(walletId, (id, entry) -> {
+            long generation = generations.incrementAndGet();
+            if (entry == null || entry.ring() == null) {
+                return new Entry(generation, null); // no ring to extend, only the bump
+            }
+            List<Transaction> merged = new ArrayList<>(rows.size() + entry.ring().size());
+            merged.addAll(rows);
+            merged.addAll(entry.ring());
+            return new Entry(generation, trim(merged));
+        }));
+    }
+
+    // ring is null while only the generation is known
+    private record Entry(long generation, List<Transaction> ring) {}
+
+    private static List<Transaction> trim(List<Transaction> rows) {
+        return rows.stream().sorted(NEWEST_FIRST).limit(MINI_STATEMENT_SIZE).toList();
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.model.User;
+
+import java.io.IOException;
+
+/**
+ * The original cache format: the whole User as Jackson JSON (password hash included).
+ */
+public class JsonUserCodec implements UserCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonUserCodec() {
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+    }
+
+    @Override
+    public byte[] encode(User user) {
+        try {
+            return objectMapper.writeValueAsBytes(user);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode user", e);
+        }
+    }
+
+    @Override
+    public User decode(byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] != '{') return null;
+        try {
+            return objectMapper.readValue(bytes, User.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.service;
+
+import org.example.config.AppProperties;
+import org.example.model.Transaction;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The last MINI_STATEMENT_SIZE ledger rows per wallet, newest first, so /api/txn/ministatement
+ * can be answered without Postgres. TransactionService appends rows after they commit and
+ * rebuilds a wallet's entry from the DB on a miss.
+ *
+ * Every append bumps the wallet's generation, cached or not. A miss reads the generation
+ * before it reads the DB and puts only if it is unchanged, so a rebuild that raced a commit
+ * (and may not contain its rows) is dropped instead of hiding them until the TTL.
+ *
+ * Selected with txn.miniStatement.cache=none|memory|redis (default none). Use redis when
+ * more than one node serves traffic: an in-process cache only sees its own node's writes.
+ */
+public interface MiniStatementCache {
+
+    int MINI_STATEMENT_SIZE = 10;
+
+    /**
+     * @return the cached rows, newest first, or empty on a miss
+     */
+    Optional<List<Transaction>> get(long walletId);
+
+    /**
+     * @return the wallet's current generation; read it before reading the DB for put
+     */
+    long generation(long walletId);
+
+    /**
+     * Replaces a wallet's entry with rows freshly read from the DB (newest first), unless a
+     * commit has appended to the wallet since generation was read.
+     */
+    void put(long walletId, long generation, List<Transaction> rows);
+
+    /**
+     * Adds committed rows to the entries of their wallets and bumps their generations. Wallets
+     * with no entry get no ring: a partial ring would hide older rows, so the next read
+     * rebuilds it instead.
+     */
+    void append(List<Transaction> committed);
+
+    MiniStatementCache NONE = new MiniStatementCache() {
+        @Override
+        public Optional<List<Transaction>> get(long walletId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public long generation(long walletId) {
+            return 0L;
+        }
+
+        @Override
+        public void put(long walletId, long generation, List<Transaction> rows) {}
+
+        @Override
+        public void append(List<Transaction> committed) {}
+    };
+
+    static MiniStatementCache fromProperties() {
+        String cache = AppProperties.get("txn.miniStatement.cache", "none");
+        long ttlSeconds = AppProperties.getLong("txn.miniStatement.ttlSeconds", 300);
+        return switch (cache) {
+            case "none" -> NONE;
+            case "memory" -> new InMemoryMiniStatementCache(AppProperties.getLong("txn.miniStatement.maxWallets", 100_000), ttlSeconds);
+            case "redis" -> new RedisMiniStatementCache(ttlSeconds);
+            default -> throw new IllegalStateException("Unknown txn.miniStatement.cache: " + cache);
+        };
+    }
+}
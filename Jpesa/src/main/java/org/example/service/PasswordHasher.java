@@ -0,0 +1,145 @@
+package org.example.service;
+
+import org.example.config.AppProperties;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt (cost 12, ~250 ms of CPU per call) on its own small pool so a burst of
+ * logins cannot take every request thread away from deposits and transfers.
+ *
+ * auth.hashThreads     pool size (default: CPU count)
+ * auth.hashQueue       waiting hashes before new ones are rejected (default: 4 x threads)
+ * auth.hashTimeoutSeconds  how long a caller waits for its result (default 10)
+ *
+ * A full queue throws ServerBusyException, which controllers turn into 503 + Retry-After.
+ */
+public class PasswordHasher implements AutoCloseable {
+
+    private static final int LOG_ROUNDS = 12;
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    private static volatile PasswordHasher shared;
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutNanos;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHasher(int threads, int queueCapacity, long timeoutSeconds) {
+        this(newExecutor(threads, queueCapacity), timeoutSeconds);
+    }
+
+    // Package-private: lets tests hand in a pool they can saturate
+    PasswordHasher(ThreadPoolExecutor executor, long timeoutSeconds) {
+        this.executor = executor;
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
+    }
+
+    public static PasswordHasher shared() {
+        if (shared == null) {
+            synchronized (PasswordHasher.class) {
+                if (shared == null) {
+                    int threads = AppProperties.getInt("auth.hashThreads", Runtime.getRuntime().availableProcessors());
+                    shared = new PasswordHasher(threads,
+                            AppProperties.getInt("auth.hashQueue", threads * 4),
+                            AppProperties.getLong("auth.hashTimeoutSeconds", 10));
+                }
+            }
+        }
+        return shared;
+    }
+
+    public String hash(String password) {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(LOG_ROUNDS)));
+    }
+
+    public boolean check(String password, String passwordHash) {
+        return run(() -> BCrypt.checkpw(password, passwordHash));
+    }
+
+    /**
+     * Queue depth, rejections and hash latency (pure BCrypt time and time spent queued).
+     */
+    public Map<String, Long> stats() {
+        long count = hashes.sum();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("queue_depth", (long) executor.getQueue().size());
+        stats.put("active", (long) executor.getActiveCount());
+        stats.put("hashes", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("hash_avg_micros", count == 0 ? 0 : hashNanos.sum() / count / 1_000);
+        stats.put("hash_max_micros", maxHashNanos.get() / 1_000);
+        stats.put("wait_avg_micros", count == 0 ? 0 : waitNanos.sum() / count / 1_000);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> work) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    long elapsed = System.nanoTime() - startedAt;
+                    waitNanos.add(startedAt - queuedAt);
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulate(elapsed);
+                    hashes.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServerBusyException("Too many authentication requests, please retry", RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new ServerBusyException("Authentication timed out, please retry", RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing", e);
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "jpesa-bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.config.RedisConfig;
+import org.example.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.params.GetExParams;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Shared MiniStatementCache: a Redis list "ministatement:<walletId>" per wallet, newest at
+ * the head and trimmed to MINI_STATEMENT_SIZE. Appends use LPUSHX, which only touches lists
+ * that already exist, so a wallet is either fully rebuilt from the DB or not cached at all.
+ * Each append also INCRs "ministatement:gen:<walletId>"; put WATCHes that key and only
+ * writes if it still holds the generation read before the DB read.
+ *
+ * Redis errors never fail a committed transaction: a failed append drops the wallet's
+ * entry (or, if Redis is down altogether, the TTL bounds how stale it can get).
+ */
+public class RedisMiniStatementCache implements MiniStatementCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisMiniStatementCache.class);
+
+    // Never a stored generation (a missing key reads as 0, INCR starts at 1): put skips it
+    private static final long UNKNOWN_GENERATION = -1L;
+
+    private final long ttlSeconds;
+    private final ObjectMapper objectMapper;
+
+    public RedisMiniStatementCache(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+    }
+
+    @Override
+    public Optional<List<Transaction>> get(long walletId) {
+        try (Jedis redis = RedisConfig.getConnection()) {
+            List<String> entries = redis.lrange(key(walletId), 0, MINI_STATEMENT_SIZE - 1);
+            if (entries.isEmpty()) return Optional.empty();
+
+            List<Transaction> rows = new ArrayList<>(entries.size());
+            for (String entry : entries) {
+                rows.add(objectMapper.readValue(entry, Transaction.class));
+            }
+            // Two commits on one wallet can finish their appends out of order
+            rows.sort(InMemoryMiniStatementCache.NEWEST_FIRST);
+            return Optional.of(rows);
+        } catch (Exception e) {
+            log.warn("Redis error (ignoring): {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public long generation(long walletId) {
+        try (Jedis redis = RedisConfig.getConnection()) {
+            // GETEX refreshes the TTL, so the key cannot expire and restart at 1 while the miss reads the DB
+            String value = redis.getEx(generationKey(walletId), GetExParams.getExParams().ex(ttlSeconds));
+            return value != null ? Long.parseLong(value) : 0L;
+        } catch (Exception e) {
+            log.warn("Redis error (ignoring): {}", e.getMessage());
+            return UNKNOWN_GENERATION;
+        }
+    }
+
+    @Override
+    public void put(long walletId, long generation, List<Transaction> rows) {
+        if (rows.isEmpty()) return; // an empty list cannot exist in Redis; new wallets are cheap to read
+        if (generation == UNKNOWN_GENERATION) return;
+        try (Jedis redis = RedisConfig.getConnection()) {
+            String[] entries = encode(rows.subList(0, Math.min(rows.size(), MINI_STATEMENT_SIZE)));
+            String generationKey = generationKey(walletId);
+            redis.watch(generationKey);
+            String current = redis.get(generationKey);
+            if ((current != null ? Long.parseLong(current) : 0L) != generation) {
+                redis.unwatch(); // a commit landed after the DB read started
+                return;
+            }
+            // MULTI/EXEC: readers see either the old list or the whole new one. EXEC is
+            // discarded if an append bumps the generation after the WATCH.
+            redis.clients.jedis.Transaction multi = redis.multi();
+            multi.del(key(walletId));
+            multi.rpush(key(walletId), entries); // rows are newest first already
+            multi.expire(key(walletId), ttlSeconds);
+            multi.exec();
+        } catch (Exception e) {
+            log.warn("Redis error (ignoring): {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void append(List<Transaction> committed) {
+        Map<Long, List<Transaction>> byWallet = committed.stream()
+                .collect(Collectors.groupingBy(Transaction::getWalletId));
+        try (Jedis redis = RedisConfig.getConnection()) {
+            Pipeline pipeline = redis.pipelined();
+            for (Map.Entry<Long, List<Transaction>> wallet : byWallet.entrySet()) {
+                String key = key(wallet.getKey());
+                try {
+                    // LPUSH puts its last argument at the head, so push oldest first
+                    List<Transaction> oldestFirst = new ArrayList<>(wallet.getValue());
+                    oldestFirst.sort(InMemoryMiniStatementCache.NEWEST_FIRST.reversed());
+                    pipeline.lpushx(key, encode(oldestFirst));
+                    pipeline.ltrim(key, 0, MINI_STATEMENT_SIZE - 1);
+                } catch (IOException e) {
+                    pipeline.del(key); // cannot encode: let the next read rebuild it
+                }
+                // Even with no list to push to: a miss may be reading the DB right now
+                pipeline.incr(generationKey(wallet.getKey()));
+                pipeline.expire(generationKey(wallet.getKey()), ttlSeconds);
+            }
+            pipeline.sync();
+        } catch (Exception e) {
+            log.warn("Mini statement append failed, dropping entries: {}", e.getMessage());
+            evict(byWallet.keySet());
+        }
+    }
+
+    private void evict(Iterable<Long> walletIds) {
+        try (Jedis redis = RedisConfig.getConnection()) {
+            for (Long walletId : walletIds) {
+                redis.del(key(walletId));
+                redis.incr(generationKey(walletId));
+                redis.expire(generationKey(walletId), ttlSeconds);
+            }
+        } catch (Exception e) {
+            log.warn("Redis error (ignoring): {}", e.getMessage());
+        }
+    }
+
+    private String[] encode(List<Transaction> rows) throws IOException {
+        String[] entries = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            entries[i] = objectMapper.writeValueAsString(rows.get(i));
+        }
+        return entries;
+    }
+
+    private static String key(long walletId) {
+        return "ministatement:" + walletId;
+    }
+
+    private static String generationKey(long walletId) {
+        return "ministatement:gen:" + walletId;
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.service;
+
+import org.example.config.AppProperties;
+import org.example.repository.WalletRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The system revenue account split into N sub-wallets ("shards").
+ * Crediting every fee to the single "000000" wallet makes that one row the
+ * serialization point for all P2P traffic; spreading fees over shards removes it.
+ *
+ * Shard 0 is the original "000000" wallet (the sweep target), shard k is the wallet
+ * of the system user "000000-k" (see db/revenue_shards.sql).
+ * Wallet ids are resolved once and cached for the life of the process.
+ */
+public class RevenueShards {
+
+    private static final Logger log = LoggerFactory.getLogger(RevenueShards.class);
+
+    public static final String MAIN_REVENUE_PHONE = "000000";
+
+    private final WalletRepository walletRepository;
+    private final int shardCount;
+    private volatile long[] walletIds;
+
+    public RevenueShards(WalletRepository walletRepository) {
+        this(walletRepository, AppProperties.getInt("revenue.shards", 1));
+    }
+
+    public RevenueShards(WalletRepository walletRepository, int shardCount) {
+        if (shardCount < 1) throw new IllegalArgumentException("revenue.shards must be at least 1");
+        this.walletRepository = walletRepository;
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Fixed shard wallet ids (Used by Tests).
+     */
+    public static RevenueShards of(long... walletIds) {
+        RevenueShards shards = new RevenueShards(null, walletIds.length);
+        shards.walletIds = walletIds.clone();
+        return shards;
+    }
+
+    public static String shardPhone(int shard) {
+        return shard == 0 ? MAIN_REVENUE_PHONE : MAIN_REVENUE_PHONE + "-" + shard;
+    }
+
+    /**
+     * Picks the shard for a transfer by hashing its reference code.
+     * The first call resolves and caches the ids using the caller's connection.
+     */
+    public long walletIdFor(String referenceCode, Connection conn) throws SQLException {
+        long[] ids = resolve(conn);
+        return ids[Math.floorMod(referenceCode.hashCode(), ids.length)];
+    }
+
+    public long mainWalletId(Connection conn) throws SQLException {
+        return resolve(conn)[0];
+    }
+
+    public long[] walletIds(Connection conn) throws SQLException {
+        return resolve(conn).clone();
+    }
+
+    private long[] resolve(Connection conn) throws SQLException {
+        long[] ids = walletIds;
+        if (ids != null) return ids;
+
+        synchronized (this) {
+            if (walletIds == null) {
+                List<String> phones = new ArrayList<>();
+                for (int shard = 0; shard < shardCount; shard++) {
+                    phones.add(shardPhone(shard));
+                }
+                Map<String, Long> found = walletRepository.findWalletIdsByPhones(conn, phones);
+
+                Long main = found.get(MAIN_REVENUE_PHONE);
+                if (main == null) {
+                    throw new IllegalStateException("System Revenue Account (" + MAIN_REVENUE_PHONE + ") not found. Please run DB setup script.");
+                }
+                // Missing shards are skipped so a partially provisioned DB still works (with less spreading)
+                long[] resolved = phones.stream().map(found::get).filter(id -> id != null).mapToLong(Long::longValue).toArray();
+                if (resolved.length < shardCount) {
+                    log.warn("Revenue shards: only {} of {} shard wallets found. Run db/revenue_shards.sql.", resolved.length, shardCount);
+                }
+                walletIds = resolved;
+            }
+            return walletIds;
+        }
+    }
+
+    @Override
+    public String toString() {
+        long[] ids = walletIds;
+        return "RevenueShards{shardCount=" + shardCount + ", walletIds=" + (ids == null ? "unresolved" : Arrays.toString(ids)) + '}';
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.service;
+
+import org.example.config.ConnectionProvider;
+import org.example.model.Transaction;
+import org.example.model.TransactionType;
+import org.example.repository.TransactionRepository;
+import org.example.repository.WalletRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Periodically moves fees collected on revenue shards 1..N-1 into the main "000000" wallet,
+ * so the main wallet stays the place where revenue is withdrawn from.
+ * Reporting does not depend on the sweep: the system_revenue view sums every shard.
+ */
+public class RevenueSweeper implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(RevenueSweeper.class);
+
+    private final RevenueShards revenueShards;
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final ConnectionProvider connectionProvider;
+
+    public RevenueSweeper(RevenueShards revenueShards, WalletRepository walletRepository,
+                          TransactionRepository transactionRepository, ConnectionProvider connectionProvider) {
+        this.revenueShards = revenueShards;
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.connectionProvider = connectionProvider;
+    }
+
+    // Runs on a scheduler thread: never let an exception cancel future runs
+    @Override
+    public void run() {
+        try {
+            BigDecimal swept = sweep();
+            if (swept.signum() > 0) {
+                log.info("Swept {} from revenue shards", swept);
+            }
+        } catch (Exception e) {
+            log.warn("Revenue sweep failed (will retry): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sweeps each shard in its own short transaction.
+     * @return the total amount moved into the main revenue wallet
+     */
+    public BigDecimal sweep() throws SQLException {
+        BigDecimal total = BigDecimal.ZERO;
+        try (Connection conn = connectionProvider.getConnection()) {
+            long[] shardIds = revenueShards.walletIds(conn);
+            for (int shard = 1; shard < shardIds.length; shard++) {
+                total = total.add(sweepShard(conn, shardIds[0], shardIds[shard]));
+            }
+        }
+        return total;
+    }
+
+    private BigDecimal sweepShard(Connection conn, long mainWalletId, long shardWalletId) throws SQLException {
+        // Fees only ever ADD to a shard, so the balance read here is a safe amount to move
+        BigDecimal amount = walletRepository.findBalance(conn, shardWalletId);
+        if (amount.signum() <= 0) return BigDecimal.ZERO;
+
+        conn.setAutoCommit(false);
+        try {
+            // Same wallet-id lock order as sendMoney
+            Map<Long, BigDecimal> deltas = new TreeMap<>(Map.of(shardWalletId, amount.negate(), mainWalletId, amount));
+            for (Map.Entry<Long, BigDecimal> delta : deltas.entrySet()) {
+                if (delta.getValue().signum() < 0) {
+                    if (!walletRepository.debit(conn, delta.getKey(), amount)) {
+                        throw new SQLException("Revenue shard " + shardWalletId + " balance changed during sweep");
+                    }
+                } else {
+                    walletRepository.credit(conn, delta.getKey(), amount);
+                }
+            }
+
+            String refCode = "SWP-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+            transactionRepository.saveAll(conn, List.of(
+                    new Transaction(shardWalletId, TransactionType.REVENUE_SWEEP, amount.negate(), refCode + "-OUT"),
+                    new Transaction(mainWalletId, TransactionType.REVENUE_SWEEP, amount, refCode + "-IN")
+            ));
+
+            conn.commit();
+            return amount;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+}
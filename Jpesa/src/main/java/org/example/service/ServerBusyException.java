@@ -0,0 +1,19 @@
+package org.example.service;
+
+/**
+ * A bounded queue in front of a scarce resource (BCrypt threads, the group-commit ledger)
+ * is full. Controllers answer 503 with a Retry-After header instead of queueing forever.
+ */
+public class ServerBusyException extends IllegalStateException {
+
+    private final int retryAfterSeconds;
+
+    public ServerBusyException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,51 +1,87 @@
 package org.example.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.config.AppProperties;
+import org.example.config.ConnectionProvider;
 import org.example.config.DatabaseConfig;
+import org.example.config.ReadRouting;
 import org.example.dto.SendMoneyRequest;
+import org.example.dto.StatementCursor;
 import org.example.dto.TransactionRequest;
 import org.example.model.*;
 import org.example.repository.TransactionRepository;
-import org.example.repository.UserRepository;
 import org.example.repository.WalletRepository;
 import org.example.util.InputValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class TransactionService {
 
-    private final UserRepository userRepository;
+    private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+
+    private final UserCache userCache;
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
+    private final ConnectionProvider connectionProvider;
+    private final RevenueShards revenueShards;
+    private final GroupCommitLedger groupCommitLedger; // null = classic autocommit path
+    private final MiniStatementCache miniStatementCache;
+    private final ReadRouting readRouting;
+    // A user's wallet never changes, so the mini statement path skips the wallet lookup
+    private final Cache<Long, Long> walletIdByUserId = Caffeine.newBuilder().maximumSize(100_000).build();
 
     private static final BigDecimal TRANSACTION_FEE = new BigDecimal("5.00");
-
-    // CONFIGURATION: We use the Phone Number as the constant "Business Key"
-    private static final String REVENUE_ACCOUNT_PHONE = "000000";
+    private static final long GROUP_COMMIT_TIMEOUT_SECONDS = 10;
+    private static final int STATEMENT_FETCH_SIZE = AppProperties.getInt("txn.statement.fetchSize", 500);
 
     // 1. Default Constructor (Used by the App)
     public TransactionService() {
-        this(new UserRepository(), new WalletRepository(), new TransactionRepository());
+        this(UserCache.shared(), new WalletRepository(), new TransactionRepository(), DatabaseConfig::getConnection,
+                new RevenueShards(new WalletRepository()), null, MiniStatementCache.fromProperties(), ReadRouting.shared());
     }
 
-    public TransactionService(UserRepository userRepository, WalletRepository walletRepository, TransactionRepository transactionRepository) {
-        this.userRepository = userRepository;
+    // 2. Full Constructor (Used by Tests for Injection). groupCommitLedger is optional, see
+    //    txn.groupCommit.enabled; miniStatementCache, see txn.miniStatement.cache (MiniStatementCache.NONE
+    //    for none); readRouting, see db.replica.url (new ReadRouting(connectionProvider, null, 0, 0) for none)
+    public TransactionService(UserCache userCache, WalletRepository walletRepository,
+                              TransactionRepository transactionRepository, ConnectionProvider connectionProvider,
+                              RevenueShards revenueShards, GroupCommitLedger groupCommitLedger,
+                              MiniStatementCache miniStatementCache, ReadRouting readRouting) {
+        this.userCache = userCache;
         this.walletRepository = walletRepository;
         this.transactionRepository = transactionRepository;
+        this.connectionProvider = connectionProvider;
+        this.revenueShards = revenueShards;
+        this.groupCommitLedger = groupCommitLedger;
+        this.miniStatementCache = miniStatementCache;
+        this.readRouting = readRouting;
     }
 
     public Transaction deposit(TransactionRequest request) {
         User user = validateAndGetUser(request.getPhoneNumber());
         Wallet wallet = getWallet(user.getUserId());
         if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) throw new IllegalArgumentException("Positive amount required");
+        if (groupCommitLedger != null) {
+            return afterCommit(user, awaitGroupCommit(wallet, TransactionType.DEPOSIT, request.getAmount()));
+        }
 
         BigDecimal newBalance = wallet.getBalance().add(request.getAmount());
         walletRepository.updateBalance(wallet.getWalletId(), newBalance);
         Transaction txn = new Transaction(wallet.getWalletId(), TransactionType.DEPOSIT, request.getAmount(), generateReferenceCode());
-        return transactionRepository.save(txn);
+        return afterCommit(user, transactionRepository.save(txn));
     }
 
     public Transaction buyAirtime(TransactionRequest request) {
@@ -53,68 +89,135 @@ public class TransactionService {
         Wallet wallet = getWallet(user.getUserId());
         if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) throw new IllegalArgumentException("Positive amount required");
         if (wallet.getBalance().compareTo(request.getAmount()) < 0) throw new IllegalStateException("Insufficient funds");
+        if (groupCommitLedger != null) {
+            // The balance check above is only a fast reject; the committer re-checks it atomically
+            return afterCommit(user, awaitGroupCommit(wallet, TransactionType.AIRTIME_PURCHASE, request.getAmount().negate()));
+        }
 
         BigDecimal newBalance = wallet.getBalance().subtract(request.getAmount());
         walletRepository.updateBalance(wallet.getWalletId(), newBalance);
         Transaction txn = new Transaction(wallet.getWalletId(), TransactionType.AIRTIME_PURCHASE, request.getAmount(), generateReferenceCode());
-        return transactionRepository.save(txn);
+        return afterCommit(user, transactionRepository.save(txn));
     }
 
+    /**
+     * Served from the MiniStatementCache when possible. Without a cache the rows are read from
+     * the replica (unless this user wrote recently); a cache miss reads the primary instead,
+     * because the entry it rebuilds is served to every read for the TTL and a lagging replica
+     * could leave out the latest commits.
+     */
     public List<Transaction> getMiniStatement(String phoneNumber) {
+        String normalizedPhone = InputValidator.formatPhoneNumber(phoneNumber);
+        Long walletId = readRouting.replicaRead(normalizedPhone, () -> {
+            User user = userCache.get(normalizedPhone);
+            return walletIdByUserId.get(user.getUserId(), userId -> getWallet(userId).getWalletId());
+        });
+        if (miniStatementCache == MiniStatementCache.NONE) {
+            return readRouting.replicaRead(normalizedPhone, () -> transactionRepository.findMiniStatement(walletId));
+        }
+
+        return miniStatementCache.get(walletId).orElseGet(() -> {
+            long generation = miniStatementCache.generation(walletId); // before the read, see MiniStatementCache
+            List<Transaction> rows = transactionRepository.findMiniStatement(walletId);
+            miniStatementCache.put(walletId, generation, rows);
+            return rows;
+        });
+    }
+
+    /**
+     * Full statement, one keyset page at a time. Rows go to the consumer straight from the
+     * ResultSet (read-only transaction, fetched in STATEMENT_FETCH_SIZE chunks), so even a
+     * year of history never sits in memory as a list.
+     * @param before cursor from the previous page, or null for the newest rows
+     * @return the number of rows streamed
+     */
+    public int streamStatement(String phoneNumber, StatementCursor before, int limit,
+                               TransactionRepository.RowConsumer consumer) throws IOException {
+        if (limit <= 0) throw new IllegalArgumentException("limit must be positive");
         User user = validateAndGetUser(phoneNumber);
         Wallet wallet = getWallet(user.getUserId());
-        return transactionRepository.findMiniStatement(wallet.getWalletId());
+
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false); // required for cursor-based fetching
+            conn.setReadOnly(true);
+            try {
+                return transactionRepository.streamStatement(conn, wallet.getWalletId(), before, limit,
+                        STATEMENT_FETCH_SIZE, consumer);
+            } finally {
+                conn.rollback(); // nothing to commit; HikariCP restores autocommit/read-only on close
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error streaming statement", e);
+        }
     }
 
     /**
-     * P2P Transfer with Fee Deduction
+     * P2P Transfer with Fee Deduction.
+     * Everything runs on ONE connection: wallet ids are resolved in a single query
+     * (the fee goes to a revenue shard picked by hash of the reference code),
+     * balances move via delta UPDATEs (locked in wallet-id order so two opposite
+     * transfers cannot deadlock), and the four ledger rows commit with them.
      */
     public void sendMoney(SendMoneyRequest request) {
         if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Amount must be positive");
         }
-        if (request.getSenderPhone().equals(request.getRecipientPhone())) {
+        String senderPhone = InputValidator.formatPhoneNumber(request.getSenderPhone());
+        String recipientPhone = InputValidator.formatPhoneNumber(request.getRecipientPhone());
+        if (senderPhone.equals(recipientPhone)) {
             throw new IllegalArgumentException("Cannot send money to yourself");
         }
 
-        User sender = validateAndGetUser(request.getSenderPhone());
-        User recipient = validateAndGetUser(request.getRecipientPhone());
+        BigDecimal transferAmount = request.getAmount();
+        BigDecimal totalDeduction = transferAmount.add(TRANSACTION_FEE);
 
-        try (Connection conn = DatabaseConfig.getConnection()) {
+        try (Connection conn = connectionProvider.getConnection()) {
             conn.setAutoCommit(false); // START TRANSACTION
 
             try {
-                // 1. Get Wallets
-                Wallet senderWallet = getWallet(sender.getUserId());
-                Wallet recipientWallet = getWallet(recipient.getUserId());
-
-                // 2. Get System Revenue Wallet (Dynamically)
-                Wallet systemWallet = getSystemRevenueWallet();
+                // 1. Resolve both user wallets in one round trip (revenue shard ids are cached)
+                Map<String, Long> walletIds = walletRepository.findWalletIdsByPhones(conn, List.of(senderPhone, recipientPhone));
 
-                BigDecimal transferAmount = request.getAmount();
-                BigDecimal totalDeduction = transferAmount.add(TRANSACTION_FEE);
+                Long senderWalletId = requireWallet(walletIds, senderPhone);
+                Long recipientWalletId = requireWallet(walletIds, recipientPhone);
 
-                // 3. Check Balance
-                if (senderWallet.getBalance().compareTo(totalDeduction) < 0) {
-                    throw new IllegalStateException("Insufficient funds. Needed: " + totalDeduction);
-                }
+                String refCode = generateReferenceCode();
+                Long systemWalletId = revenueShards.walletIdFor(refCode, conn);
 
-                // 4. Update Balances
-                walletRepository.updateBalance(conn, senderWallet.getWalletId(), senderWallet.getBalance().subtract(totalDeduction));
-                walletRepository.updateBalance(conn, recipientWallet.getWalletId(), recipientWallet.getBalance().add(transferAmount));
-                walletRepository.updateBalance(conn, systemWallet.getWalletId(), systemWallet.getBalance().add(TRANSACTION_FEE));
+                // 2. Net movement per wallet, sorted by wallet id (deterministic lock order)
+                Map<Long, BigDecimal> deltas = new TreeMap<>();
+                deltas.merge(senderWalletId, totalDeduction.negate(), BigDecimal::add);
+                deltas.merge(recipientWalletId, transferAmount, BigDecimal::add);
+                deltas.merge(systemWalletId, TRANSACTION_FEE, BigDecimal::add);
 
-                // 5. Generate Receipts
-                String refCode = generateReferenceCode();
+                // 3. Apply balances (the debit carries the balance guard)
+                for (Map.Entry<Long, BigDecimal> delta : deltas.entrySet()) {
+                    if (delta.getValue().signum() < 0) {
+                        if (!walletRepository.debit(conn, delta.getKey(), delta.getValue().negate())) {
+                            throw new IllegalStateException("Insufficient funds. Needed: " + totalDeduction);
+                        }
+                    } else if (delta.getValue().signum() > 0) {
+                        walletRepository.credit(conn, delta.getKey(), delta.getValue());
+                    }
+                }
 
-                transactionRepository.save(conn, new Transaction(senderWallet.getWalletId(), TransactionType.TRANSFER, transferAmount.negate(), refCode + "-OUT"));
-                transactionRepository.save(conn, new Transaction(senderWallet.getWalletId(), TransactionType.TRANSACTION_FEE, TRANSACTION_FEE.negate(), refCode + "-FEE"));
-                transactionRepository.save(conn, new Transaction(recipientWallet.getWalletId(), TransactionType.TRANSFER, transferAmount, refCode + "-IN"));
-                transactionRepository.save(conn, new Transaction(systemWallet.getWalletId(), TransactionType.TRANSACTION_FEE, TRANSACTION_FEE, refCode + "-REV"));
+                // 4. Generate Receipts (all four ledger rows in one round trip)
+                List<Transaction> receipts = transactionRepository.saveAll(conn, List.of(
+                        new Transaction(senderWalletId, TransactionType.TRANSFER, transferAmount.negate(), refCode + "-OUT"),
+                        new Transaction(senderWalletId, TransactionType.TRANSACTION_FEE, TRANSACTION_FEE.negate(), refCode + "-FEE"),
+                        new Transaction(recipientWalletId, TransactionType.TRANSFER, transferAmount, refCode + "-IN"),
+                        new Transaction(systemWalletId, TransactionType.TRANSACTION_FEE, TRANSACTION_FEE, refCode + "-REV")
+                ));
 
                 conn.commit(); // COMMIT
-                System.out.println("Transfer Complete. Fee: " + TRANSACTION_FEE);
+                miniStatementCache.append(receipts);
+                readRouting.recordWrite(senderPhone);
+                readRouting.recordWrite(recipientPhone);
+                log.debug("Transfer complete. Fee: {}", TRANSACTION_FEE);
 
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                conn.rollback(); // ROLLBACK (business rule, keep the message for the client)
+                throw e;
             } catch (Exception e) {
                 conn.rollback(); // ROLLBACK
                 throw new RuntimeException("Transfer failed: " + e.getMessage(), e);
@@ -124,20 +227,49 @@ public class TransactionService {
         }
     }
 
-    // --- Helper to find the Revenue Wallet by Phone ---
-    private Wallet getSystemRevenueWallet() {
-        User systemUser = userRepository.findByPhoneNumber(REVENUE_ACCOUNT_PHONE)
-                .orElseThrow(() -> new IllegalStateException("System Revenue Account (" + REVENUE_ACCOUNT_PHONE + ") not found. Please run DB setup script."));
+    /**
+     * Waits GROUP_COMMIT_TIMEOUT_SECONDS for the batch. If it has not been picked up by then the
+     * mutation is withdrawn and the client gets a retryable 503 (nothing moved). If it is already
+     * in a batch the outcome is not known yet, so this waits for the batch to commit or fail
+     * rather than report a failure for money that moves anyway.
+     */
+    private Transaction awaitGroupCommit(Wallet wallet, TransactionType type, BigDecimal signedAmount) {
+        GroupCommitLedger.Pending pending = groupCommitLedger.submit(wallet.getWalletId(), type, signedAmount, generateReferenceCode());
+        try {
+            try {
+                return pending.get(GROUP_COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                if (pending.withdraw()) {
+                    log.warn("Group commit queue did not reach wallet {} in {}s, withdrawn", wallet.getWalletId(), GROUP_COMMIT_TIMEOUT_SECONDS);
+                }
+                return pending.get(); // withdrawn: fails at once with ServerBusyException
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new RuntimeException("Transaction failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.withdraw()) throw new ServerBusyException("Interrupted, transaction not applied, please retry", 1);
+            throw new RuntimeException("Interrupted while waiting for commit; the transaction may still complete", e);
+        }
+    }
+
+    // Committed: update the user's cached mini statement and keep their reads on the primary for a while
+    private Transaction afterCommit(User user, Transaction committed) {
+        miniStatementCache.append(List.of(committed));
+        readRouting.recordWrite(user.getPhoneNumber());
+        return committed;
+    }
 
-        return walletRepository.findByUserId(systemUser.getUserId())
-                .orElseThrow(() -> new IllegalStateException("System Revenue Wallet missing"));
+    private Long requireWallet(Map<String, Long> walletIds, String phoneNumber) {
+        Long walletId = walletIds.get(phoneNumber);
+        if (walletId == null) throw new IllegalArgumentException("User not found");
+        return walletId;
     }
 
     // ... Other Helpers ...
     private User validateAndGetUser(String phoneNumber) {
-        String normalized = InputValidator.formatPhoneNumber(phoneNumber);
-        return userRepository.findByPhoneNumber(normalized)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return userCache.get(InputValidator.formatPhoneNumber(phoneNumber));
     }
 
     private Wallet getWallet(Long userId) {
@@ -0,0 +1,185 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.example.config.AppProperties;
+import org.example.config.RedisConfig;
+import org.example.model.User;
+import org.example.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier user lookup keyed by normalized phone number.
+ *
+ * L1: bounded in-heap Caffeine cache (W-TinyLFU) with a short TTL - no network, no JSON.
+ * L2: Redis "user:<phone>" with RedisConfig.TTL_SECONDS, stored via a UserCodec.
+ * DB: UserRepository.findByPhoneNumber on a miss in both.
+ *
+ * invalidate() deletes the Redis entry and publishes the phone on a pub/sub channel,
+ * so every node drops its L1 copy too.
+ */
+public class UserCache {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCache.class);
+
+    public static final String INVALIDATION_CHANNEL = "jpesa:user-invalidate";
+
+    private static volatile UserCache shared;
+
+    private final UserRepository userRepository;
+    private final boolean redisEnabled;
+    private final Cache<String, User> l1;
+    private final UserCodec codec;
+
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Misses = new LongAdder();
+    private final LongAdder dbLoads = new LongAdder();
+
+    /**
+     * @param redisEnabled false = L1 + DB only (unit tests, or nodes without Redis)
+     */
+    public UserCache(UserRepository userRepository, boolean redisEnabled) {
+        this(userRepository, redisEnabled, UserCodec.fromProperties());
+    }
+
+    public UserCache(UserRepository userRepository, boolean redisEnabled, UserCodec codec) {
+        this.userRepository = userRepository;
+        this.redisEnabled = redisEnabled;
+        this.l1 = Caffeine.newBuilder()
+                .maximumSize(AppProperties.getLong("cache.user.l1.maxSize", 10_000))
+                .expireAfterWrite(Duration.ofSeconds(AppProperties.getLong("cache.user.l1.ttlSeconds", 5)))
+                .recordStats()
+                .build();
+        this.codec = codec;
+    }
+
+    /**
+     * The process-wide cache shared by UserService and TransactionService.
+     */
+    public static UserCache shared() {
+        if (shared == null) {
+            synchronized (UserCache.class) {
+                if (shared == null) {
+                    shared = new UserCache(new UserRepository(), true);
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Users served from Redis carry no password hash (see BinaryUserCodec);
+     * authentication must keep reading UserRepository directly.
+     * @param normalizedPhone phone already passed through InputValidator.formatPhoneNumber
+     * @throws IllegalArgumentException if no such user exists
+     */
+    public User get(String normalizedPhone) {
+        User user = l1.getIfPresent(normalizedPhone);
+        if (user != null) return user;
+
+        user = redisEnabled ? readRedis(normalizedPhone) : null;
+        if (user == null) {
+            dbLoads.increment();
+            user = userRepository.findByPhoneNumber(normalizedPhone)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
+            if (redisEnabled) writeRedis(normalizedPhone, user);
+        }
+        l1.put(normalizedPhone, user);
+        return user;
+    }
+
+    public void invalidate(String normalizedPhone) {
+        l1.invalidate(normalizedPhone);
+        if (!redisEnabled) return;
+        try (Jedis redis = RedisConfig.getConnection()) {
+            redis.del(key(normalizedPhone));
+            redis.publish(INVALIDATION_CHANNEL, normalizedPhone);
+            log.debug("Cache cleared for {}", normalizedPhone);
+        } catch (Exception e) {
+            log.warn("Redis error (ignoring): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Listens for invalidations from other nodes on a daemon thread.
+     * After a reconnect the whole L1 is dropped, since messages may have been missed.
+     */
+    public void startInvalidationListener() {
+        if (!redisEnabled) return;
+        Thread listener = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                l1.invalidateAll();
+                try (Jedis redis = RedisConfig.getConnection()) {
+                    redis.subscribe(new JedisPubSub() {
+                        @Override
+                        public void onMessage(String channel, String phone) {
+                            l1.invalidate(phone);
+                        }
+                    }, INVALIDATION_CHANNEL);
+                } catch (Exception e) {
+                    log.warn("Cache invalidation listener lost Redis, reconnecting: {}", e.getMessage());
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                }
+            }
+        }, "jpesa-cache-invalidation");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    /**
+     * Hit/miss/eviction counters for monitoring.
+     */
+    public Map<String, Long> stats() {
+        CacheStats l1Stats = l1.stats();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("l1_hits", l1Stats.hitCount());
+        stats.put("l1_misses", l1Stats.missCount());
+        stats.put("l1_evictions", l1Stats.evictionCount());
+        stats.put("l1_size", l1.estimatedSize());
+        stats.put("l2_hits", l2Hits.sum());
+        stats.put("l2_misses", l2Misses.sum());
+        stats.put("db_loads", dbLoads.sum());
+        return stats;
+    }
+
+    private User readRedis(String normalizedPhone) {
+        try (Jedis redis = RedisConfig.getConnection()) {
+            byte[] cached = redis.get(key(normalizedPhone));
+            User user = cached == null ? null : codec.decode(cached);
+            if (user != null) {
+                l2Hits.increment();
+                return user;
+            }
+        } catch (Exception e) {
+            log.warn("Redis error (ignoring): {}", e.getMessage());
+        }
+        l2Misses.increment();
+        return null;
+    }
+
+    private void writeRedis(String normalizedPhone, User user) {
+        try (Jedis redis = RedisConfig.getConnection()) {
+            redis.setex(key(normalizedPhone), RedisConfig.TTL_SECONDS, codec.encode(user));
+        } catch (Exception e) {
+            log.warn("Redis error (ignoring): {}", e.getMessage());
+        }
+    }
+
+    private static byte[] key(String normalizedPhone) {
+        return ("user:" + normalizedPhone).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.service;
+
+import org.example.config.AppProperties;
+import org.example.model.User;
+
+/**
+ * Turns a cached User into Redis bytes and back.
+ * Selected with cache.user.codec=binary|json (default binary).
+ */
+public interface UserCodec {
+
+    byte[] encode(User user);
+
+    /**
+     * @return the user, or null if the bytes were written by another codec or version
+     *         (the caller treats that as a cache miss and overwrites the entry)
+     */
+    User decode(byte[] bytes);
+
+    static UserCodec fromProperties() {
+        String codec = AppProperties.get("cache.user.codec", "binary");
+        return switch (codec) {
+            case "binary" -> new BinaryUserCodec();
+            case "json" -> new JsonUserCodec();
+            default -> throw new IllegalStateException("Unknown cache.user.codec: " + codec);
+        };
+    }
+}
@@ -1,42 +1,49 @@
 package org.example.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.example.config.RedisConfig;
+import org.example.config.ReadRouting;
 import org.example.dto.LoginRequest;
 import org.example.dto.PasswordResetRequest;
 import org.example.dto.RegisterRequest;
 import org.example.dto.VerifyOtpRequest;
 import org.example.model.*;
-import org.example.repository.OtpRepository;
+import org.example.repository.OtpStore;
 import org.example.repository.UserRepository;
 import org.example.repository.WalletRepository;
 import org.example.util.InputValidator;
-import org.mindrot.jbcrypt.BCrypt;
-import redis.clients.jedis.Jedis;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     private final UserRepository userRepository;
     private final WalletRepository walletRepository;
-    private final OtpRepository otpRepository;
-    private final ObjectMapper objectMapper;
+    private final OtpStore otpStore;
+    private final UserCache userCache;
+    private final PasswordHasher passwordHasher;
+    private final ReadRouting readRouting;
 
     // 1. Default Constructor (Used by the App)
     public UserService() {
-        this(new UserRepository(), new WalletRepository(), new OtpRepository());
+        this(new UserRepository(), new WalletRepository(), OtpStore.fromProperties(), UserCache.shared(), PasswordHasher.shared(),
+                ReadRouting.shared());
     }
 
-    // 2. Parameterized Constructor (Used by Tests for Injection)
-    public UserService(UserRepository userRepository, WalletRepository walletRepository, OtpRepository otpRepository) {
+    // 2. Full Constructor (Used by Tests for Injection). userCache is shared with TransactionService;
+    //    readRouting may send profile reads to the replica, see db.replica.url
+    //    (new ReadRouting(DatabaseConfig::getConnection, null, 0, 0) keeps every read on the primary)
+    public UserService(UserRepository userRepository, WalletRepository walletRepository, OtpStore otpStore,
+                       UserCache userCache, PasswordHasher passwordHasher, ReadRouting readRouting) {
         this.userRepository = userRepository;
         this.walletRepository = walletRepository;
-        this.otpRepository = otpRepository;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this.otpStore = otpStore;
+        this.userCache = userCache;
+        this.passwordHasher = passwordHasher;
+        this.readRouting = readRouting;
     }
 
     /**
@@ -55,8 +62,8 @@ public class UserService {
             throw new IllegalArgumentException("User with phone number " + normalizedPhone + " already exists.");
         }
 
-        // 3. Hash Password (Security)
-        String hashedPassword = BCrypt.hashpw(request.getPassword(), BCrypt.gensalt(12));
+        // 3. Hash Password (Security) - on the BCrypt pool, may throw ServerBusyException
+        String hashedPassword = passwordHasher.hash(request.getPassword());
 
         // 4. Create User Object
         User newUser = new User(
@@ -89,8 +96,8 @@ public class UserService {
         User user = userRepository.findByPhoneNumber(normalizedPhone)
                 .orElseThrow(()-> new IllegalArgumentException("Invalid phone number or password")); // Generic error for security
 
-        //3. Check Password (BCrypt)
-        if (!BCrypt.checkpw(request.getPassword(), user.getPasswordHash())){
+        //3. Check Password (BCrypt, on the hasher's pool)
+        if (!passwordHasher.check(request.getPassword(), user.getPasswordHash())){
             // In a real app, we would log this failed attempt in audit_logs
             throw new IllegalArgumentException("Invalid phone number or password");
         }
@@ -103,12 +110,12 @@ public class UserService {
         //5. Generate 6-Digit OTP
         String otpCode = String.valueOf(ThreadLocalRandom.current().nextInt(100000, 999999));
 
-        // 6. Save OTP to DB (Expires in 5 mins)
+        // 6. Save OTP (Expires in 5 mins)
         OtpCode otp = new OtpCode(user.getUserId(), otpCode, OtpPurpose.LOGIN_VERIFICATION, 5);
-        otpRepository.save(otp);
+        otpStore.save(otp);
 
         // 7. Simulate Sending SMS
-        System.out.println(">>> [SMS GATEWAY] Sending OTP " + otpCode + " to " + normalizedPhone);
+        log.info("[SMS GATEWAY] Sending OTP {} to {}", otpCode, normalizedPhone);
 
         return "OTP sent to " + normalizedPhone + ". Please verify.";
     }
@@ -148,14 +155,11 @@ public class UserService {
         User user = userRepository.findByPhoneNumber(normalizedPhone)
                 .orElseThrow(()-> new IllegalArgumentException("User not found"));
 
-        // 3. Check OTP Database
-        OtpCode validOtp = otpRepository.findValidOtp(user.getUserId(), request.getOtpCode())
+        // 3. Check + mark the OTP used in one step (Security: a replayed or raced code fails)
+        otpStore.consume(user.getUserId(), OtpPurpose.LOGIN_VERIFICATION, request.getOtpCode())
                 .orElseThrow(() -> new IllegalArgumentException("Invalid or Expired OTP"));
 
-        // 4. Mark OTP as used (Security: Prevent replay attacks)
-        otpRepository.markAsUsed(validOtp.getOtpId());
-
-        System.out.println(">>> [AUTH] User " + user.getPhoneNumber() + " logged in successfully.");
+        log.info("User {} logged in", user.getPhoneNumber());
 
         return user;
     }
@@ -173,9 +177,9 @@ public class UserService {
 
         // Save OTP with purpose PASSWORD_REST
         OtpCode otp = new OtpCode(user.getUserId(), otpCode, OtpPurpose.PASSWORD_RESET, 10);
-        otpRepository.save(otp);
+        otpStore.save(otp);
 
-        System.out.println(">>> [SMS GATEWAY] RESET OTP " + otpCode + " sent to " + normalizedPhone);
+        log.info("[SMS GATEWAY] Reset OTP {} sent to {}", otpCode, normalizedPhone);
         return "OTP sent for password reset.";
     }
 
@@ -193,65 +197,33 @@ public class UserService {
         User user = userRepository.findByPhoneNumber(normalizedPhone)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        // 3. Find Valid OTP (Must be for PASSWORD_RESET purpose
-        OtpCode validOtp = otpRepository.findValidOtp(user.getUserId(), request.getOtpCode())
+        // 3. Use up a valid OTP (Must be for PASSWORD_RESET purpose, checked by the store)
+        otpStore.consume(user.getUserId(), OtpPurpose.PASSWORD_RESET, request.getOtpCode())
                 .orElseThrow(() -> new IllegalArgumentException("Invalid or Expired OTP"));
 
-        // 4. Check Purpose (Security check)
-        if (validOtp.getPurpose() != OtpPurpose.PASSWORD_RESET){
-            throw new IllegalArgumentException("Invalid OTP purpose");
-        }
-
-        // 5. Update Password
-        String newHash = BCrypt.hashpw(request.getNewPassword(), BCrypt.gensalt(12));
+        // 4. Update Password
+        String newHash = passwordHasher.hash(request.getNewPassword());
         userRepository.updatePassword(user.getUserId(), newHash);
 
-        // 6. Mark OTP used
-        otpRepository.markAsUsed(validOtp.getOtpId());
+        // 5. Cached copies still carry the old hash (and a lagging replica would reload it)
+        readRouting.recordWrite(normalizedPhone);
+        userCache.invalidate(normalizedPhone);
 
-        System.out.println(">>> [AUTH] Password reset successful for " + normalizedPhone);
+        log.info("Password reset for {}", normalizedPhone);
     }
     /**
      * CACHED USER LOOKUP
-     * Checks Redis first. If missing, hits DB and saves to Redis.
+     * In-process L1 first, then Redis, then the DB (see UserCache).
      */
     public User getCachedUser(String phoneNumber) {
         String normalizedPhone = InputValidator.formatPhoneNumber(phoneNumber);
-        String cacheKey = "user:" + normalizedPhone;
-
-        // 1. CHECK REDIS (Fast Lane)
-        try (Jedis redis = RedisConfig.getConnection()) {
-            String cachedJson = redis.get(cacheKey);
-            if (cachedJson != null) {
-                System.out.println(">>> [CACHE HIT] Found in Redis: " + normalizedPhone);
-                return objectMapper.readValue(cachedJson, User.class);
-            }
-        } catch (Exception e) {
-            System.err.println("Redis error (ignoring): " + e.getMessage());
-        }
-
-        // 2. QUERY DB (Slow Lane)
-        System.out.println(">>> [CACHE MISS] Querying Database: " + normalizedPhone);
-        User user = userRepository.findByPhoneNumber(normalizedPhone)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        // 3. SAVE TO REDIS (For next time)
-        try (Jedis redis = RedisConfig.getConnection()) {
-            String json = objectMapper.writeValueAsString(user);
-            redis.setex(cacheKey, RedisConfig.TTL_SECONDS, json);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        return user;
+        return readRouting.replicaRead(normalizedPhone, () -> userCache.get(normalizedPhone));
     }
+
+    /**
+     * Drops the user from Redis and from the L1 cache on every node.
+     */
     public void invalidateCache(String phoneNumber){
-        String normalizedPhone = InputValidator.formatPhoneNumber(phoneNumber);
-        try (Jedis redis = RedisConfig.getConnection()){
-            redis.del("user:" + normalizedPhone);
-            System.out.println(">>> [CACHE CLEARED] for " + normalizedPhone);
-        } catch (Exception e){
-            e.printStackTrace();
-        }
+        userCache.invalidate(InputValidator.formatPhoneNumber(phoneNumber));
     }
 }
@@ -1,13 +1,13 @@
 package org.example.util;
 
-import java.util.regex.Matcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.regex.Pattern;
 
 public class InputValidator {
 
-    // Regex: Optional (+254 or 254 or 0) followed by (7 or 1 and 8 digits)
-    // Examples: 0712345678, 254712345678, +254712345678
-    private static final Pattern PHONE_PATTERN = Pattern.compile("^(\\+?254|0)?([71]\\d{8})$");
+    private static final Logger log = LoggerFactory.getLogger(InputValidator.class);
 
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
     private static final Pattern PASSWORD_PATTERN = Pattern.compile("^(?=.*[A-Za-z])(?=.*\\d)[A-Za-z\\d@$!%*#?&]{8,}$");
@@ -22,23 +22,21 @@ public class InputValidator {
 
     /**
      * Validates and formats phone number to standard 2547XXXXXXXX format.
+     * Single pass, no regex (see Msisdn); the result is usually a shared cached instance.
      */
     public static String formatPhoneNumber(String phone) {
         if (phone == null) throw new IllegalArgumentException("Phone number cannot be null");
 
-        // AGGRESSIVE CLEANING: Remove anything that is NOT a digit or a plus sign.
-        // This fixes issues with hidden spaces, dashes, or weird copy-paste characters.
-        String cleanPhone = phone.replaceAll("[^0-9+]", "");
-
-        Matcher matcher = PHONE_PATTERN.matcher(cleanPhone);
-        if (matcher.matches()) {
-            // Group 2 is the '712345678' part (The 9 digits)
-            return "254" + matcher.group(2);
+        // Anything that is NOT a digit or a plus sign (hidden spaces, dashes, weird
+        // copy-paste characters) is skipped while parsing
+        String normalized = Msisdn.normalize(phone);
+        if (normalized != null) {
+            return normalized;
         }
 
-        // Debugging tip: Print what we actually tried to match
-        System.err.println("Validation Failed for raw: '" + phone + "' cleaned: '" + cleanPhone + "'");
+        // Debugging tip: log what we actually tried to match
+        log.debug("Validation failed for raw: '{}'", phone);
 
         throw new IllegalArgumentException("Invalid Kenyan phone number format: " + phone);
     }
-}
\ No newline at end of file
+}
@@ -2,62 +2,50 @@ package org.example.util;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.example.config.AppProperties;
 
 import javax.crypto.SecretKey;
-import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.Properties;
 
 public class JwtUtil {
 
     private static final SecretKey SECRET_KEY;
     private static final long EXPIRATION_TIME;
+    // Immutable and thread-safe: built once instead of per request
+    private static final JwtParser PARSER;
 
-    // Static block to load configuration
-    static {
-        // Use temporary variables to satisfy compiler's "definite assignment" rules
-        SecretKey tempKey = null;
-        long tempExpiration = 0;
-
-        try {
-            Properties props = new Properties();
-            try (InputStream input = JwtUtil.class.getClassLoader().getResourceAsStream("application.properties")) {
-                if (input == null) {
-                    throw new RuntimeException("application.properties not found");
-                }
-                props.load(input);
-            }
+    /**
+     * Claims the middleware needs from a verified token.
+     * @param expiresAtMillis the token's exp claim, in epoch millis
+     */
+    public record VerifiedToken(String phoneNumber, Long userId, long expiresAtMillis) {}
 
-            // 1. Load Secret
-            String secretString = props.getProperty("jwt.secret");
-            if (secretString == null || secretString.trim().isEmpty()) {
-                throw new RuntimeException("jwt.secret is missing in application.properties");
-            }
-            tempKey = Keys.hmacShaKeyFor(secretString.getBytes(StandardCharsets.UTF_8));
-
-            // 2. Load Expiration
-            String expirationString = props.getProperty("jwt.expiration");
-            if (expirationString == null || expirationString.trim().isEmpty()) {
-                throw new RuntimeException("jwt.expiration is missing in application.properties");
-            }
+    // Static block to load configuration (a -Djwt.secret / -Djwt.expiration overrides the file)
+    static {
+        // 1. Load Secret
+        String secretString = AppProperties.get("jwt.secret", null);
+        if (secretString == null) {
+            throw new RuntimeException("jwt.secret is missing in application.properties");
+        }
+        SECRET_KEY = Keys.hmacShaKeyFor(secretString.getBytes(StandardCharsets.UTF_8));
 
-            try {
-                tempExpiration = Long.parseLong(expirationString.trim());
-            } catch (NumberFormatException e) {
-                throw new RuntimeException("jwt.expiration must be a valid number (milliseconds)");
-            }
+        // 2. Load Expiration
+        String expirationString = AppProperties.get("jwt.expiration", null);
+        if (expirationString == null) {
+            throw new RuntimeException("jwt.expiration is missing in application.properties");
+        }
 
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load JWT configuration", e);
+        try {
+            EXPIRATION_TIME = Long.parseLong(expirationString);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("jwt.expiration must be a valid number (milliseconds)");
         }
 
-        // Assign final variables exactly once at the end
-        SECRET_KEY = tempKey;
-        EXPIRATION_TIME = tempExpiration;
+        PARSER = Jwts.parser().verifyWith(SECRET_KEY).build();
     }
 
     public static String generateToken(String phoneNumber, Long userId) {
@@ -71,16 +59,23 @@ public class JwtUtil {
     }
 
     public static String validateTokenAndGetPhone(String token) {
+        return verify(token).phoneNumber();
+    }
+
+    /**
+     * Checks the signature and expiry, and extracts the phone (subject) and userId claims.
+     */
+    public static VerifiedToken verify(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(SECRET_KEY)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = PARSER.parseSignedClaims(token).getPayload();
 
-            return claims.getSubject();
+            Date expiration = claims.getExpiration();
+            return new VerifiedToken(
+                    claims.getSubject(),
+                    claims.get("userId", Long.class),
+                    expiration == null ? Long.MAX_VALUE : expiration.getTime());
         } catch (JwtException | IllegalArgumentException e) {
             throw new RuntimeException("Invalid or Expired Token");
         }
     }
-}
\ No newline at end of file
+}
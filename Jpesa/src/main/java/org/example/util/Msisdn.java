@@ -0,0 +1,102 @@
+package org.example.util;
+
+/**
+ * Kenyan mobile numbers as a long MSISDN (254712345678L).
+ *
+ * parse(...) is a single pass over the raw input with no regex, no intermediate string and
+ * no boxing. It accepts exactly what the old "strip everything but [0-9+], then match
+ * ^(\+?254|0)?([71]\d{8})$" validation accepted.
+ *
+ * canonical(...) hands out the "2547XXXXXXXX" string from a small direct-mapped cache, so
+ * the same number normally maps to the same String instance (hash already computed) and
+ * a lookup allocates nothing.
+ */
+public final class Msisdn {
+
+    public static final long INVALID = -1L;
+
+    private static final long COUNTRY_PREFIX = 254_000_000_000L;
+    private static final long SUBSCRIBER_RANGE = 1_000_000_000L; // 9 digits after 254 / 0
+    private static final int MAX_DIGITS = 12;
+
+    private static final int CACHE_BITS = 14;
+    private static final Entry[] CANONICAL = new Entry[1 << CACHE_BITS];
+
+    // Immutable, so a racy read of the slot sees either a whole entry or another one
+    private record Entry(long msisdn, String canonical) {}
+
+    private Msisdn() {}
+
+    /**
+     * @return the MSISDN (e.g. 254712345678L), or INVALID
+     */
+    public static long parse(CharSequence raw) {
+        if (raw == null) return INVALID;
+        long digits = 0;
+        int digitCount = 0;
+        boolean plus = false;
+        for (int i = 0, n = raw.length(); i < n; i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digitCount > MAX_DIGITS) return INVALID;
+                digits = digits * 10 + (c - '0');
+            } else if (c == '+') {
+                if (plus || digitCount > 0) return INVALID; // only as the first kept character
+                plus = true;
+            }
+            // anything else (spaces, dashes, copy-paste junk) is skipped, as before
+        }
+
+        long subscriber;
+        if (digitCount == 12 && digits / SUBSCRIBER_RANGE == 254) {
+            subscriber = digits % SUBSCRIBER_RANGE;       // 254XXXXXXXXX or +254XXXXXXXXX
+        } else if (plus) {
+            return INVALID;                               // '+' must be followed by 254
+        } else if (digitCount == 10 && digits < SUBSCRIBER_RANGE) {
+            subscriber = digits;                          // 0XXXXXXXXX
+        } else if (digitCount == 9) {
+            subscriber = digits;                          // XXXXXXXXX
+        } else {
+            return INVALID;
+        }
+
+        long lead = subscriber / (SUBSCRIBER_RANGE / 10);
+        return lead == 7 || lead == 1 ? COUNTRY_PREFIX + subscriber : INVALID;
+    }
+
+    /**
+     * The "254XXXXXXXXX" form of a parsed MSISDN.
+     */
+    public static String canonical(long msisdn) {
+        int slot = slot(msisdn);
+        Entry entry = CANONICAL[slot];
+        if (entry != null && entry.msisdn == msisdn) return entry.canonical;
+        String canonical = Long.toString(msisdn);
+        CANONICAL[slot] = new Entry(msisdn, canonical);
+        return canonical;
+    }
+
+    /**
+     * Canonical string for the raw input, or null if it is not a valid number. Input that is
+     * already canonical is returned as is.
+     */
+    public static String normalize(String raw) {
+        long msisdn = parse(raw);
+        if (msisdn == INVALID) return null;
+        if (raw.length() == MAX_DIGITS && allDigits(raw)) return raw; // nothing stripped: already "254XXXXXXXXX"
+        return canonical(msisdn);
+    }
+
+    private static boolean allDigits(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    private static int slot(long msisdn) {
+        long h = msisdn * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> (64 - CACHE_BITS));
+    }
+}
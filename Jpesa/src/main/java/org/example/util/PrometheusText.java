@@ -0,0 +1,74 @@
+package org.example.util;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Minimal writer for the Prometheus text exposition format (version 0.0.4), enough for
+ * the gauges, counters and histograms served on /metrics.
+ */
+public final class PrometheusText {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder out = new StringBuilder(4096);
+
+    public PrometheusText gauge(String name, String help, double value) {
+        return single(name, help, "gauge", value);
+    }
+
+    public PrometheusText counter(String name, String help, double value) {
+        return single(name, help, "counter", value);
+    }
+
+    /**
+     * One "untyped" sample per entry, named prefix_key. Used for the stats() maps of caches and pools,
+     * which mix counters and gauges.
+     */
+    public PrometheusText stats(String prefix, String help, Map<String, Long> stats) {
+        for (Map.Entry<String, Long> stat : stats.entrySet()) {
+            single(prefix + "_" + stat.getKey(), help, "untyped", stat.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * @param upperBounds bucket bounds in ascending order (the +Inf bucket is added here)
+     * @param bucketCounts non-cumulative count per bound; the last element holds samples above every bound
+     */
+    public PrometheusText histogram(String name, String help, double[] upperBounds, long[] bucketCounts, double sum) {
+        header(name, help, "histogram");
+        long cumulative = 0;
+        for (int i = 0; i < upperBounds.length; i++) {
+            cumulative += bucketCounts[i];
+            out.append(name).append("_bucket{le=\"").append(format(upperBounds[i])).append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += bucketCounts[upperBounds.length];
+        out.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+        out.append(name).append("_sum ").append(format(sum)).append('\n');
+        out.append(name).append("_count ").append(cumulative).append('\n');
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private PrometheusText single(String name, String help, String type, double value) {
+        header(name, help, type);
+        out.append(name).append(' ').append(format(value)).append('\n');
+        return this;
+    }
+
+    private void header(String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value)) return String.valueOf((long) value);
+        // Plain digits ("0.0001", not "1.0E-4") so bucket labels read the same as in other exporters
+        return Double.isFinite(value) ? BigDecimal.valueOf(value).stripTrailingZeros().toPlainString() : String.valueOf(value);
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.example.config.AppProperties;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of tokens that already passed signature verification, so a client
+ * sending the same Bearer token on every request pays the HMAC check once.
+ *
+ * Keyed by the SHA-256 of the token (the raw token is never held). Each entry expires
+ * at the token's own exp claim, capped at auth.tokenCache.maxTtlSeconds.
+ */
+public class VerifiedTokenCache {
+
+    private static volatile VerifiedTokenCache shared;
+
+    private final Function<String, JwtUtil.VerifiedToken> verifier;
+    private final Cache<TokenKey, JwtUtil.VerifiedToken> cache;
+
+    /**
+     * The 256-bit token digest as four longs (cheap equals/hashCode, no byte[] identity issues).
+     */
+    private record TokenKey(long a, long b, long c, long d) {}
+
+    public VerifiedTokenCache(Function<String, JwtUtil.VerifiedToken> verifier, long maxSize, long maxTtlSeconds) {
+        this.verifier = verifier;
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<TokenKey, JwtUtil.VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(TokenKey key, JwtUtil.VerifiedToken token, long currentTime) {
+                        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(token.expiresAtMillis() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(remainingNanos, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(TokenKey key, JwtUtil.VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(TokenKey key, JwtUtil.VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The cache used by every AuthMiddleware instance, verifying with JwtUtil.
+     */
+    public static VerifiedTokenCache shared() {
+        if (shared == null) {
+            synchronized (VerifiedTokenCache.class) {
+                if (shared == null) {
+                    shared = new VerifiedTokenCache(JwtUtil::verify,
+                            AppProperties.getLong("auth.tokenCache.maxSize", 100_000),
+                            AppProperties.getLong("auth.tokenCache.maxTtlSeconds", 300));
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * @throws RuntimeException "Invalid or Expired Token" (failed tokens are never cached)
+     */
+    public JwtUtil.VerifiedToken verify(String token) {
+        TokenKey key = keyOf(token);
+        JwtUtil.VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > System.currentTimeMillis()) return cached;
+            cache.invalidate(key); // expired between Caffeine's clean-ups
+        }
+
+        JwtUtil.VerifiedToken verified = verifier.apply(token);
+        cache.put(key, verified);
+        return verified;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Hit/miss/eviction counters for monitoring.
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", cache.stats().hitCount());
+        stats.put("misses", cache.stats().missCount());
+        stats.put("evictions", cache.stats().evictionCount());
+        stats.put("size", cache.estimatedSize());
+        return stats;
+    }
+
+    private static TokenKey keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new TokenKey(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // mandatory in every JRE
+        }
+    }
+}
@@ -0,0 +1,21 @@
+-- Idempotency-Key support for deposit, airtime and send-money.
+-- One row per (user, key): claimed with response_status NULL before the money moves,
+-- completed with the first response, which is then replayed for every retry. A claim still
+-- NULL after idempotency.claimTimeoutSeconds (its node died) is completed as outcome unknown.
+-- Safe to re-run.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    user_phone      VARCHAR(20)  NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash    CHAR(64)     NOT NULL, -- SHA-256 of route + body: same key, different request = 422
+    response_status INT,                   -- NULL while the first request is still running
+    response_body   TEXT,
+    created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    claimed_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_phone, idempotency_key)
+);
+
+-- Tables created before claimed_at existed
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS claimed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- Housekeeping: DELETE FROM idempotency_keys WHERE created_at < NOW() - INTERVAL '7 days';
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys (created_at);
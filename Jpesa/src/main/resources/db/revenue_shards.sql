@@ -0,0 +1,21 @@
+-- Revenue shards: splits the "000000" System Revenue Account into sub-wallets.
+-- Shard 0 is the existing '000000' wallet; shard k belongs to the system user '000000-k'.
+-- Creates shards 1..15, which covers any revenue.shards value up to 16. Safe to re-run.
+
+INSERT INTO users (full_name, phone_number, email, password_hash, status)
+SELECT 'J-Pesa Revenue Shard ' || k, '000000-' || k, 'revenue+' || k || '@jpesa.com', 'ADMIN_PASS', 'ACTIVE'
+FROM generate_series(1, 15) AS k
+ON CONFLICT (phone_number) DO NOTHING;
+
+INSERT INTO wallets (user_id, balance)
+SELECT user_id, 0.00 FROM users WHERE phone_number LIKE '000000-%'
+ON CONFLICT (user_id) DO NOTHING;
+
+-- Reporting: total system revenue regardless of how much has been swept yet
+CREATE OR REPLACE VIEW system_revenue AS
+SELECT COUNT(*)                      AS shard_count,
+       COALESCE(SUM(w.balance), 0.00) AS total_revenue,
+       MAX(w.updated_at)             AS last_updated_at
+FROM wallets w
+JOIN users u ON u.user_id = w.user_id
+WHERE u.phone_number = '000000' OR u.phone_number LIKE '000000-%';
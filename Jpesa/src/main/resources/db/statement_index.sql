@@ -0,0 +1,6 @@
+-- Statement paging: keyset scans on (created_at, transaction_id) per wallet, newest first.
+-- INCLUDE carries every column the statement returns, so pages are served by index-only scans.
+-- Built CONCURRENTLY (no write lock on transactions); keep this file to a single statement. Safe to re-run.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_wallet_statement
+    ON transactions (wallet_id, created_at DESC, transaction_id DESC)
+    INCLUDE (txn_type, amount, reference_code, updated_at);
@@ -0,0 +1,87 @@
+package org.example.bench;
+
+import org.example.model.AuditLog;
+import org.example.repository.AuditLogRepository;
+import org.example.service.AuditLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-path cost of AuditLogger.log(): ns per event with 1 and 8 producer threads.
+ * The writer drains into a repository that discards batches, so this is the ring buffer +
+ * event allocation cost, not Postgres. "dropped" in the teardown line is how often the
+ * writer fell behind (drop policy) at that rate.
+ *
+ * Run: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *      -Dexec.args="-cp %classpath org.example.bench.AuditLoggerOverheadBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditLoggerOverheadBenchmark {
+
+    @Param({"drop", "block"})
+    public String overflow;
+
+    private AuditLogger auditLogger;
+
+    static class DiscardingAuditLogRepository extends AuditLogRepository {
+        @Override
+        public void saveAll(Connection conn, List<AuditLog> logs) {}
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        auditLogger = new AuditLogger(new DiscardingAuditLogRepository(), AuditLoggerOverheadBenchmark::noConnection,
+                65_536, 1000, 10, AuditLogger.OverflowPolicy.valueOf(overflow.toUpperCase()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        auditLogger.close();
+        System.out.println("\n" + overflow + " " + auditLogger.stats());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void logOneThread() {
+        auditLogger.log(42L, "SEND_MONEY 100 TO 254700000002", "10.0.0.1");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void logEightThreads() {
+        auditLogger.log(42L, "SEND_MONEY 100 TO 254700000002", "10.0.0.1");
+    }
+
+    private static Connection noConnection() throws SQLException {
+        return (Connection) java.lang.reflect.Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> null);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(AuditLoggerOverheadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
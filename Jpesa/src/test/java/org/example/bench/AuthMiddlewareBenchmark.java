@@ -0,0 +1,71 @@
+package org.example.bench;
+
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Headers;
+import org.example.config.AuthMiddleware;
+import org.example.util.JwtUtil;
+import org.example.util.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AuthMiddleware overhead per request (header parse, token verification, attachments)
+ * with a cold verified-token cache (every request pays the HMAC check) and a warm one.
+ *
+ * Run: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *      -Dexec.args="-cp %classpath org.example.bench.AuthMiddlewareBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djwt.secret=bench-secret-bench-secret-bench-secret-0123", "-Djwt.expiration=3600000"})
+public class AuthMiddlewareBenchmark {
+
+    @Param({"cold", "warm"})
+    public String cacheState;
+
+    private AuthMiddleware middleware;
+    private HttpServerExchange exchange;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        middleware = newMiddleware();
+        exchange = new HttpServerExchange(null);
+        exchange.getRequestHeaders().put(Headers.AUTHORIZATION, "Bearer " + JwtUtil.generateToken("254712345678", 42L));
+    }
+
+    @Setup(Level.Invocation)
+    public void resetCache() {
+        if (cacheState.equals("cold")) middleware = newMiddleware(); // empty cache, built outside the timed call
+    }
+
+    private static AuthMiddleware newMiddleware() {
+        return new AuthMiddleware(exchange -> { }, new VerifiedTokenCache(JwtUtil::verify, 100_000, 300));
+    }
+
+    @Benchmark
+    public HttpServerExchange authenticate() throws Exception {
+        middleware.handleRequest(exchange);
+        return exchange;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(AuthMiddlewareBenchmark.class.getSimpleName()).build()).run();
+    }
+}
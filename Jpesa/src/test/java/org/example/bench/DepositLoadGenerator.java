@@ -0,0 +1,96 @@
+package org.example.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.model.Transaction;
+import org.example.model.TransactionType;
+import org.example.repository.TransactionRepository;
+import org.example.repository.WalletRepository;
+import org.example.service.GroupCommitLedger;
+import org.example.support.PostgresTestDatabase;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator: deposit throughput with 500 concurrent depositors,
+ * per-request autocommit (balance UPDATE + ledger INSERT, two commits each)
+ * versus the GroupCommitLedger (many deposits per commit).
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=org.example.bench.DepositLoadGenerator [-Dexec.args="500 20 32"]
+ *      (depositors, deposits each, pool size)
+ */
+public class DepositLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        int depositors = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int depositsEach = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int poolSize = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+
+        try (HikariDataSource dataSource = PostgresTestDatabase.start(poolSize)) {
+            List<Long> walletIds = new ArrayList<>();
+            int firstNumber = ThreadLocalRandom.current().nextInt(10_000_000, 80_000_000);
+            try (Connection conn = dataSource.getConnection()) {
+                for (int i = 0; i < depositors; i++) {
+                    walletIds.add(PostgresTestDatabase.createUserWithWallet(conn, String.format("2547%08d", firstNumber + i), BigDecimal.ZERO));
+                }
+            }
+
+            WalletRepository walletRepository = new WalletRepository();
+            TransactionRepository transactionRepository = new TransactionRepository();
+
+            Deposit autocommit = walletId -> {
+                // What deposit() did before: two statements, each committed on its own
+                try (Connection conn = dataSource.getConnection()) {
+                    walletRepository.credit(conn, walletId, BigDecimal.TEN);
+                    transactionRepository.save(conn, new Transaction(walletId, TransactionType.DEPOSIT, BigDecimal.TEN, reference()));
+                }
+            };
+            try (GroupCommitLedger ledger = new GroupCommitLedger(walletRepository, transactionRepository, dataSource::getConnection, 10_000, 256, 2)) {
+                Deposit grouped = walletId -> ledger.submit(walletId, TransactionType.DEPOSIT, BigDecimal.TEN, reference()).join();
+
+                System.out.printf("%-14s %12s %10s%n", "mode", "deposits/s", "errors");
+                for (int round = 0; round < 2; round++) { // first round warms up
+                    run("autocommit", autocommit, walletIds, depositsEach);
+                    run("group-commit", grouped, walletIds, depositsEach);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Deposit {
+        void apply(long walletId) throws Exception;
+    }
+
+    private static void run(String label, Deposit deposit, List<Long> walletIds, int depositsEach) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(walletIds.size());
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        for (long walletId : walletIds) {
+            Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < depositsEach; i++) {
+                    try {
+                        deposit.apply(walletId);
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-14s %12.0f %10d%n", label, walletIds.size() * depositsEach / seconds, errors.get());
+    }
+
+    private static String reference() {
+        return "TX-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.dto.SendMoneyRequest;
+import org.example.dto.TransactionRequest;
+import org.example.dto.UserResponse;
+import org.example.model.Transaction;
+import org.example.model.TransactionType;
+import org.example.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON cost of the request/response DTOs, configured the way the controllers do it
+ * (JavaTimeModule, pre-built readers): request bodies in, receipts / mini-statement /
+ * profile out.
+ *
+ * Run: mvn -Pbench test-compile exec:exec -Dbench.args=DtoJsonBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoJsonBenchmark {
+
+    private ObjectReader transactionRequestReader;
+    private ObjectReader sendMoneyRequestReader;
+    private ObjectWriter writer;
+
+    private byte[] transactionRequestJson;
+    private byte[] sendMoneyRequestJson;
+    private Map<String, Object> receipt;
+    private List<Transaction> miniStatement;
+    private UserResponse profile;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        transactionRequestReader = objectMapper.readerFor(TransactionRequest.class);
+        sendMoneyRequestReader = objectMapper.readerFor(SendMoneyRequest.class);
+        writer = objectMapper.writer();
+
+        transactionRequestJson = "{\"amount\":1500.00}".getBytes(StandardCharsets.UTF_8);
+        sendMoneyRequestJson = "{\"recipientPhone\":\"0712345678\",\"amount\":250.50}".getBytes(StandardCharsets.UTF_8);
+
+        miniStatement = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Transaction txn = new Transaction(7L, TransactionType.DEPOSIT, new BigDecimal("1500.00"), "TXN-" + i);
+            txn.setTransactionId(1000L + i);
+            miniStatement.add(txn);
+        }
+        receipt = Map.of("message", "Success", "receipt", miniStatement.get(0));
+
+        User user = new User("Jane Doe", "254712345678", "jane@example.com", "$2a$12$hash");
+        user.setUserId(42L);
+        profile = new UserResponse(user);
+    }
+
+    @Benchmark
+    public TransactionRequest readTransactionRequest() throws Exception {
+        return transactionRequestReader.readValue(transactionRequestJson);
+    }
+
+    @Benchmark
+    public SendMoneyRequest readSendMoneyRequest() throws Exception {
+        return sendMoneyRequestReader.readValue(sendMoneyRequestJson);
+    }
+
+    @Benchmark
+    public String writeReceipt() throws Exception {
+        return writer.writeValueAsString(receipt);
+    }
+
+    @Benchmark
+    public String writeMiniStatement() throws Exception {
+        return writer.writeValueAsString(miniStatement);
+    }
+
+    @Benchmark
+    public String writeProfile() throws Exception {
+        return writer.writeValueAsString(profile);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(DtoJsonBenchmark.class.getSimpleName()).build()).run();
+    }
+}
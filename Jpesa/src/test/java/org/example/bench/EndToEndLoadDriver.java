@@ -0,0 +1,241 @@
+package org.example.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.support.PostgresTestDatabase;
+import org.example.util.JwtUtil;
+import org.testcontainers.containers.GenericContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * End-to-end load driver: starts throwaway Postgres and Redis containers, seeds N funded
+ * users, boots JpesaApp against them in a child JVM and drives one route at a time.
+ * Prints requests, RPS, p50/p95/p99 and error rate per route; any status >= 400 is an
+ * error, since every request it sends should succeed.
+ *
+ * Run: mvn -Pbench test-compile exec:exec -Dbench.main=org.example.bench.EndToEndLoadDriver
+ *      -Dbench.args="1000 64 30"   (users, concurrency, seconds per route)
+ *
+ * JPESA_TEST_DB_URL (see PostgresTestDatabase) uses an existing Postgres instead of a container,
+ * -Dbench.jvmArgs="-Dredis.host=... -Dredis.port=..." an existing Redis. Server flags go in
+ * bench.jvmArgs too, with a bench.server. prefix: -Dbench.server.server.executionMode=virtual.
+ * The server's log (including the jpesa.access timing lines) goes to a file, printed at startup.
+ */
+public class EndToEndLoadDriver {
+
+    private static final String SERVER_FLAG_PREFIX = "bench.server.";
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+
+    private record Route(String label, Function<Integer, HttpRequest.Builder> request) {}
+
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        Duration warmup = Duration.ofSeconds(Math.max(1, duration.toSeconds() / 5));
+
+        GenericContainer<?> redis = null;
+        Process server = null;
+        try (HikariDataSource db = PostgresTestDatabase.start(4)) {
+            String redisHost = System.getProperty("redis.host");
+            int redisPort = Integer.getInteger("redis.port", 6379);
+            if (redisHost == null) {
+                redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+                redis.start();
+                redisHost = redis.getHost();
+                redisPort = redis.getMappedPort(6379);
+            }
+
+            String[] phones = new String[users];
+            long[] userIds = seedUsers(db, phones);
+            System.out.println("Seeded " + users + " users");
+
+            // The driver mints the same tokens the server would issue after login
+            String jwtSecret = UUID.randomUUID() + "-" + UUID.randomUUID();
+            System.setProperty("jwt.secret", jwtSecret);
+            System.setProperty("jwt.expiration", "3600000");
+            String[] tokens = new String[users];
+            for (int i = 0; i < users; i++) {
+                tokens[i] = JwtUtil.generateToken(phones[i], userIds[i]);
+            }
+
+            int port = freePort();
+            Path workDir = Files.createTempDirectory("jpesa-e2e");
+            writeServerProperties(workDir, db, redisHost, redisPort, jwtSecret, port);
+            Path serverLog = workDir.resolve("server.log");
+            server = startServer(workDir, serverLog);
+            System.out.println("Server log: " + serverLog);
+
+            String baseUrl = "http://localhost:" + port;
+            awaitHealthy(baseUrl, server, serverLog);
+
+            HttpLoadClient client = new HttpLoadClient();
+            AtomicLong sequence = new AtomicLong();
+            System.out.printf("users=%d concurrency=%d duration=%ds (after %ds warm-up per route)%n",
+                    users, concurrency, duration.toSeconds(), warmup.toSeconds());
+            System.out.println(HttpLoadClient.Result.header());
+            for (Route route : routes(baseUrl, phones)) {
+                // Callers take users round-robin, so every request is for a different account
+                Function<Integer, HttpRequest> requests = caller -> {
+                    int user = (int) (sequence.getAndIncrement() % users);
+                    return route.request().apply(user)
+                            .header("Authorization", "Bearer " + tokens[user])
+                            .build();
+                };
+                client.run(route.label(), concurrency, warmup, requests, status -> status >= 400);
+                System.out.println(client.run(route.label(), concurrency, duration, requests, status -> status >= 400));
+            }
+        } finally {
+            if (server != null) {
+                server.destroy(); // SIGTERM: runs JpesaApp's shutdown hook
+                server.waitFor();
+            }
+            if (redis != null) redis.stop();
+        }
+    }
+
+    /**
+     * Read-only routes first, then the ones that write.
+     */
+    private static List<Route> routes(String baseUrl, String[] phones) {
+        List<Route> routes = new ArrayList<>();
+        routes.add(new Route("GET /health", user -> get(baseUrl, "/health")));
+        routes.add(new Route("GET /api/auth/profile", user -> get(baseUrl, "/api/auth/profile")));
+        routes.add(new Route("GET /api/txn/ministatement", user -> get(baseUrl, "/api/txn/ministatement")));
+        routes.add(new Route("GET /api/txn/statement", user -> get(baseUrl, "/api/txn/statement?limit=20")));
+        routes.add(new Route("POST /api/txn/deposit", user -> post(baseUrl, "/api/txn/deposit", "{\"amount\":10}")));
+        routes.add(new Route("POST /api/txn/airtime", user -> post(baseUrl, "/api/txn/airtime", "{\"amount\":5}")));
+        routes.add(new Route("POST /api/txn/send", user -> post(baseUrl, "/api/txn/send",
+                "{\"recipientPhone\":\"" + phones[(user + 1) % phones.length] + "\",\"amount\":1}")));
+        return routes;
+    }
+
+    private static HttpRequest.Builder get(String baseUrl, String path) {
+        return HttpRequest.newBuilder(HttpLoadClient.uri(baseUrl, path)).GET();
+    }
+
+    private static HttpRequest.Builder post(String baseUrl, String path, String json) {
+        return HttpRequest.newBuilder(HttpLoadClient.uri(baseUrl, path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    /**
+     * Fills phones with 2547XXXXXXXX numbers from a random base, so reruns against the same
+     * database do not collide, and returns the matching user ids.
+     */
+    private static long[] seedUsers(HikariDataSource db, String[] phones) throws Exception {
+        long base = 254_700_000_000L + ThreadLocalRandom.current().nextLong(0, 99_000_000 - phones.length);
+        long[] userIds = new long[phones.length];
+        try (Connection conn = db.getConnection()) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < phones.length; i++) {
+                phones[i] = Long.toString(base + i);
+                PostgresTestDatabase.createUserWithWallet(conn, phones[i], OPENING_BALANCE);
+            }
+            conn.commit();
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT user_id FROM users WHERE phone_number = ?")) {
+                for (int i = 0; i < phones.length; i++) {
+                    stmt.setString(1, phones[i]);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        rs.next();
+                        userIds[i] = rs.getLong(1);
+                    }
+                }
+            }
+        }
+        return userIds;
+    }
+
+    private static void writeServerProperties(Path dir, HikariDataSource db, String redisHost, int redisPort,
+                                              String jwtSecret, int port) throws IOException {
+        Properties props = new Properties();
+        props.putAll(Map.of(
+                "db.url", db.getJdbcUrl(),
+                "db.username", db.getUsername(),
+                "db.password", db.getPassword(),
+                "db.driver", "org.postgresql.Driver",
+                "hikari.maximumPoolSize", "20",
+                "hikari.minimumIdle", "20",
+                "hikari.idleTimeout", "600000",
+                "hikari.connectionTimeout", "30000",
+                "hikari.maxLifetime", "1800000"));
+        props.putAll(Map.of(
+                "redis.host", redisHost,
+                "redis.port", String.valueOf(redisPort),
+                "jwt.secret", jwtSecret,
+                "jwt.expiration", "3600000",
+                "server.port", String.valueOf(port)));
+        try (Writer out = Files.newBufferedWriter(dir.resolve("application.properties"))) {
+            props.store(out, "EndToEndLoadDriver");
+        }
+    }
+
+    /**
+     * Same classpath as the driver, with dir first so its application.properties wins.
+     */
+    private static Process startServer(Path dir, Path log) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(SERVER_FLAG_PREFIX)) {
+                command.add("-D" + name.substring(SERVER_FLAG_PREFIX.length()) + "=" + System.getProperty(name));
+            }
+        }
+        command.add("-cp");
+        command.add(dir + System.getProperty("path.separator") + System.getProperty("java.class.path"));
+        command.add("org.example.JpesaApp");
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private static void awaitHealthy(String baseUrl, Process server, Path log) throws Exception {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest health = HttpRequest.newBuilder(HttpLoadClient.uri(baseUrl, "/health")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("JpesaApp exited with " + server.exitValue() + ", see " + log);
+            }
+            try {
+                if (http.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) return;
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("JpesaApp not healthy after " + STARTUP_TIMEOUT.toSeconds() + "s, see " + log);
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
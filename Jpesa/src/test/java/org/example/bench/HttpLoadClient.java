@@ -0,0 +1,104 @@
+package org.example.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Closed-loop HTTP load client: N concurrent callers send requests back to back
+ * for a fixed duration and record per-request latency.
+ */
+public class HttpLoadClient {
+
+    public record Result(String label, long requests, long errors, double seconds, long p50Micros, long p95Micros, long p99Micros) {
+        public double rps() {
+            return requests / seconds;
+        }
+
+        public double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        public static String header() {
+            return String.format("%-28s %10s %10s %10s %10s %10s %8s %7s", "run", "requests", "rps", "p50 ms", "p95 ms", "p99 ms", "errors", "err %");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-28s %10d %10.0f %10.2f %10.2f %10.2f %8d %7.2f", label, requests, rps(),
+                    p50Micros / 1000.0, p95Micros / 1000.0, p99Micros / 1000.0, errors, errorRate() * 100);
+        }
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    /**
+     * Counts 5xx responses and transport failures as errors.
+     * @param requestFactory builds the request for caller i (e.g. to pick a per-user token)
+     */
+    public Result run(String label, int concurrency, Duration duration, Function<Integer, HttpRequest> requestFactory)
+            throws InterruptedException {
+        return run(label, concurrency, duration, requestFactory, status -> status >= 500);
+    }
+
+    /**
+     * @param isError which status codes count as errors (transport failures always do)
+     */
+    public Result run(String label, int concurrency, Duration duration, Function<Integer, HttpRequest> requestFactory,
+                      IntPredicate isError) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        int maxSamples = 2_000_000;
+        long[] latencies = new long[maxSamples];
+        AtomicLong samples = new AtomicLong();
+        LongAdder errors = new LongAdder();
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            int caller = i;
+            Thread.ofVirtual().start(() -> {
+                while (System.nanoTime() < deadline) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(requestFactory.apply(caller), HttpResponse.BodyHandlers.discarding());
+                        if (isError.test(response.statusCode())) errors.increment();
+                    } catch (Exception e) {
+                        errors.increment();
+                    }
+                    long slot = samples.getAndIncrement();
+                    if (slot < maxSamples) latencies[(int) slot] = (System.nanoTime() - sent) / 1_000;
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int n = (int) Math.min(samples.get(), maxSamples);
+        long[] sorted = Arrays.copyOf(latencies, n);
+        Arrays.sort(sorted);
+        return new Result(label, samples.get(), errors.sum(), seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
+
+    public static URI uri(String baseUrl, String path) {
+        return URI.create(baseUrl + path);
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.bench;
+
+import org.example.util.InputValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InputValidator checks run on registration and password reset (email, password) and on
+ * nearly every request (phone). PhoneNormalizerBenchmark compares the phone path with the
+ * old regex.
+ *
+ * Run: mvn -Pbench test-compile exec:exec -Dbench.args=InputValidatorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputValidatorBenchmark {
+
+    public String email = "jane.doe+jpesa@example.co.ke";
+    public String password = "Sup3rSecret!pass";
+    public String phone = "0712 345 678";
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return InputValidator.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean isValidPassword() {
+        return InputValidator.isValidPassword(password);
+    }
+
+    @Benchmark
+    public String formatPhoneNumber() {
+        return InputValidator.formatPhoneNumber(phone);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(InputValidatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.bench;
+
+import org.example.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw JwtUtil cost: signing a token at login, and a full signature + claims check
+ * (what every authenticated request pays on a VerifiedTokenCache miss).
+ *
+ * Run: mvn -Pbench test-compile exec:exec -Dbench.args=JwtUtilBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djwt.secret=bench-secret-bench-secret-bench-secret-0123", "-Djwt.expiration=3600000"})
+public class JwtUtilBenchmark {
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = JwtUtil.generateToken("254712345678", 42L);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return JwtUtil.generateToken("254712345678", 42L);
+    }
+
+    @Benchmark
+    public JwtUtil.VerifiedToken verify() {
+        return JwtUtil.verify(token);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(JwtUtilBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.config.ReadRouting;
+import org.example.dto.SendMoneyRequest;
+import org.example.model.Transaction;
+import org.example.repository.TransactionRepository;
+import org.example.repository.UserRepository;
+import org.example.repository.WalletRepository;
+import org.example.service.MiniStatementCache;
+import org.example.service.RevenueShards;
+import org.example.service.TransactionService;
+import org.example.service.UserCache;
+import org.example.support.PostgresTestDatabase;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latency harness: p50/p99 of sendMoney with the four ledger rows written one INSERT
+ * at a time (before) versus one multi-row INSERT (after).
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=org.example.bench.LedgerBatchLatencyHarness [-Dexec.args="5000"]
+ */
+public class LedgerBatchLatencyHarness {
+
+    /**
+     * The pre-batching behaviour: one round trip per ledger row.
+     */
+    static class RowByRowTransactionRepository extends TransactionRepository {
+        @Override
+        public List<Transaction> saveAll(Connection conn, List<Transaction> txns) throws SQLException {
+            for (Transaction txn : txns) {
+                save(conn, txn);
+            }
+            return txns;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int transfers = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+
+        try (HikariDataSource dataSource = PostgresTestDatabase.start(4)) {
+            String sender;
+            String recipient;
+            int firstNumber = ThreadLocalRandom.current().nextInt(10_000_000, 80_000_000);
+            try (Connection conn = dataSource.getConnection()) {
+                sender = String.format("2547%08d", firstNumber);
+                recipient = String.format("2547%08d", firstNumber + 1);
+                PostgresTestDatabase.createUserWithWallet(conn, sender, new BigDecimal("100000000.00"));
+                PostgresTestDatabase.createUserWithWallet(conn, recipient, BigDecimal.ZERO);
+            }
+
+            System.out.printf("%-12s %10s %10s %10s%n", "ledger write", "p50 us", "p99 us", "max us");
+            for (int round = 0; round < 2; round++) { // second round is the one to read (warm JIT + caches)
+                report("row-by-row", measure(dataSource, new RowByRowTransactionRepository(), sender, recipient, transfers));
+                report("batched", measure(dataSource, new TransactionRepository(), sender, recipient, transfers));
+            }
+        }
+    }
+
+    private static long[] measure(HikariDataSource dataSource, TransactionRepository repository,
+                                  String sender, String recipient, int transfers) {
+        TransactionService service = new TransactionService(new UserCache(new UserRepository(), false),
+                new WalletRepository(), repository, dataSource::getConnection, new RevenueShards(new WalletRepository()),
+                null, MiniStatementCache.NONE, new ReadRouting(dataSource::getConnection, null, 0, 0));
+        long[] micros = new long[transfers];
+        for (int i = 0; i < transfers; i++) {
+            long start = System.nanoTime();
+            service.sendMoney(new SendMoneyRequest(sender, recipient, BigDecimal.ONE));
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        return micros;
+    }
+
+    private static void report(String label, long[] micros) {
+        Arrays.sort(micros);
+        System.out.printf("%-12s %10d %10d %10d%n", label,
+                micros[micros.length / 2], micros[(int) (micros.length * 0.99)], micros[micros.length - 1]);
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.bench;
+
+import org.example.util.JwtUtil;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+/**
+ * Login storm test: measures /api/txn/ministatement on its own, then again while
+ * hundreds of clients hammer /api/auth/login. With BCrypt on the request threads the
+ * statement latency climbs with the storm; with PasswordHasher it stays flat and the
+ * excess logins get 503 + Retry-After (counted as errors in the storm line).
+ *
+ * Run against a started server:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=org.example.bench.LoginStormLatencyTest
+ *       -Dexec.args="http://localhost:8080 2547XXXXXXXX Password123 400"
+ *
+ * The phone must be a registered user with that password (every login sends it an OTP).
+ */
+public class LoginStormLatencyTest {
+
+    private static final Duration PHASE = Duration.ofSeconds(20);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: LoginStormLatencyTest <baseUrl> <phone> <password> [stormClients]");
+            return;
+        }
+        String baseUrl = args[0];
+        String phone = args[1];
+        String token = JwtUtil.generateToken(phone, 0L);
+        int stormClients = args.length > 3 ? Integer.parseInt(args[3]) : 400;
+
+        HttpLoadClient client = new HttpLoadClient();
+        HttpRequest statement = HttpRequest.newBuilder(HttpLoadClient.uri(baseUrl, "/api/txn/ministatement"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        HttpRequest login = HttpRequest.newBuilder(HttpLoadClient.uri(baseUrl, "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"phoneNumber\":\"" + phone + "\",\"password\":\"" + args[2] + "\"}"))
+                .build();
+
+        System.out.println(HttpLoadClient.Result.header());
+        System.out.println(client.run("statement baseline", 8, PHASE, caller -> statement));
+
+        HttpLoadClient stormClient = new HttpLoadClient();
+        HttpLoadClient.Result[] storm = new HttpLoadClient.Result[1];
+        Thread stormThread = Thread.ofPlatform().start(() -> {
+            try {
+                storm[0] = stormClient.run("login storm c=" + stormClients, stormClients, PHASE.plusSeconds(4), caller -> login);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(2000); // let the storm ramp up
+        System.out.println(client.run("statement during storm", 8, PHASE, caller -> statement));
+
+        stormThread.join();
+        System.out.println(storm[0]);
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.model.OtpCode;
+import org.example.model.OtpPurpose;
+import org.example.repository.OtpRepository;
+import org.example.repository.OtpStore;
+import org.example.repository.RedisOtpStore;
+import org.example.support.PostgresTestDatabase;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of the login -> verify OTP cycle against both OtpStores. Each virtual user
+ * stores a fresh login code (what /api/auth/login does after the password check) and then
+ * submits it twice at once, like a double-tapped "Verify" button. Exactly one of the two
+ * must win; "double" counts codes accepted twice and must stay 0.
+ * A last phase checks that a code is burned after otp.maxAttempts wrong guesses.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=org.example.bench.OtpLoginVerifyLoadTest [-Dexec.args="256 20"]
+ *      [-Dredis.host=localhost]   (the redis store is skipped when Redis is unreachable)
+ */
+public class OtpLoginVerifyLoadTest {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 20);
+
+        try (HikariDataSource dataSource = PostgresTestDatabase.start(32)) {
+            long[] userIds = seedUsers(dataSource, concurrency);
+
+            List<String> labels = new ArrayList<>(List.of("jdbc"));
+            List<OtpStore> stores = new ArrayList<>(List.of(new OtpRepository(dataSource::getConnection)));
+            RedisOtpStore redisStore = new RedisOtpStore(MAX_ATTEMPTS);
+            try {
+                redisStore.consume(0L, OtpPurpose.LOGIN_VERIFICATION, "000000");
+                labels.add("redis");
+                stores.add(redisStore);
+            } catch (Exception e) {
+                System.err.println("Redis not reachable, skipping redis store: " + e.getMessage());
+            }
+
+            System.out.printf("%-6s %6s %10s %10s %10s %8s %8s %8s%n",
+                    "store", "conc", "cycles/s", "p50 us", "p99 us", "double", "lost", "lockout");
+            for (int i = 0; i < stores.size(); i++) {
+                run(labels.get(i), stores.get(i), userIds, duration);
+            }
+        }
+    }
+
+    private static void run(String label, OtpStore store, long[] userIds, Duration duration) throws Exception {
+        AtomicLong cycles = new AtomicLong();
+        AtomicLong doubleConsumed = new AtomicLong();
+        AtomicLong lost = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> workers = new ArrayList<>();
+            for (long userId : userIds) {
+                workers.add(executor.submit(() -> {
+                    long[] micros = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < deadline) {
+                        String code = String.valueOf(ThreadLocalRandom.current().nextInt(100000, 999999));
+                        store.save(new OtpCode(userId, code, OtpPurpose.LOGIN_VERIFICATION, 5));
+
+                        long start = System.nanoTime();
+                        Future<Boolean> first = executor.submit(() -> consume(store, userId, code));
+                        Future<Boolean> second = executor.submit(() -> consume(store, userId, code));
+                        int winners = (first.get() ? 1 : 0) + (second.get() ? 1 : 0);
+                        if (n == micros.length) micros = Arrays.copyOf(micros, n * 2);
+                        micros[n++] = (System.nanoTime() - start) / 1_000;
+
+                        if (winners > 1) doubleConsumed.incrementAndGet();
+                        if (winners == 0) lost.incrementAndGet();
+                        cycles.incrementAndGet();
+                    }
+                    return Arrays.copyOf(micros, n);
+                }));
+            }
+
+            long[] all = new long[0];
+            for (Future<long[]> worker : workers) {
+                long[] micros = worker.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + micros.length);
+                System.arraycopy(micros, 0, all, offset, micros.length);
+            }
+            Arrays.sort(all);
+
+            System.out.printf("%-6s %6d %10.0f %10d %10d %8d %8d %8s%n", label, userIds.length,
+                    cycles.get() / (double) duration.toSeconds(),
+                    all.length == 0 ? 0 : all[all.length / 2],
+                    all.length == 0 ? 0 : all[(int) (all.length * 0.99)],
+                    doubleConsumed.get(), lost.get(), lockoutHolds(store, userIds[0]));
+        }
+    }
+
+    private static boolean consume(OtpStore store, long userId, String code) {
+        return store.consume(userId, OtpPurpose.LOGIN_VERIFICATION, code).isPresent();
+    }
+
+    // Redis: the right code no longer works after MAX_ATTEMPTS wrong ones. JDBC has no counter.
+    private static String lockoutHolds(OtpStore store, long userId) {
+        if (!(store instanceof RedisOtpStore)) return "n/a";
+        store.save(new OtpCode(userId, "111111", OtpPurpose.LOGIN_VERIFICATION, 5));
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            try {
+                store.consume(userId, OtpPurpose.LOGIN_VERIFICATION, "222222");
+            } catch (IllegalArgumentException lockedOut) {
+                // expected on the last guess
+            }
+        }
+        return consume(store, userId, "111111") ? "FAILED" : "ok";
+    }
+
+    private static long[] seedUsers(HikariDataSource dataSource, int count) throws Exception {
+        long[] userIds = new long[count];
+        int firstNumber = ThreadLocalRandom.current().nextInt(10_000_000, 80_000_000);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement findUser = conn.prepareStatement("SELECT user_id FROM wallets WHERE wallet_id = ?")) {
+            for (int i = 0; i < count; i++) {
+                long walletId = PostgresTestDatabase.createUserWithWallet(
+                        conn, String.format("2547%08d", firstNumber + i), BigDecimal.ZERO);
+                findUser.setLong(1, walletId);
+                try (ResultSet rs = findUser.executeQuery()) {
+                    rs.next();
+                    userIds[i] = rs.getLong(1);
+                }
+            }
+        }
+        return userIds;
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.bench;
+
+import org.example.util.InputValidator;
+import org.example.util.RegexPhoneFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ns/op of InputValidator.formatPhoneNumber (single pass, cached canonical string) against
+ * the regex version it replaced. Add -prof gc to the args for bytes allocated per call.
+ *
+ * Run: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *      -Dexec.args="-cp %classpath org.example.bench.PhoneNormalizerBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhoneNormalizerBenchmark {
+
+    // canonical: from a JWT claim; local / formatted: typed by a user
+    @Param({"254712345678", "0712345678", "+254 712-345-678"})
+    public String phone;
+
+    @Benchmark
+    public String msisdn() {
+        return InputValidator.formatPhoneNumber(phone);
+    }
+
+    @Benchmark
+    public String regex() {
+        return RegexPhoneFormat.format(phone);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(PhoneNormalizerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
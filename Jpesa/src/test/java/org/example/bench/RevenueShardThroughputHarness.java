@@ -0,0 +1,87 @@
+package org.example.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.config.ReadRouting;
+import org.example.dto.SendMoneyRequest;
+import org.example.repository.TransactionRepository;
+import org.example.repository.UserRepository;
+import org.example.repository.WalletRepository;
+import org.example.service.MiniStatementCache;
+import org.example.service.RevenueShards;
+import org.example.service.TransactionService;
+import org.example.service.UserCache;
+import org.example.support.PostgresTestDatabase;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load harness: P2P transfer throughput as the number of revenue shards grows.
+ * Every transfer credits a revenue wallet, so with 1 shard all writers queue on one row.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=org.example.bench.RevenueShardThroughputHarness [-Dexec.args="8000 64"]
+ */
+public class RevenueShardThroughputHarness {
+
+    private static final int ACCOUNTS = 200;
+    private static final int[] SHARD_COUNTS = {1, 2, 4, 8, 16};
+
+    public static void main(String[] args) throws Exception {
+        int transfers = args.length > 0 ? Integer.parseInt(args[0]) : 8000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+        try (HikariDataSource dataSource = PostgresTestDatabase.start(threads)) {
+            List<String> phones = seedAccounts(dataSource);
+            WalletRepository walletRepository = new WalletRepository();
+
+            System.out.printf("%-8s %12s %12s%n", "shards", "transfers/s", "elapsed ms");
+            for (int shardCount : SHARD_COUNTS) {
+                TransactionService service = new TransactionService(new UserCache(new UserRepository(), false),
+                        walletRepository, new TransactionRepository(), dataSource::getConnection,
+                        new RevenueShards(walletRepository, shardCount), null, MiniStatementCache.NONE,
+                        new ReadRouting(dataSource::getConnection, null, 0, 0));
+
+                run(service, phones, transfers / 10, threads); // warm-up
+                long start = System.nanoTime();
+                run(service, phones, transfers, threads);
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+                System.out.printf("%-8d %12.0f %12d%n", shardCount, transfers * 1000.0 / elapsedMs, elapsedMs);
+            }
+        }
+    }
+
+    private static List<String> seedAccounts(HikariDataSource dataSource) throws Exception {
+        List<String> phones = new ArrayList<>();
+        int firstNumber = ThreadLocalRandom.current().nextInt(10_000_000, 80_000_000);
+        try (Connection conn = dataSource.getConnection()) {
+            for (int i = 0; i < ACCOUNTS; i++) {
+                String phone = String.format("2547%08d", firstNumber + i);
+                PostgresTestDatabase.createUserWithWallet(conn, phone, new BigDecimal("1000000.00"));
+                phones.add(phone);
+            }
+        }
+        return phones;
+    }
+
+    private static void run(TransactionService service, List<String> phones, int transfers, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < transfers; i++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int from = random.nextInt(phones.size());
+                int to = (from + 1 + random.nextInt(phones.size() - 1)) % phones.size();
+                service.sendMoney(new SendMoneyRequest(phones.get(from), phones.get(to), BigDecimal.ONE));
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+    }
+}
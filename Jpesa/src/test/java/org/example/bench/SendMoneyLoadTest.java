@@ -0,0 +1,58 @@
+package org.example.bench;
+
+import org.example.util.JwtUtil;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+/**
+ * Load test for POST /api/txn/send: max sustained RPS and p99 for the current
+ * server.executionMode. Start the server once per mode and compare the two reports:
+ *
+ *   java -Dserver.executionMode=worker  -jar target/Jpesa-1.0-SNAPSHOT.jar
+ *   java -Dserver.executionMode=virtual -jar target/Jpesa-1.0-SNAPSHOT.jar
+ *
+ * Then: mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=org.example.bench.SendMoneyLoadTest
+ *       -Dexec.args="http://localhost:8080 2547XXXXXXXX,2547YYYYYYYY 2547ZZZZZZZZ"
+ *
+ * Senders must be funded accounts. Tokens are minted locally with JwtUtil, so the
+ * test classpath must carry the server's jwt.secret. Concurrency steps up until
+ * throughput stops growing; the best step is the max sustained RPS.
+ */
+public class SendMoneyLoadTest {
+
+    private static final int[] CONCURRENCY_STEPS = {16, 64, 256, 1024};
+    private static final Duration STEP_DURATION = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: SendMoneyLoadTest <baseUrl> <sender1,sender2,...> <recipient>");
+            return;
+        }
+        String baseUrl = args[0];
+        String[] senders = args[1].split(",");
+        String recipient = args[2];
+
+        String[] tokens = new String[senders.length];
+        for (int i = 0; i < senders.length; i++) {
+            tokens[i] = JwtUtil.generateToken(senders[i], 0L);
+        }
+        String body = "{\"recipientPhone\":\"" + recipient + "\",\"amount\":1}";
+
+        HttpLoadClient client = new HttpLoadClient();
+        System.out.println(HttpLoadClient.Result.header());
+        HttpLoadClient.Result best = null;
+        for (int concurrency : CONCURRENCY_STEPS) {
+            HttpLoadClient.Result result = client.run("send c=" + concurrency, concurrency, STEP_DURATION,
+                    caller -> HttpRequest.newBuilder(HttpLoadClient.uri(baseUrl, "/api/txn/send"))
+                            .header("Authorization", "Bearer " + tokens[caller % tokens.length])
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build());
+            System.out.println(result);
+            if (best == null || result.rps() > best.rps()) best = result;
+        }
+        System.out.println("Max sustained: " + best);
+    }
+}
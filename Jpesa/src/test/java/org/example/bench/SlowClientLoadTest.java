@@ -0,0 +1,79 @@
+package org.example.bench;
+
+import org.example.util.JwtUtil;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Slow-client load test: opens many connections that trickle a login body one byte
+ * every 200 ms, and meanwhile measures a normal client on /api/txn/ministatement.
+ * With blocking body reads every slow upload parks a worker thread, so the fast
+ * client's latency explodes once slow clients outnumber workers; with JsonBody the
+ * uploads only hold IO-thread buffers and the fast client stays flat.
+ *
+ * Run against a started server:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=org.example.bench.SlowClientLoadTest
+ *       -Dexec.args="http://localhost:8080 2547XXXXXXXX 500"
+ */
+public class SlowClientLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: SlowClientLoadTest <baseUrl> <phoneWithWallet> [slowClients]");
+            return;
+        }
+        String baseUrl = args[0];
+        String token = JwtUtil.generateToken(args[1], 0L);
+        int slowClients = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        HttpLoadClient client = new HttpLoadClient();
+        HttpRequest statement = HttpRequest.newBuilder(HttpLoadClient.uri(baseUrl, "/api/txn/ministatement"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+
+        System.out.println(HttpLoadClient.Result.header());
+        System.out.println(client.run("baseline", 8, Duration.ofSeconds(20), caller -> statement));
+
+        List<Thread> tricklers = startSlowClients(URI.create(baseUrl), slowClients);
+        Thread.sleep(2000); // let every slow connection get its headers in
+        System.out.println(client.run(slowClients + " slow clients", 8, Duration.ofSeconds(20), caller -> statement));
+
+        tricklers.forEach(Thread::interrupt);
+    }
+
+    private static List<Thread> startSlowClients(URI base, int count) {
+        byte[] body = "{\"phoneNumber\":\"0700000000\",\"password\":\"NotARealPassword1\"}".getBytes(StandardCharsets.UTF_8);
+        String headers = "POST /api/auth/login HTTP/1.1\r\n"
+                + "Host: " + base.getHost() + "\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + body.length + "\r\n\r\n";
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                try (Socket socket = new Socket(base.getHost(), base.getPort())) {
+                    OutputStream out = socket.getOutputStream();
+                    out.write(headers.getBytes(StandardCharsets.US_ASCII));
+                    for (byte b : body) {
+                        out.write(b);
+                        out.flush();
+                        Thread.sleep(200);
+                    }
+                    socket.getInputStream().read(); // wait for the response
+                } catch (Exception ignored) {
+                    // interrupted at the end of the run, or the server closed us
+                }
+            }));
+        }
+        return threads;
+    }
+}
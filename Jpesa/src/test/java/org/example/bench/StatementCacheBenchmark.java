@@ -0,0 +1,121 @@
+package org.example.bench;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.config.DatabaseConfig;
+import org.example.model.Transaction;
+import org.example.model.TransactionType;
+import org.example.repository.TransactionRepository;
+import org.example.repository.WalletRepository;
+import org.example.support.PostgresTestDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * us/op of repository calls on pooled connections, per pgjdbc statement profile:
+ *   unprepared - prepareThreshold=0: every call is parsed and planned again (the worst case)
+ *   driver     - pgjdbc defaults (server-prepares a statement after its 5th use on a connection)
+ *   tuned      - DatabaseConfig's default db.profile
+ * read = wallet id by phone + balance + last 10 ledger rows; write = deposit (credit + ledger row).
+ *
+ * Needs Docker or JPESA_TEST_DB_URL (see PostgresTestDatabase).
+ * Run: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *      -Dexec.args="-cp %classpath org.example.bench.StatementCacheBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementCacheBenchmark {
+
+    @Param({"unprepared", "driver", "tuned"})
+    public String profile;
+
+    private HikariDataSource dataSource;
+    private final WalletRepository walletRepository = new WalletRepository();
+    private final TransactionRepository transactionRepository = new TransactionRepository();
+    private String phone;
+    private long walletId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataSource = PostgresTestDatabase.start(4, this::configure);
+        phone = String.format("2547%08d", ThreadLocalRandom.current().nextInt(10_000_000, 99_999_999));
+        try (Connection conn = dataSource.getConnection()) {
+            walletId = PostgresTestDatabase.createUserWithWallet(conn, phone, new BigDecimal("1000.00"));
+            for (int i = 0; i < 10; i++) {
+                deposit(conn);
+            }
+        }
+    }
+
+    private void configure(HikariConfig config) {
+        if (profile.equals("unprepared")) {
+            config.addDataSourceProperty("prepareThreshold", "0");
+        } else {
+            DatabaseConfig.applyDriverProfile(config, profile, new Properties());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) throws Exception {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Long id = walletRepository.findWalletIdsByPhones(conn, List.of(phone)).get(phone);
+                blackhole.consume(walletRepository.findBalance(conn, id));
+                transactionRepository.streamStatement(conn, id, null, 10, 10, blackhole::consume);
+            } finally {
+                conn.rollback();
+            }
+        }
+    }
+
+    @Benchmark
+    public void write() throws Exception {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            deposit(conn);
+            conn.commit();
+        }
+    }
+
+    private void deposit(Connection conn) throws Exception {
+        walletRepository.credit(conn, walletId, BigDecimal.ONE);
+        transactionRepository.save(conn, new Transaction(walletId, TransactionType.DEPOSIT, BigDecimal.ONE,
+                "BENCH-" + UUID.randomUUID()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(StatementCacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.bench;
+
+import org.example.model.User;
+import org.example.service.BinaryUserCodec;
+import org.example.service.JsonUserCodec;
+import org.example.service.UserCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode ns/op of the Redis user codecs, plus bytes per cached entry.
+ *
+ * Run: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *      -Dexec.args="-cp %classpath org.example.bench.UserCodecBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserCodecBenchmark {
+
+    @Param({"binary", "json"})
+    public String codecName;
+
+    private UserCodec codec;
+    private User user;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        codec = codec(codecName);
+        user = sampleUser();
+        encoded = codec.encode(user);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(user);
+    }
+
+    @Benchmark
+    public User decode() {
+        return codec.decode(encoded);
+    }
+
+    static UserCodec codec(String name) {
+        return name.equals("binary") ? new BinaryUserCodec() : new JsonUserCodec();
+    }
+
+    static User sampleUser() {
+        User user = new User("Wanjiku Achieng Otieno", "254712345678", "wanjiku.otieno@example.co.ke",
+                "$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW");
+        user.setUserId(1048576L);
+        return user;
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (String name : new String[]{"binary", "json"}) {
+            System.out.printf("%-6s bytes/entry: %d%n", name, codec(name).encode(sampleUser()).length);
+        }
+        new Runner(new OptionsBuilder().include(UserCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.config;
+
+import org.example.util.PrometheusText;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PoolMetricsTest {
+
+    @Test
+    void shouldWriteCumulativeAcquireHistogram() {
+        // --- ARRANGE ---
+        PoolMetrics metrics = new PoolMetrics();
+
+        // --- ACT ---
+        metrics.recordAcquire(50_000);          // 0.05 ms -> le 0.0001
+        metrics.recordAcquire(2_000_000);       // 2 ms    -> le 0.005
+        metrics.recordAcquire(10_000_000_000L); // 10 s    -> only +Inf
+        PrometheusText out = new PrometheusText();
+        metrics.writeTo(out, 3);
+        String text = out.toString();
+
+        // --- ASSERT ---
+        assertTrue(text.contains("# TYPE jpesa_db_pool_acquire_seconds histogram\n"));
+        assertTrue(text.contains("jpesa_db_pool_acquire_seconds_bucket{le=\"0.0001\"} 1\n"));
+        assertTrue(text.contains("jpesa_db_pool_acquire_seconds_bucket{le=\"0.001\"} 1\n"));
+        assertTrue(text.contains("jpesa_db_pool_acquire_seconds_bucket{le=\"0.005\"} 2\n"));
+        assertTrue(text.contains("jpesa_db_pool_acquire_seconds_bucket{le=\"5\"} 2\n"));
+        assertTrue(text.contains("jpesa_db_pool_acquire_seconds_bucket{le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("jpesa_db_pool_acquire_seconds_count 3\n"));
+        assertTrue(text.contains("jpesa_db_permit_waiters 3\n"));
+    }
+
+    @Test
+    void shouldOmitPoolGaugesUntilHikariRegisters() {
+        // --- ARRANGE ---
+        PoolMetrics metrics = new PoolMetrics();
+        PrometheusText out = new PrometheusText();
+
+        // --- ACT ---
+        metrics.writeTo(out, 0);
+
+        // --- ASSERT ---
+        assertFalse(out.toString().contains("jpesa_db_pool_active_connections"));
+        assertTrue(out.toString().contains("jpesa_db_pool_timeouts_total 0\n"));
+    }
+}
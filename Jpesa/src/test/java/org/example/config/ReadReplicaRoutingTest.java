@@ -0,0 +1,97 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.support.PostgresTestDatabase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReadRouting against two real databases. They are not replicating: each holds a marker row
+ * naming itself, so every read shows which pool served it.
+ */
+@EnabledIf("org.example.support.PostgresTestDatabase#isSecondAvailable")
+public class ReadReplicaRoutingTest {
+
+    private static final long READ_YOUR_WRITES_MILLIS = 300;
+
+    private static HikariDataSource primary;
+    private static HikariDataSource replica;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        primary = PostgresTestDatabase.start(4);
+        replica = PostgresTestDatabase.startSecond(4);
+        mark(primary, "primary");
+        mark(replica, "replica");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (primary != null) primary.close();
+        if (replica != null) replica.close();
+    }
+
+    @Test
+    void shouldRouteByScopeAndReadYourWrites() throws Exception {
+        // --- ARRANGE ---
+        ReadRouting readRouting = new ReadRouting(primary::getConnection, replica::getConnection,
+                READ_YOUR_WRITES_MILLIS, 10_000);
+        readRouting.checkLag(); // a standalone server reports no lag
+
+        // --- ACT & ASSERT ---
+        assertEquals("primary", whoServes(readRouting)); // outside replicaRead
+        assertEquals("replica", readRouting.replicaRead("254700000001", () -> whoServes(readRouting)));
+
+        readRouting.recordWrite("254700000001");
+        assertEquals("primary", readRouting.replicaRead("254700000001", () -> whoServes(readRouting)));
+        assertEquals("replica", readRouting.replicaRead("254700000002", () -> whoServes(readRouting)));
+
+        Thread.sleep(READ_YOUR_WRITES_MILLIS + 100);
+        assertEquals("replica", readRouting.replicaRead("254700000001", () -> whoServes(readRouting)));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaIsDown() throws Exception {
+        // --- ARRANGE ---
+        HikariDataSource doomed = PostgresTestDatabase.startSecond(1);
+        ReadRouting readRouting = new ReadRouting(primary::getConnection, doomed::getConnection,
+                READ_YOUR_WRITES_MILLIS, 10_000);
+        assertEquals("replica", readRouting.replicaRead("254700000003", () -> whoServes(readRouting)));
+
+        // --- ACT ---
+        doomed.close();
+
+        // --- ASSERT ---
+        assertEquals("primary", readRouting.replicaRead("254700000003", () -> whoServes(readRouting)));
+        readRouting.checkLag();
+        assertEquals(0L, readRouting.stats().get("replica_healthy"));
+    }
+
+    private static String whoServes(ReadRouting readRouting) {
+        try (Connection conn = readRouting.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM routing_marker")) {
+            rs.next();
+            return rs.getString(1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading marker", e);
+        }
+    }
+
+    private static void mark(HikariDataSource dataSource, String name) throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS routing_marker (name VARCHAR(10) NOT NULL)");
+            stmt.execute("DELETE FROM routing_marker");
+            stmt.execute("INSERT INTO routing_marker VALUES ('" + name + "')");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReadRoutingTest {
+
+    private static final String PHONE = "254700000001";
+
+    @Mock
+    private ConnectionProvider primary;
+
+    @Mock
+    private ConnectionProvider replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private ReadRouting readRouting;
+
+    @BeforeEach
+    void setUp() {
+        readRouting = new ReadRouting(primary, replica, 60_000, 60_000);
+    }
+
+    @Test
+    void shouldUseReplicaOnlyInsideReplicaRead() throws Exception {
+        // --- ARRANGE ---
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        // --- ACT ---
+        Connection outside = readRouting.getReadConnection();
+        Connection inside = readRouting.replicaRead(PHONE, this::readConnection);
+
+        // --- ASSERT ---
+        assertSame(primaryConnection, outside);
+        assertSame(replicaConnection, inside);
+    }
+
+    @Test
+    void shouldKeepReadsOnPrimaryAfterOwnWrite() throws Exception {
+        // --- ARRANGE ---
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        readRouting.recordWrite(PHONE);
+
+        // --- ACT ---
+        Connection own = readRouting.replicaRead(PHONE, this::readConnection);
+
+        // --- ASSERT ---
+        assertSame(primaryConnection, own);
+        verifyNoInteractions(replica);
+        assertEquals(1L, readRouting.stats().get("pinned_reads"));
+    }
+
+    @Test
+    void shouldRetryOnPrimaryWhenReplicaFails() throws Exception {
+        // --- ARRANGE ---
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // --- ACT ---
+        // First run: the query on the replica fails like a repository would report it
+        Connection served = readRouting.replicaRead(PHONE, () -> {
+            Connection conn = readConnection();
+            if (attempts.incrementAndGet() == 1) {
+                throw new RuntimeException("Error finding user by phone", new SQLException("replica gone"));
+            }
+            return conn;
+        });
+
+        // --- ASSERT ---
+        assertSame(primaryConnection, served);
+        assertEquals(2, attempts.get());
+        assertEquals(1L, readRouting.stats().get("fallbacks"));
+    }
+
+    private Connection readConnection() {
+        try {
+            return readRouting.getReadConnection();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.config;
+
+import io.undertow.server.HttpServerExchange;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestTraceTest {
+
+    @Test
+    void shouldCarryTraceIdThroughMdcAndResponseHeader() throws Exception {
+        // --- ARRANGE ---
+        HttpServerExchange exchange = new HttpServerExchange(null);
+        exchange.getRequestHeaders().put(RequestTrace.REQUEST_ID, "client-req-42");
+        AtomicReference<String> mdcInHandler = new AtomicReference<>();
+        AtomicReference<String> traceInHandler = new AtomicReference<>();
+
+        // --- ACT ---
+        RequestTrace.root(ex -> {
+            mdcInHandler.set(MDC.get(RequestTrace.MDC_KEY));
+            traceInHandler.set(RequestTrace.of(ex).id());
+        }).handleRequest(exchange);
+
+        // --- ASSERT ---
+        assertEquals("client-req-42", mdcInHandler.get());
+        assertEquals("client-req-42", traceInHandler.get());
+        assertEquals("client-req-42", exchange.getResponseHeaders().getFirst(RequestTrace.REQUEST_ID));
+        assertNull(MDC.get(RequestTrace.MDC_KEY), "IO thread must not keep the id after the request");
+    }
+
+    @Test
+    void shouldReplaceUnsafeRequestIds() {
+        // --- ACT ---
+        String injected = RequestTrace.traceId("abc\nfake=line");
+        String tooLong = RequestTrace.traceId("x".repeat(65));
+        String missing = RequestTrace.traceId(null);
+
+        // --- ASSERT ---
+        assertTrue(injected.matches("[0-9a-f]{16}"), injected);
+        assertTrue(tooLong.matches("[0-9a-f]{16}"), tooLong);
+        assertTrue(missing.matches("[0-9a-f]{16}"), missing);
+    }
+
+    @Test
+    void shouldWriteOneStructuredTimingLine() {
+        // --- ARRANGE ---
+        RequestTrace trace = new RequestTrace("abc123", System.nanoTime());
+        trace.record(RequestTrace.Phase.DB, System.nanoTime() - 2_000_000);
+
+        // --- ACT ---
+        String line = trace.line("POST", "/api/txn/send", 200, 4_512_345);
+
+        // --- ASSERT ---
+        assertTrue(line.startsWith("trace=abc123 method=POST path=/api/txn/send status=200 total_ms=4.512 "
+                + "parse_ms=0.000 auth_ms=0.000 db_ms="), line);
+        assertTrue(line.matches(".* db_ms=\\d+\\.\\d{3} serialize_ms=0\\.000"), line);
+        assertTrue(trace.phaseNanos(RequestTrace.Phase.DB) >= 2_000_000);
+    }
+
+    @Test
+    void shouldIgnoreTimingsWithoutRootHandler() {
+        // --- ARRANGE ---
+        HttpServerExchange exchange = new HttpServerExchange(null);
+
+        // --- ACT ---
+        RequestTrace trace = RequestTrace.of(exchange);
+        trace.record(RequestTrace.Phase.PARSE, System.nanoTime() - 1_000_000);
+
+        // --- ASSERT ---
+        assertNull(trace.id());
+        assertEquals(0, trace.phaseNanos(RequestTrace.Phase.PARSE));
+    }
+}
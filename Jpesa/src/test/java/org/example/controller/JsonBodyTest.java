@@ -0,0 +1,76 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.undertow.Undertow;
+import io.undertow.util.Headers;
+import org.example.dto.TransactionRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonBodyTest {
+
+    private static Undertow server;
+    private static String url;
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void startServer() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        server = Undertow.builder()
+                .addHttpListener(0, "localhost")
+                .setHandler(JsonBody.<TransactionRequest>read(objectMapper.readerFor(TransactionRequest.class),
+                        (exchange, body) -> {
+                            // Echo proves the DTO arrived parsed, on a thread that may block
+                            assertFalse(exchange.isInIoThread());
+                            exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "text/plain");
+                            exchange.getResponseSender().send(body.getPhoneNumber() + ":" + body.getAmount());
+                        }))
+                .build();
+        server.start();
+        int port = ((InetSocketAddress) server.getListenerInfo().get(0).getAddress()).getPort();
+        url = "http://localhost:" + port + "/";
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    private HttpResponse<String> post(String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void shouldParseBodyAndDispatchToBlockingHandler() throws Exception {
+        HttpResponse<String> response = post("{\"phoneNumber\":\"0700000001\",\"amount\":250.50}");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("0700000001:250.50", response.body());
+    }
+
+    @Test
+    void shouldRejectMalformedJson() throws Exception {
+        HttpResponse<String> response = post("{\"phoneNumber\": ");
+
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("Malformed JSON body"));
+    }
+
+    @Test
+    void shouldRejectOversizedBody() throws Exception {
+        HttpResponse<String> response = post("{\"phoneNumber\":\"" + "9".repeat(64 * 1024) + "\"}");
+
+        assertEquals(413, response.statusCode());
+    }
+}
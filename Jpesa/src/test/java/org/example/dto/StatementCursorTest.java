@@ -0,0 +1,28 @@
+package org.example.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementCursorTest {
+
+    @Test
+    void shouldRoundTripWithMicrosecondPrecision() {
+        // --- ARRANGE ---
+        StatementCursor cursor = new StatementCursor(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_456_000), 987654321L);
+
+        // --- ACT ---
+        StatementCursor decoded = StatementCursor.decode(cursor.encode());
+
+        // --- ASSERT ---
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void shouldRejectTamperedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> StatementCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> StatementCursor.decode("%%%"));
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.service;
+
+import org.example.model.AuditLog;
+import org.example.repository.AuditLogRepository;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class AuditLoggerTest {
+
+    /**
+     * Keeps what would have been inserted; optionally holds the writer until released.
+     */
+    static class RecordingAuditLogRepository extends AuditLogRepository {
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        final List<AuditLog> saved = new CopyOnWriteArrayList<>();
+        final CountDownLatch release;
+
+        RecordingAuditLogRepository(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void saveAll(Connection conn, List<AuditLog> logs) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batchSizes.add(logs.size());
+            saved.addAll(logs);
+        }
+    }
+
+    @Test
+    void shouldWriteQueuedEventsInBatches() {
+        // --- ARRANGE ---
+        RecordingAuditLogRepository repository = new RecordingAuditLogRepository(new CountDownLatch(0));
+        AuditLogger auditLogger = new AuditLogger(repository, () -> mock(Connection.class),
+                1024, 100, 1, AuditLogger.OverflowPolicy.DROP);
+
+        // --- ACT ---
+        for (int i = 0; i < 250; i++) {
+            auditLogger.log((long) i, "DEPOSIT TX-" + i, "127.0.0.1");
+        }
+        auditLogger.close(); // flushes what is queued
+
+        // --- ASSERT ---
+        assertEquals(250, repository.saved.size());
+        assertTrue(repository.batchSizes.stream().allMatch(size -> size <= 100));
+        assertEquals("DEPOSIT TX-0", repository.saved.get(0).getAction());
+        assertEquals(250L, auditLogger.stats().get("written"));
+        assertEquals(0L, auditLogger.stats().get("dropped"));
+    }
+
+    @Test
+    void shouldDropEventsWhenRingIsFull() {
+        // --- ARRANGE ---
+        // The writer is stuck on its first batch, so the ring (16 slots) fills up
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingAuditLogRepository repository = new RecordingAuditLogRepository(release);
+        AuditLogger auditLogger = new AuditLogger(repository, () -> mock(Connection.class),
+                16, 1, 1, AuditLogger.OverflowPolicy.DROP);
+
+        // --- ACT ---
+        for (int i = 0; i < 100; i++) {
+            auditLogger.log(1L, "LOGIN_FAILED 254700000001", "127.0.0.1");
+        }
+        release.countDown();
+        auditLogger.close();
+
+        // --- ASSERT ---
+        long logged = auditLogger.stats().get("logged");
+        long dropped = auditLogger.stats().get("dropped");
+        assertEquals(100L, logged + dropped);
+        assertTrue(dropped >= 100 - 17, "at most the ring plus the batch in flight is kept");
+        assertEquals(logged, repository.saved.size());
+    }
+}
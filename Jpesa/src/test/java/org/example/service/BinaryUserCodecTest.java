@@ -0,0 +1,68 @@
+package org.example.service;
+
+import org.example.model.User;
+import org.example.model.UserStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryUserCodecTest {
+
+    private final BinaryUserCodec codec = new BinaryUserCodec();
+
+    @Test
+    void shouldRoundTripFieldsNeededForRequests() {
+        // --- ARRANGE ---
+        User user = new User("Alice Wanjiru", "254700000001", "alice@test.com", "secret_hash");
+        user.setUserId(42L);
+        user.setStatus(UserStatus.SUSPENDED);
+        user.setCreatedAt(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000));
+
+        // --- ACT ---
+        User decoded = codec.decode(codec.encode(user));
+
+        // --- ASSERT ---
+        assertEquals(42L, decoded.getUserId());
+        assertEquals("Alice Wanjiru", decoded.getFullName());
+        assertEquals("254700000001", decoded.getPhoneNumber());
+        assertEquals("alice@test.com", decoded.getEmail());
+        assertEquals(UserStatus.SUSPENDED, decoded.getStatus());
+        assertEquals(user.getCreatedAt(), decoded.getCreatedAt());
+        assertNull(decoded.getPasswordHash(), "Password hash must never be cached");
+    }
+
+    @Test
+    void shouldKeepNullOptionalFields() {
+        // --- ARRANGE ---
+        User user = new User("Bob", "254700000002", null, "hash");
+        user.setUserId(7L);
+        user.setCreatedAt(null);
+
+        // --- ACT ---
+        User decoded = codec.decode(codec.encode(user));
+
+        // --- ASSERT ---
+        assertNull(decoded.getEmail());
+        assertNull(decoded.getCreatedAt());
+    }
+
+    @Test
+    void shouldIgnoreOtherVersionsAndCorruptEntries() {
+        // --- ARRANGE ---
+        User user = new User("Carol", "254700000003", "carol@test.com", "hash");
+        user.setUserId(9L);
+        byte[] encoded = codec.encode(user);
+
+        byte[] otherVersion = encoded.clone();
+        otherVersion[0] = BinaryUserCodec.VERSION + 1;
+
+        // --- ACT & ASSERT ---
+        assertNull(codec.decode(otherVersion));
+        assertNull(codec.decode(Arrays.copyOf(encoded, encoded.length - 3)));
+        assertNull(codec.decode(new JsonUserCodec().encode(user)), "Old JSON entries are a cache miss");
+        assertNull(codec.decode(new byte[0]));
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.service;
+
+import org.example.model.Transaction;
+import org.example.model.TransactionType;
+import org.example.repository.TransactionRepository;
+import org.example.repository.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GroupCommitLedgerTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private Connection connection;
+
+    private GroupCommitLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        // A long wait window so everything submitted below lands in the same batch
+        ledger = new GroupCommitLedger(walletRepository, transactionRepository, () -> connection, 100, 256, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.close();
+    }
+
+    @Test
+    void shouldCommitConcurrentMutationsInOneTransaction() throws Exception {
+        // --- ARRANGE ---
+        when(walletRepository.debit(connection, 12L, new BigDecimal("50.00"))).thenReturn(true);
+        when(transactionRepository.saveAll(eq(connection), anyList())).thenAnswer(i -> i.getArguments()[1]);
+
+        // --- ACT ---
+        CompletableFuture<Transaction> deposit1 = ledger.submit(11L, TransactionType.DEPOSIT, new BigDecimal("100.00"), "TX-A");
+        CompletableFuture<Transaction> airtime = ledger.submit(12L, TransactionType.AIRTIME_PURCHASE, new BigDecimal("-50.00"), "TX-B");
+        CompletableFuture<Transaction> deposit2 = ledger.submit(13L, TransactionType.DEPOSIT, new BigDecimal("25.00"), "TX-C");
+
+        // --- ASSERT ---
+        assertEquals(new BigDecimal("100.00"), deposit1.get(5, TimeUnit.SECONDS).getAmount());
+        assertEquals(TransactionType.AIRTIME_PURCHASE, airtime.get(5, TimeUnit.SECONDS).getTxnType());
+        assertEquals(new BigDecimal("50.00"), airtime.get().getAmount()); // ledger keeps positive amounts
+        assertEquals("TX-C", deposit2.get(5, TimeUnit.SECONDS).getReferenceCode());
+
+        verify(connection, times(1)).commit();
+        verify(transactionRepository, times(1)).saveAll(eq(connection), argThat(rows -> rows.size() == 3));
+    }
+
+    @Test
+    void shouldFailOnlyTheOverdrawnMutation() throws Exception {
+        // --- ARRANGE ---
+        when(walletRepository.debit(connection, 21L, new BigDecimal("500.00"))).thenReturn(false);
+        when(transactionRepository.saveAll(eq(connection), anyList())).thenAnswer(i -> i.getArguments()[1]);
+
+        // --- ACT ---
+        CompletableFuture<Transaction> airtime = ledger.submit(21L, TransactionType.AIRTIME_PURCHASE, new BigDecimal("-500.00"), "TX-D");
+        CompletableFuture<Transaction> deposit = ledger.submit(22L, TransactionType.DEPOSIT, new BigDecimal("10.00"), "TX-E");
+
+        // --- ASSERT ---
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> airtime.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+        assertEquals("Insufficient funds", ex.getCause().getMessage());
+
+        assertNotNull(deposit.get(5, TimeUnit.SECONDS));
+        verify(walletRepository).credit(connection, 22L, new BigDecimal("10.00"));
+        verify(connection, times(1)).commit();
+    }
+
+    @Test
+    void shouldRejectAfterClose() {
+        // --- ARRANGE ---
+        ledger.close();
+
+        // --- ACT & ASSERT ---
+        CompletableFuture<Transaction> rejected = ledger.submit(31L, TransactionType.DEPOSIT, BigDecimal.ONE, "TX-F");
+        assertTrue(rejected.isCompletedExceptionally());
+        verifyNoInteractions(walletRepository);
+    }
+
+    @Test
+    void shouldNeverApplyAWithdrawnMutation() throws Exception {
+        // --- ARRANGE ---
+        when(transactionRepository.saveAll(eq(connection), anyList())).thenAnswer(i -> i.getArguments()[1]);
+
+        // --- ACT: withdrawn inside the 200 ms batching window, before the committer takes it ---
+        GroupCommitLedger.Pending withdrawn = ledger.submit(41L, TransactionType.DEPOSIT, new BigDecimal("10.00"), "TX-G");
+        assertTrue(withdrawn.withdraw());
+        CompletableFuture<Transaction> kept = ledger.submit(42L, TransactionType.DEPOSIT, new BigDecimal("20.00"), "TX-H");
+
+        // --- ASSERT ---
+        assertEquals("TX-H", kept.get(5, TimeUnit.SECONDS).getReferenceCode());
+        ExecutionException ex = assertThrows(ExecutionException.class, withdrawn::get);
+        assertInstanceOf(ServerBusyException.class, ex.getCause());
+        verify(walletRepository, never()).credit(connection, 41L, new BigDecimal("10.00"));
+        verify(transactionRepository).saveAll(eq(connection), argThat(rows -> rows.size() == 1));
+    }
+
+    @Test
+    void shouldNotWithdrawAMutationThatIsAlreadyCommitting() throws Exception {
+        // --- ARRANGE: hold the commit open ---
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionRepository.saveAll(eq(connection), anyList())).thenAnswer(i -> i.getArguments()[1]);
+        doAnswer(i -> {
+            committing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(connection).commit();
+
+        // --- ACT ---
+        GroupCommitLedger.Pending pending = ledger.submit(51L, TransactionType.DEPOSIT, new BigDecimal("10.00"), "TX-I");
+        assertTrue(committing.await(5, TimeUnit.SECONDS));
+        boolean withdrawn = pending.withdraw();
+        release.countDown();
+
+        // --- ASSERT: the caller has to take the batch's outcome ---
+        assertFalse(withdrawn);
+        assertEquals("TX-I", pending.get(5, TimeUnit.SECONDS).getReferenceCode());
+    }
+
+    @Test
+    void shouldNotApplyAgainWhenTheCommitItselfFails() throws Exception {
+        // --- ARRANGE: the server commits, then the connection drops before the reply ---
+        when(transactionRepository.saveAll(eq(connection), anyList())).thenAnswer(i -> i.getArguments()[1]);
+        doThrow(new SQLException("I/O error: connection reset")).when(connection).commit();
+        when(walletRepository.debit(connection, 62L, new BigDecimal("5.00"))).thenReturn(true);
+
+        // --- ACT ---
+        CompletableFuture<Transaction> deposit = ledger.submit(61L, TransactionType.DEPOSIT, new BigDecimal("10.00"), "TX-J");
+        CompletableFuture<Transaction> airtime = ledger.submit(62L, TransactionType.AIRTIME_PURCHASE, new BigDecimal("-5.00"), "TX-K");
+
+        // --- ASSERT: each balance moved once, and nobody is told to simply retry ---
+        for (CompletableFuture<Transaction> result : List.of(deposit, airtime)) {
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertFalse(ex.getCause() instanceof IllegalStateException, "Must not map to a stored 400 or a retryable 503");
+        }
+        verify(walletRepository, times(1)).credit(connection, 61L, new BigDecimal("10.00"));
+        verify(walletRepository, times(1)).debit(connection, 62L, new BigDecimal("5.00"));
+        verify(connection, times(1)).commit();
+    }
+}
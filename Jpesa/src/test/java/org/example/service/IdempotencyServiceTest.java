@@ -0,0 +1,172 @@
+package org.example.service;
+
+import org.example.repository.IdempotencyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+    private static final String PHONE = "254700000001";
+    private static final String HASH = IdempotencyService.hash("deposit", "{\"amount\":100}");
+
+    @Mock
+    private IdempotencyRepository repository;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(repository, false);
+    }
+
+    @Test
+    void shouldRunConcurrentDuplicatesOnlyOnce() throws Exception {
+        // --- ARRANGE ---
+        when(repository.tryClaim(PHONE, "key-1", HASH)).thenReturn(true);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // --- ACT ---
+        Future<IdempotencyService.StoredResponse> leader = pool.submit(() ->
+                idempotencyService.execute(PHONE, "key-1", HASH, () -> {
+                    executions.incrementAndGet();
+                    leaderStarted.countDown();
+                    awaitQuietly(release);
+                    return new IdempotencyService.StoredResponse(200, "{\"message\": \"Success\"}", false);
+                }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        List<Future<IdempotencyService.StoredResponse>> duplicates = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            duplicates.add(pool.submit(() -> idempotencyService.execute(PHONE, "key-1", HASH, () -> {
+                executions.incrementAndGet();
+                return new IdempotencyService.StoredResponse(200, "{}", false);
+            })));
+        }
+        Thread.sleep(200); // duplicates are now parked on the leader's response
+        release.countDown();
+
+        // --- ASSERT ---
+        assertFalse(leader.get(5, TimeUnit.SECONDS).replayed());
+        for (Future<IdempotencyService.StoredResponse> duplicate : duplicates) {
+            IdempotencyService.StoredResponse response = duplicate.get(5, TimeUnit.SECONDS);
+            assertTrue(response.replayed());
+            assertEquals("{\"message\": \"Success\"}", response.body());
+        }
+        assertEquals(1, executions.get());
+        verify(repository, times(1)).tryClaim(PHONE, "key-1", HASH);
+        verify(repository).complete(PHONE, "key-1", 200, "{\"message\": \"Success\"}");
+        pool.shutdown();
+    }
+
+    @Test
+    void shouldReplayStoredResponseWithoutRunningAgain() {
+        // --- ARRANGE ---
+        when(repository.tryClaim(PHONE, "key-2", HASH)).thenReturn(false);
+        when(repository.find(PHONE, "key-2"))
+                .thenReturn(Optional.of(new IdempotencyRepository.StoredKey(HASH, 400, "{\"error\": \"Insufficient funds\"}")));
+
+        // --- ACT ---
+        IdempotencyService.StoredResponse response = idempotencyService.execute(PHONE, "key-2", HASH,
+                () -> fail("A finished key must not run again"));
+
+        // --- ASSERT ---
+        assertTrue(response.replayed());
+        assertEquals(400, response.status());
+        assertEquals("{\"error\": \"Insufficient funds\"}", response.body());
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentRequest() {
+        // --- ARRANGE ---
+        when(repository.tryClaim(PHONE, "key-3", HASH)).thenReturn(false);
+        String otherHash = IdempotencyService.hash("deposit", "{\"amount\":999}");
+        when(repository.find(PHONE, "key-3"))
+                .thenReturn(Optional.of(new IdempotencyRepository.StoredKey(otherHash, 200, "{}")));
+
+        // --- ACT ---
+        IdempotencyService.StoredResponse response = idempotencyService.execute(PHONE, "key-3", HASH,
+                () -> fail("A reused key must not run"));
+
+        // --- ASSERT ---
+        assertEquals(422, response.status());
+    }
+
+    @Test
+    void shouldStoreServerErrorsSoTheyAreNeverRunTwice() {
+        // --- ARRANGE ---
+        when(repository.tryClaim(PHONE, "key-4", HASH)).thenReturn(true);
+
+        // --- ACT ---
+        IdempotencyService.StoredResponse response = idempotencyService.execute(PHONE, "key-4", HASH,
+                () -> new IdempotencyService.StoredResponse(500, "{\"error\": \"Transfer failed\"}", false));
+
+        // --- ASSERT ---
+        assertEquals(500, response.status());
+        verify(repository).complete(PHONE, "key-4", 500, "{\"error\": \"Transfer failed\"}"); // may have committed
+        verify(repository, never()).release(anyString(), anyString());
+    }
+
+    @Test
+    void shouldReleaseKeyWhenServerIsBusy() {
+        // --- ARRANGE ---
+        when(repository.tryClaim(PHONE, "key-5", HASH)).thenReturn(true);
+
+        // --- ACT & ASSERT ---
+        assertThrows(ServerBusyException.class, () -> idempotencyService.execute(PHONE, "key-5", HASH, () -> {
+            throw new ServerBusyException("Server busy, transaction not applied, please retry", 1);
+        }));
+        verify(repository).release(PHONE, "key-5");
+        verify(repository, never()).complete(anyString(), anyString(), anyInt(), anyString());
+    }
+
+    @Test
+    void shouldAnswerAnAbandonedClaimAsOutcomeUnknown() {
+        // --- ARRANGE ---
+        when(repository.tryClaim(PHONE, "key-6", HASH)).thenReturn(false);
+        when(repository.find(PHONE, "key-6")).thenReturn(Optional.of(new IdempotencyRepository.StoredKey(HASH, null, null)));
+        when(repository.expireClaim(eq(PHONE), eq("key-6"), anyLong(), eq(500), anyString())).thenReturn(false, true);
+
+        // --- ACT ---
+        IdempotencyService.StoredResponse fresh = idempotencyService.execute(PHONE, "key-6", HASH,
+                () -> fail("A claimed key must not run again"));
+        IdempotencyService.StoredResponse stale = idempotencyService.execute(PHONE, "key-6", HASH,
+                () -> fail("An abandoned key must not run again"));
+
+        // --- ASSERT ---
+        assertEquals(409, fresh.status());
+        assertEquals(500, stale.status());
+        assertTrue(stale.replayed());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
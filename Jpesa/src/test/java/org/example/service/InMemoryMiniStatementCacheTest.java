@@ -0,0 +1,68 @@
+package org.example.service;
+
+import org.example.model.Transaction;
+import org.example.model.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryMiniStatementCacheTest {
+
+    private final InMemoryMiniStatementCache cache = new InMemoryMiniStatementCache(100, 60);
+    private final LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void shouldKeepOnlyTheNewestRows() {
+        // --- ARRANGE ---
+        List<Transaction> rebuilt = new ArrayList<>();
+        for (long id = 10; id >= 1; id--) rebuilt.add(txn(1L, id));
+        cache.put(1L, cache.generation(1L), rebuilt);
+
+        // --- ACT ---
+        cache.append(List.of(txn(1L, 11), txn(1L, 12)));
+
+        // --- ASSERT ---
+        List<Transaction> ring = cache.get(1L).orElseThrow();
+        assertEquals(MiniStatementCache.MINI_STATEMENT_SIZE, ring.size());
+        assertEquals(12L, ring.get(0).getTransactionId());
+        assertEquals(3L, ring.get(ring.size() - 1).getTransactionId());
+    }
+
+    @Test
+    void shouldNotStartARingFromAnAppend() {
+        // --- ACT ---
+        cache.append(List.of(txn(2L, 1)));
+
+        // --- ASSERT ---
+        assertTrue(cache.get(2L).isEmpty(), "A partial ring would hide older rows");
+    }
+
+    @Test
+    void shouldDropARebuildThatRacedACommit() {
+        // --- ARRANGE ---
+        long generation = cache.generation(3L);               // miss: about to read the DB
+        List<Transaction> staleRead = List.of(txn(3L, 1));    // read before txn 2 committed
+
+        // --- ACT ---
+        cache.append(List.of(txn(3L, 2)));                    // commits while the miss reads; no ring yet
+        cache.put(3L, generation, staleRead);
+
+        // --- ASSERT ---
+        assertTrue(cache.get(3L).isEmpty(), "The stale rebuild would hide txn 2 until the TTL");
+
+        cache.put(3L, cache.generation(3L), List.of(txn(3L, 2), txn(3L, 1)));
+        assertEquals(2L, cache.get(3L).orElseThrow().get(0).getTransactionId());
+    }
+
+    private Transaction txn(long walletId, long id) {
+        Transaction txn = new Transaction(walletId, TransactionType.DEPOSIT, BigDecimal.ONE, "TX-" + id);
+        txn.setTransactionId(id);
+        txn.setCreatedAt(start.plusSeconds(id));
+        return txn;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1));
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldCheckPasswordsOnThePool() {
+        // --- ARRANGE ---
+        PasswordHasher hasher = new PasswordHasher(executor, 10);
+        String hash = BCrypt.hashpw("StrongPass1!", BCrypt.gensalt(4));
+
+        // --- ACT & ASSERT ---
+        assertTrue(hasher.check("StrongPass1!", hash));
+        assertFalse(hasher.check("WrongPass1!", hash));
+        assertEquals(2L, hasher.stats().get("hashes"));
+        assertEquals(0L, hasher.stats().get("rejected"));
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() {
+        // --- ARRANGE ---
+        PasswordHasher hasher = new PasswordHasher(executor, 10);
+        executor.execute(this::awaitRelease); // occupies the only thread
+        executor.execute(this::awaitRelease); // fills the queue
+
+        // --- ACT ---
+        ServerBusyException e = assertThrows(ServerBusyException.class,
+                () -> hasher.check("StrongPass1!", "$2a$04$invalidinvalidinvalidinvalidinvalidinvalidinvalidinval"));
+
+        // --- ASSERT ---
+        assertEquals(1, e.getRetryAfterSeconds());
+        assertEquals(1L, hasher.stats().get("rejected"));
+        assertEquals(1L, hasher.stats().get("queue_depth"));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.config.ReadRouting;
+import org.example.dto.StatementCursor;
+import org.example.model.Transaction;
+import org.example.model.TransactionType;
+import org.example.repository.TransactionRepository;
+import org.example.repository.UserRepository;
+import org.example.repository.WalletRepository;
+import org.example.support.PostgresTestDatabase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pages through a wallet's full statement with keyset cursors against a real Postgres,
+ * including rows that share a created_at (the transaction_id tie-break must not skip them).
+ */
+@EnabledIf("org.example.support.PostgresTestDatabase#isAvailable")
+public class StatementPaginationTest {
+
+    private static final int ROWS = 25;
+
+    private static HikariDataSource dataSource;
+    private static TransactionService transactionService;
+    private static String phone;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        dataSource = PostgresTestDatabase.start(4);
+        phone = String.format("2547%08d", ThreadLocalRandom.current().nextInt(10_000_000, 90_000_000));
+        TransactionRepository transactionRepository = new TransactionRepository();
+        try (Connection conn = dataSource.getConnection()) {
+            long walletId = PostgresTestDatabase.createUserWithWallet(conn, phone, BigDecimal.ZERO);
+            LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+            List<Transaction> rows = new ArrayList<>();
+            for (int i = 0; i < ROWS; i++) {
+                Transaction txn = new Transaction(walletId, TransactionType.DEPOSIT, BigDecimal.ONE, "ST-" + phone + "-" + i);
+                txn.setCreatedAt(base.plusMinutes(i / 3)); // three rows per timestamp
+                rows.add(txn);
+            }
+            transactionRepository.saveAll(conn, rows);
+        }
+        transactionService = new TransactionService(new UserCache(new UserRepository(), false), new WalletRepository(),
+                transactionRepository, dataSource::getConnection, new RevenueShards(new WalletRepository()), null,
+                MiniStatementCache.NONE, new ReadRouting(dataSource::getConnection, null, 0, 0));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldPageThroughEveryRowNewestFirst() throws Exception {
+        List<Transaction> seen = new ArrayList<>();
+        StatementCursor cursor = null;
+        int pages = 0;
+
+        while (true) {
+            List<Transaction> page = new ArrayList<>();
+            int rows = transactionService.streamStatement(phone, cursor, 10, page::add);
+            assertEquals(page.size(), rows);
+            seen.addAll(page);
+            pages++;
+            if (rows < 10) break;
+            Transaction last = page.get(page.size() - 1);
+            cursor = new StatementCursor(last.getCreatedAt(), last.getTransactionId());
+        }
+
+        assertEquals(3, pages);
+        assertEquals(ROWS, seen.size());
+        assertEquals(ROWS, seen.stream().map(Transaction::getTransactionId).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            Transaction newer = seen.get(i - 1);
+            Transaction older = seen.get(i);
+            int byTime = newer.getCreatedAt().compareTo(older.getCreatedAt());
+            assertTrue(byTime > 0 || (byTime == 0 && newer.getTransactionId() > older.getTransactionId()),
+                    "Rows must be ordered by (created_at, transaction_id) descending");
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.service;
 
+import org.example.config.ReadRouting;
+import org.example.dto.SendMoneyRequest;
 import org.example.dto.TransactionRequest;
 import org.example.model.Transaction;
 import org.example.model.TransactionType;
@@ -11,15 +13,20 @@ import org.example.repository.WalletRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -33,11 +40,16 @@ public class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private Connection connection;
+
     private TransactionService transactionService;
 
     @BeforeEach
     void setUp() {
-        transactionService = new TransactionService(userRepository, walletRepository, transactionRepository);
+        transactionService = new TransactionService(new UserCache(userRepository, false), walletRepository,
+                transactionRepository, () -> connection, RevenueShards.of(1L), null,
+                MiniStatementCache.NONE, new ReadRouting(() -> connection, null, 0, 0));
     }
 
     @Test
@@ -158,4 +170,110 @@ public class TransactionServiceTest {
         // --- ASSERT ---
         assertEquals(2, result.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldServeMiniStatementFromCacheAfterFirstRead() {
+        // --- ARRANGE ---
+        transactionService = new TransactionService(new UserCache(userRepository, false), walletRepository,
+                transactionRepository, () -> connection, RevenueShards.of(1L), null,
+                new InMemoryMiniStatementCache(100, 60), new ReadRouting(() -> connection, null, 0, 0));
+
+        String phone = "254700000005";
+        User mockUser = new User();
+        mockUser.setUserId(105L);
+        mockUser.setPhoneNumber(phone);
+        when(userRepository.findByPhoneNumber(phone)).thenReturn(Optional.of(mockUser));
+
+        Wallet mockWallet = new Wallet(105L);
+        mockWallet.setWalletId(505L);
+        mockWallet.setBalance(BigDecimal.ZERO);
+        when(walletRepository.findByUserId(105L)).thenReturn(Optional.of(mockWallet));
+
+        Transaction older = new Transaction(505L, TransactionType.DEPOSIT, BigDecimal.TEN, "TX-OLD");
+        older.setTransactionId(1L);
+        when(transactionRepository.findMiniStatement(505L)).thenReturn(List.of(older));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> {
+            Transaction txn = i.getArgument(0);
+            txn.setTransactionId(2L);
+            return txn;
+        });
+
+        // --- ACT ---
+        transactionService.getMiniStatement(phone);          // miss: rebuilt from the DB
+        transactionService.deposit(new TransactionRequest(phone, new BigDecimal("50.00"))); // appended on commit
+        List<Transaction> statement = transactionService.getMiniStatement(phone);
+
+        // --- ASSERT ---
+        assertEquals(List.of(2L, 1L), statement.stream().map(Transaction::getTransactionId).toList());
+        verify(transactionRepository, times(1)).findMiniStatement(505L);
+    }
+
+    @Test
+    void shouldRebuildMiniStatementCacheFromThePrimary() throws Exception {
+        // --- ARRANGE ---
+        Connection replica = mock(Connection.class);
+        ReadRouting readRouting = new ReadRouting(() -> connection, () -> replica, 0, 10_000);
+        transactionService = new TransactionService(new UserCache(userRepository, false), walletRepository,
+                transactionRepository, () -> connection, RevenueShards.of(1L), null,
+                new InMemoryMiniStatementCache(100, 60), readRouting);
+
+        String phone = "254700000007";
+        User mockUser = new User();
+        mockUser.setUserId(107L);
+        mockUser.setPhoneNumber(phone);
+        when(userRepository.findByPhoneNumber(phone)).thenReturn(Optional.of(mockUser));
+        Wallet mockWallet = new Wallet(107L);
+        mockWallet.setWalletId(507L);
+        when(walletRepository.findByUserId(107L)).thenReturn(Optional.of(mockWallet));
+
+        // The repository reads through getReadConnection(): record which pool it would get
+        List<Connection> served = new ArrayList<>();
+        when(transactionRepository.findMiniStatement(507L)).thenAnswer(i -> {
+            served.add(readRouting.getReadConnection());
+            return List.of();
+        });
+
+        // --- ACT ---
+        transactionService.getMiniStatement(phone);
+
+        // --- ASSERT ---
+        assertEquals(List.of(connection), served, "A replica read would be cached for the whole TTL");
+    }
+
+    @Test
+    void shouldSendMoneyLockingWalletsInIdOrder() throws Exception {
+        // --- ARRANGE ---
+        // Sender has the HIGHEST wallet id, so it must be locked last
+        when(walletRepository.findWalletIdsByPhones(eq(connection), any()))
+                .thenReturn(Map.of("254700000005", 900L, "254700000006", 300L));
+        when(walletRepository.debit(connection, 900L, new BigDecimal("105.00"))).thenReturn(true);
+
+        // --- ACT ---
+        transactionService.sendMoney(new SendMoneyRequest("0700000005", "0700000006", new BigDecimal("100.00")));
+
+        // --- ASSERT ---
+        InOrder inOrder = inOrder(walletRepository, connection);
+        inOrder.verify(walletRepository).credit(connection, 1L, new BigDecimal("5.00"));
+        inOrder.verify(walletRepository).credit(connection, 300L, new BigDecimal("100.00"));
+        inOrder.verify(walletRepository).debit(connection, 900L, new BigDecimal("105.00"));
+        inOrder.verify(connection).commit();
+        verify(transactionRepository).saveAll(eq(connection), argThat(rows -> rows.size() == 4));
+    }
+
+    @Test
+    void shouldRollbackTransferIfInsufficientFunds() throws Exception {
+        // --- ARRANGE ---
+        when(walletRepository.findWalletIdsByPhones(eq(connection), any()))
+                .thenReturn(Map.of("254700000007", 10L, "254700000008", 20L));
+        when(walletRepository.debit(connection, 10L, new BigDecimal("55.00"))).thenReturn(false);
+
+        // --- ACT & ASSERT ---
+        SendMoneyRequest request = new SendMoneyRequest("0700000007", "0700000008", new BigDecimal("50.00"));
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> transactionService.sendMoney(request));
+
+        assertEquals("Insufficient funds. Needed: 55.00", ex.getMessage());
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(transactionRepository, never()).saveAll(any(Connection.class), anyList());
+    }
+}
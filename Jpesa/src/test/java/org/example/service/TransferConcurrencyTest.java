@@ -0,0 +1,135 @@
+package org.example.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.config.ReadRouting;
+import org.example.dto.SendMoneyRequest;
+import org.example.repository.TransactionRepository;
+import org.example.repository.UserRepository;
+import org.example.repository.WalletRepository;
+import org.example.support.PostgresTestDatabase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs thousands of parallel P2P transfers against a real Postgres and checks
+ * that no money is created or destroyed (lost updates would break the totals).
+ */
+@EnabledIf("org.example.support.PostgresTestDatabase#isAvailable")
+public class TransferConcurrencyTest {
+
+    private static final int ACCOUNTS = 20;
+    private static final int TRANSFERS = 5000;
+    private static final int THREADS = 32;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+    private static final BigDecimal FEE = new BigDecimal("5.00");
+
+    private static HikariDataSource dataSource;
+    private static TransactionService transactionService;
+    private static final List<String> phones = new ArrayList<>();
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        dataSource = PostgresTestDatabase.start(THREADS);
+        int firstNumber = ThreadLocalRandom.current().nextInt(10_000_000, 90_000_000); // re-runnable on a shared DB
+        try (Connection conn = dataSource.getConnection()) {
+            for (int i = 0; i < ACCOUNTS; i++) {
+                String phone = String.format("2547%08d", firstNumber + i);
+                PostgresTestDatabase.createUserWithWallet(conn, phone, OPENING_BALANCE);
+                phones.add(phone);
+            }
+        }
+        transactionService = new TransactionService(new UserCache(new UserRepository(), false), new WalletRepository(),
+                new TransactionRepository(), dataSource::getConnection, new RevenueShards(new WalletRepository()), null,
+                MiniStatementCache.NONE, new ReadRouting(dataSource::getConnection, null, 0, 0));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldConserveMoneyUnderConcurrentTransfers() throws Exception {
+        BigDecimal totalBefore;
+        BigDecimal revenueBefore;
+        long ledgerRowsBefore;
+        try (Connection conn = dataSource.getConnection()) {
+            totalBefore = PostgresTestDatabase.totalBalance(conn);
+            revenueBefore = revenueBalance(conn);
+            ledgerRowsBefore = ledgerRows(conn);
+        }
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < TRANSFERS; i++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int from = random.nextInt(ACCOUNTS);
+                int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 200));
+                try {
+                    transactionService.sendMoney(new SendMoneyRequest(phones.get(from), phones.get(to), amount));
+                    succeeded.incrementAndGet();
+                } catch (IllegalStateException insufficientFunds) {
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(); // surfaces deadlocks / unexpected SQL errors as test failures
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            assertEquals(0, totalBefore.compareTo(PostgresTestDatabase.totalBalance(conn)), "Total money must be conserved");
+
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM wallets WHERE balance < 0")) {
+                rs.next();
+                assertEquals(0, rs.getInt(1), "No wallet may go negative");
+            }
+            assertEquals(succeeded.get() * 4L, ledgerRows(conn) - ledgerRowsBefore, "Each transfer writes exactly four ledger rows");
+
+            BigDecimal expectedFees = FEE.multiply(BigDecimal.valueOf(succeeded.get()));
+            assertEquals(0, expectedFees.compareTo(revenueBalance(conn).subtract(revenueBefore)),
+                    "Revenue wallet collects one fee per successful transfer");
+        }
+        assertEquals(TRANSFERS, succeeded.get() + rejected.get());
+    }
+
+    private static BigDecimal revenueBalance(Connection conn) throws Exception {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT total_revenue FROM system_revenue")) {
+            rs.next();
+            return rs.getBigDecimal(1);
+        }
+    }
+
+    private static long ledgerRows(Connection conn) throws Exception {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM transactions")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
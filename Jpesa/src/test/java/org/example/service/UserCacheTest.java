@@ -0,0 +1,77 @@
+package org.example.service;
+
+import org.example.model.User;
+import org.example.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        // L1 + DB only, no Redis needed
+        userCache = new UserCache(userRepository, false);
+    }
+
+    @Test
+    void shouldServeRepeatLookupsFromL1() {
+        // --- ARRANGE ---
+        User user = new User("Alice", "254700000001", "alice@test.com", "hash");
+        user.setUserId(1L);
+        when(userRepository.findByPhoneNumber("254700000001")).thenReturn(Optional.of(user));
+
+        // --- ACT ---
+        User first = userCache.get("254700000001");
+        User second = userCache.get("254700000001");
+
+        // --- ASSERT ---
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByPhoneNumber("254700000001");
+
+        Map<String, Long> stats = userCache.stats();
+        assertEquals(1L, stats.get("l1_hits"));
+        assertEquals(1L, stats.get("l1_misses"));
+        assertEquals(1L, stats.get("db_loads"));
+    }
+
+    @Test
+    void shouldReloadFromDatabaseAfterInvalidate() {
+        // --- ARRANGE ---
+        User user = new User("Alice", "254700000001", "alice@test.com", "hash");
+        when(userRepository.findByPhoneNumber("254700000001")).thenReturn(Optional.of(user));
+        userCache.get("254700000001");
+
+        // --- ACT ---
+        userCache.invalidate("254700000001");
+        userCache.get("254700000001");
+
+        // --- ASSERT ---
+        verify(userRepository, times(2)).findByPhoneNumber("254700000001");
+    }
+
+    @Test
+    void shouldNotCacheUnknownUsers() {
+        // --- ARRANGE ---
+        when(userRepository.findByPhoneNumber("254700000009")).thenReturn(Optional.empty());
+
+        // --- ACT & ASSERT ---
+        assertThrows(IllegalArgumentException.class, () -> userCache.get("254700000009"));
+        assertThrows(IllegalArgumentException.class, () -> userCache.get("254700000009"));
+        verify(userRepository, times(2)).findByPhoneNumber("254700000009");
+    }
+}
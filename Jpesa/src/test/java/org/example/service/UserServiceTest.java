@@ -1,7 +1,12 @@
 package org.example.service;
 
+import org.example.config.DatabaseConfig;
+import org.example.config.ReadRouting;
 import org.example.dto.LoginRequest;
 import org.example.dto.RegisterRequest;
+import org.example.dto.VerifyOtpRequest;
+import org.example.model.OtpCode;
+import org.example.model.OtpPurpose;
 import org.example.model.User;
 import org.example.model.Wallet;
 import org.example.repository.OtpRepository;
@@ -36,8 +41,9 @@ public class UserServiceTest {
 
     @BeforeEach
     void setUp() {
-        // Manually inject the mocks via the new constructor
-        userService = new UserService(userRepository, walletRepository, otpRepository);
+        // Manually inject the mocks via the new constructor (every read on the primary)
+        userService = new UserService(userRepository, walletRepository, otpRepository,
+                new UserCache(userRepository, false), PasswordHasher.shared(), new ReadRouting(DatabaseConfig::getConnection, null, 0, 0));
     }
 
     @Test
@@ -98,4 +104,28 @@ public class UserServiceTest {
 
         assertEquals("Invalid phone number or password", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldAcceptAnOtpOnlyOnce() {
+        // --- ARRANGE ---
+        String normalizedPhone = "254722334455";
+        User fakeUser = new User("Test User Three", normalizedPhone, "user3@email.com", "hashed_pass");
+        fakeUser.setUserId(30L);
+        when(userRepository.findByPhoneNumber(normalizedPhone)).thenReturn(Optional.of(fakeUser));
+
+        // The store hands a code out once; a replay (or the loser of a race) gets nothing
+        when(otpRepository.consume(30L, OtpPurpose.LOGIN_VERIFICATION, "123456"))
+                .thenReturn(Optional.of(new OtpCode(30L, "123456", OtpPurpose.LOGIN_VERIFICATION, 5)))
+                .thenReturn(Optional.empty());
+
+        VerifyOtpRequest request = new VerifyOtpRequest("0722334455", "123456");
+
+        // --- ACT ---
+        User verified = userService.verifyOtp(request);
+        Exception replay = assertThrows(IllegalArgumentException.class, () -> userService.verifyOtp(request));
+
+        // --- ASSERT ---
+        assertEquals(30L, verified.getUserId());
+        assertEquals("Invalid or Expired OTP", replay.getMessage());
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.support;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+/**
+ * Shared Postgres for database-backed tests and benchmark harnesses.
+ * Uses JPESA_TEST_DB_URL (+ _USER / _PASSWORD) when set, otherwise starts a Testcontainers Postgres.
+ */
+public final class PostgresTestDatabase {
+
+    private static PostgreSQLContainer<?> container;
+    private static PostgreSQLContainer<?> secondContainer;
+
+    private PostgresTestDatabase() {}
+
+    /**
+     * Used with @EnabledIf so database tests are skipped (not failed) on machines without Postgres or Docker.
+     */
+    public static boolean isAvailable() {
+        return System.getenv("JPESA_TEST_DB_URL") != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    /**
+     * Like isAvailable, for tests that also need startSecond().
+     */
+    public static boolean isSecondAvailable() {
+        return (System.getenv("JPESA_TEST_DB_URL") != null && System.getenv("JPESA_TEST_REPLICA_DB_URL") != null)
+                || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    public static HikariDataSource start(int poolSize) {
+        return start(poolSize, config -> {});
+    }
+
+    /**
+     * @param customizer extra pool/driver settings, applied before the pool starts
+     */
+    public static synchronized HikariDataSource start(int poolSize, Consumer<HikariConfig> customizer) {
+        HikariConfig config = new HikariConfig();
+        String url = System.getenv("JPESA_TEST_DB_URL");
+        if (url != null) {
+            config.setJdbcUrl(url);
+            config.setUsername(System.getenv("JPESA_TEST_DB_USER"));
+            config.setPassword(System.getenv("JPESA_TEST_DB_PASSWORD"));
+        } else {
+            if (container == null) {
+                container = new PostgreSQLContainer<>("postgres:16-alpine");
+                container.start();
+            }
+            config.setJdbcUrl(container.getJdbcUrl());
+            config.setUsername(container.getUsername());
+            config.setPassword(container.getPassword());
+        }
+        config.setMaximumPoolSize(poolSize);
+        customizer.accept(config);
+
+        HikariDataSource dataSource = new HikariDataSource(config);
+        runScript(dataSource, "schema.sql");
+        runScript(dataSource, "db/revenue_shards.sql");
+        runScript(dataSource, "db/statement_index.sql");
+        runScript(dataSource, "db/idempotency_keys.sql");
+        return dataSource;
+    }
+
+    /**
+     * A second, independent database standing in for a read replica (JPESA_TEST_REPLICA_DB_URL
+     * + _USER / _PASSWORD when set, otherwise another container). No schema is applied.
+     */
+    public static synchronized HikariDataSource startSecond(int poolSize) {
+        HikariConfig config = new HikariConfig();
+        String url = System.getenv("JPESA_TEST_REPLICA_DB_URL");
+        if (url != null) {
+            config.setJdbcUrl(url);
+            config.setUsername(System.getenv("JPESA_TEST_REPLICA_DB_USER"));
+            config.setPassword(System.getenv("JPESA_TEST_REPLICA_DB_PASSWORD"));
+        } else {
+            if (secondContainer == null) {
+                secondContainer = new PostgreSQLContainer<>("postgres:16-alpine");
+                secondContainer.start();
+            }
+            config.setJdbcUrl(secondContainer.getJdbcUrl());
+            config.setUsername(secondContainer.getUsername());
+            config.setPassword(secondContainer.getPassword());
+        }
+        config.setMaximumPoolSize(poolSize);
+        return new HikariDataSource(config);
+    }
+
+    public static void runScript(HikariDataSource dataSource, String resource) {
+        try (InputStream input = PostgresTestDatabase.class.getClassLoader().getResourceAsStream(resource);
+             Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            if (input == null) throw new IllegalStateException(resource + " not found in classpath");
+            stmt.execute(new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException | SQLException e) {
+            throw new RuntimeException("Failed to run " + resource, e);
+        }
+    }
+
+    /**
+     * Creates a user + wallet with the given opening balance and returns the wallet id.
+     */
+    public static long createUserWithWallet(Connection conn, String phone, BigDecimal balance) throws SQLException {
+        long userId;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO users (full_name, phone_number, password_hash) VALUES (?, ?, 'x') RETURNING user_id")) {
+            stmt.setString(1, "Test " + phone);
+            stmt.setString(2, phone);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                userId = rs.getLong(1);
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO wallets (user_id, balance) VALUES (?, ?) RETURNING wallet_id")) {
+            stmt.setLong(1, userId);
+            stmt.setBigDecimal(2, balance);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    public static BigDecimal totalBalance(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(SUM(balance), 0) FROM wallets")) {
+            rs.next();
+            return rs.getBigDecimal(1);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.util;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Msisdn must accept, reject and format exactly like the regex implementation it replaced.
+ */
+public class MsisdnPropertiesTest {
+
+    @Property(tries = 5000)
+    void shouldMatchRegexOnPhoneLikeInput(@ForAll("phoneLike") String raw) {
+        assertSameAsRegex(raw);
+    }
+
+    @Property(tries = 5000)
+    void shouldMatchRegexOnArbitraryInput(@ForAll String raw) {
+        assertSameAsRegex(raw);
+    }
+
+    @Property(tries = 1000)
+    void shouldRoundTripThroughCanonicalForm(@ForAll("phoneLike") String raw) {
+        long msisdn = Msisdn.parse(raw);
+        if (msisdn == Msisdn.INVALID) return;
+        String canonical = Msisdn.canonical(msisdn);
+        assertEquals(msisdn, Msisdn.parse(canonical));
+        assertSame(canonical, Msisdn.canonical(msisdn), "cached instance");
+    }
+
+    @Example
+    void shouldKeepTheOldEdgeCases() {
+        assertEquals("254712345678", InputValidator.formatPhoneNumber("0712 345-678"));
+        assertEquals("254112345678", InputValidator.formatPhoneNumber("+254 112 345 678"));
+        assertEquals("254712345678", InputValidator.formatPhoneNumber("712345678"));
+        assertThrows(IllegalArgumentException.class, () -> InputValidator.formatPhoneNumber("+0712345678"));
+        assertThrows(IllegalArgumentException.class, () -> InputValidator.formatPhoneNumber("254+712345678"));
+        assertThrows(IllegalArgumentException.class, () -> InputValidator.formatPhoneNumber("0812345678"));
+        assertThrows(IllegalArgumentException.class, () -> InputValidator.formatPhoneNumber("2547123456789"));
+    }
+
+    @Example
+    void shouldReturnCanonicalInputAsIs() {
+        String canonical = "254712345678";
+        assertSame(canonical, InputValidator.formatPhoneNumber(canonical));
+    }
+
+    private static void assertSameAsRegex(String raw) {
+        String expected = RegexPhoneFormat.format(raw);
+        assertEquals(expected, Msisdn.normalize(raw), () -> "input: '" + raw + "'");
+    }
+
+    /**
+     * Optional prefix (+254, 254, 0, or noise), 8-10 digits, with separators and stray
+     * characters sprinkled in: mostly near-valid numbers, which is where the two can differ.
+     */
+    @Provide
+    Arbitrary<String> phoneLike() {
+        Arbitrary<String> prefix = Arbitraries.of("", "0", "254", "+254", "+", "++254", "2540", "00", "+0", "25");
+        Arbitrary<String> digits = Arbitraries.strings().withChars("0123456789").ofMinLength(7).ofMaxLength(11)
+                .edgeCases(edges -> edges.add("712345678").add("112345678").add("012345678"));
+        Arbitrary<String> noise = Arbitraries.strings().withChars(" -+(). x٣").ofMaxLength(2);
+        return Combinators.combine(prefix, digits, noise, noise, Arbitraries.integers().between(0, 12))
+                .as((p, d, n1, n2, at) -> {
+                    String s = p + d;
+                    int cut = Math.min(at, s.length());
+                    return n1 + s.substring(0, cut) + n2 + s.substring(cut);
+                });
+    }
+}
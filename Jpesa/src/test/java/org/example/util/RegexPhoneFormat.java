@@ -0,0 +1,25 @@
+package org.example.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regex-based formatPhoneNumber that Msisdn replaced, kept as the reference for
+ * MsisdnPropertiesTest and PhoneNormalizerBenchmark.
+ */
+public final class RegexPhoneFormat {
+
+    // Regex: Optional (+254 or 254 or 0) followed by (7 or 1 and 8 digits)
+    private static final Pattern PHONE_PATTERN = Pattern.compile("^(\\+?254|0)?([71]\\d{8})$");
+
+    private RegexPhoneFormat() {}
+
+    /**
+     * @return "254XXXXXXXXX", or null where the old code threw IllegalArgumentException
+     */
+    public static String format(String phone) {
+        String cleanPhone = phone.replaceAll("[^0-9+]", "");
+        Matcher matcher = PHONE_PATTERN.matcher(cleanPhone);
+        return matcher.matches() ? "254" + matcher.group(2) : null;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedTokenCacheTest {
+
+    @Test
+    void shouldVerifyEachTokenOnlyOnce() {
+        // --- ARRANGE ---
+        AtomicInteger verifications = new AtomicInteger();
+        VerifiedTokenCache cache = new VerifiedTokenCache(token -> {
+            verifications.incrementAndGet();
+            return new JwtUtil.VerifiedToken("254700000001", 1L, System.currentTimeMillis() + 60_000);
+        }, 100, 300);
+
+        // --- ACT ---
+        JwtUtil.VerifiedToken first = cache.verify("token-a");
+        JwtUtil.VerifiedToken second = cache.verify("token-a");
+
+        // --- ASSERT ---
+        assertEquals("254700000001", second.phoneNumber());
+        assertEquals(1L, second.userId());
+        assertSame(first, second);
+        assertEquals(1, verifications.get());
+        assertEquals(1L, cache.stats().get("hits"));
+    }
+
+    @Test
+    void shouldReverifyTokensPastTheirExpiry() {
+        // --- ARRANGE ---
+        AtomicInteger verifications = new AtomicInteger();
+        VerifiedTokenCache cache = new VerifiedTokenCache(token -> {
+            verifications.incrementAndGet();
+            return new JwtUtil.VerifiedToken("254700000001", 1L, System.currentTimeMillis() - 1);
+        }, 100, 300);
+
+        // --- ACT ---
+        cache.verify("token-a");
+        cache.verify("token-a");
+
+        // --- ASSERT ---
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void shouldNotCacheRejectedTokens() {
+        // --- ARRANGE ---
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, JwtUtil.VerifiedToken> rejectAll = token -> {
+            verifications.incrementAndGet();
+            throw new RuntimeException("Invalid or Expired Token");
+        };
+        VerifiedTokenCache cache = new VerifiedTokenCache(rejectAll, 100, 300);
+
+        // --- ACT & ASSERT ---
+        assertThrows(RuntimeException.class, () -> cache.verify("forged"));
+        assertThrows(RuntimeException.class, () -> cache.verify("forged"));
+        assertEquals(2, verifications.get());
+    }
+}
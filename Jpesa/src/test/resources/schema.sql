@@ -0,0 +1,61 @@
+-- Mirror of the jpesa_db schema used by the database-backed tests.
+-- Keep in sync with the production tables (see README "Database Setup").
+
+CREATE TABLE IF NOT EXISTS users (
+    user_id       BIGSERIAL PRIMARY KEY,
+    full_name     VARCHAR(100) NOT NULL,
+    phone_number  VARCHAR(20)  NOT NULL UNIQUE,
+    email         VARCHAR(100) UNIQUE,
+    password_hash VARCHAR(255) NOT NULL,
+    status        VARCHAR(20)  NOT NULL DEFAULT 'ACTIVE',
+    created_at    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS wallets (
+    wallet_id  BIGSERIAL PRIMARY KEY,
+    user_id    BIGINT        NOT NULL UNIQUE REFERENCES users (user_id),
+    balance    NUMERIC(15, 2) NOT NULL DEFAULT 0.00 CHECK (balance >= 0),
+    currency   VARCHAR(3)    NOT NULL DEFAULT 'KES',
+    created_at TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    transaction_id BIGSERIAL PRIMARY KEY,
+    wallet_id      BIGINT         NOT NULL REFERENCES wallets (wallet_id),
+    txn_type       VARCHAR(30)    NOT NULL,
+    amount         NUMERIC(15, 2) NOT NULL,
+    reference_code VARCHAR(50)    NOT NULL UNIQUE,
+    created_at     TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at     TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS otp_codes (
+    otp_id     BIGSERIAL PRIMARY KEY,
+    user_id    BIGINT      NOT NULL REFERENCES users (user_id),
+    otp_code   VARCHAR(6)  NOT NULL,
+    purpose    VARCHAR(30) NOT NULL,
+    expires_at TIMESTAMP   NOT NULL,
+    is_used    BOOLEAN     NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS audit_logs (
+    log_id     BIGSERIAL PRIMARY KEY,
+    user_id    BIGINT REFERENCES users (user_id),
+    action     VARCHAR(100) NOT NULL,
+    ip_address VARCHAR(45),
+    created_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- System Revenue Account (see README "Critical Initial Data")
+INSERT INTO users (full_name, phone_number, email, password_hash, status)
+VALUES ('J-Pesa Revenue', '000000', 'revenue@jpesa.com', 'ADMIN_PASS', 'ACTIVE')
+ON CONFLICT (phone_number) DO NOTHING;
+
+INSERT INTO wallets (user_id, balance)
+SELECT user_id, 0.00 FROM users WHERE phone_number = '000000'
+ON CONFLICT (user_id) DO NOTHING;
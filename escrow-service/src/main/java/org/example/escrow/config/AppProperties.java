@@ -20,6 +20,8 @@ public class AppProperties {
     private final Api api = new Api();
     // Added Mpesa configuration object
     private final Mpesa mpesa = new Mpesa();
+    private final WalletLocking walletLocking = new WalletLocking();
+    private final Reconciliation reconciliation = new Reconciliation();
 
     @Data
     public static class Security {
@@ -67,4 +69,33 @@ public class AppProperties {
         private String stkPushUrl;
         private String callbackUrl;
     }
-}
\ No newline at end of file
+
+    /**
+     * Concurrency control for wallet balance updates (see WalletMutationService).
+     */
+    @Data
+    public static class WalletLocking {
+        // Optimistic attempts before the last, locking attempt
+        private int maxAttempts = 5;
+        private long backoffBaseMillis = 5;
+        private long backoffMaxMillis = 200;
+        // A wallet with this many conflicts inside one window is locked up front
+        private int hotConflictThreshold = 3;
+        private long hotWindowSeconds = 30;
+        private int trackedWallets = 10_000;
+    }
+
+    /**
+     * Ledger reconciliation (see LedgerReconciliationService). The schedule itself is
+     * app.config.reconciliation.interval-millis (default 5 minutes).
+     */
+    @Data
+    public static class Reconciliation {
+        private boolean enabled = true;
+        // Wallets per query (and per transaction)
+        private int batchSize = 500;
+        // Fork-join workers for a full replay; each holds a DB connection, so keep it
+        // below the connection pool size
+        private int replayParallelism = 4;
+    }
+}
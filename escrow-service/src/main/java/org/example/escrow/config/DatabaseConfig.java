@@ -1,5 +1,9 @@
 package org.example.escrow.config;
 
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
@@ -10,4 +14,19 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 public class DatabaseConfig {
     // Spring Boot auto-configures the DataSource based on application.properties.
     // We enable Auditing and Transaction Management here to keep the Main class clean.
-}
\ No newline at end of file
+
+    /**
+     * JDBC batching for ledger postings: all legs of a journal go out as one batched INSERT
+     * and the wallet updates as one batched UPDATE. Ordering groups the statements per table
+     * so the batches are not broken up. Anything set under spring.jpa.properties wins.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(
+            @Value("${app.config.jdbc.batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+}
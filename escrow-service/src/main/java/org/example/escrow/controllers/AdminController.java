@@ -2,15 +2,21 @@ package org.example.escrow.controllers;
 
 import lombok.RequiredArgsConstructor;
 import org.example.escrow.dto.identity.ApiResponse;
+import org.example.escrow.dto.wallet.ReconciliationReport;
+import org.example.escrow.dto.wallet.WalletContentionResponse;
 import org.example.escrow.model.MerchantProfile;
 import org.example.escrow.model.User;
 import org.example.escrow.repository.MerchantProfileRepository;
 import org.example.escrow.repository.UserRepository;
+import org.example.escrow.service.LedgerReconciliationService;
+import org.example.escrow.service.WalletMutationService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -24,6 +30,8 @@ public class AdminController {
 
     private final UserRepository userRepository;
     private final MerchantProfileRepository merchantProfileRepository;
+    private final WalletMutationService walletMutationService;
+    private final LedgerReconciliationService ledgerReconciliationService;
 
     @GetMapping("/users")
     public ResponseEntity<ApiResponse<List<User>>> getAllUsers() {
@@ -42,4 +50,47 @@ public class AdminController {
                 HttpStatus.OK
         );
     }
-}
\ No newline at end of file
+
+    // Per-wallet lock contention since startup (this instance only), most conflicts first
+    @GetMapping("/wallets/contention")
+    public ResponseEntity<ApiResponse<List<WalletContentionResponse>>> getWalletContention(
+            @RequestParam(defaultValue = "50") int limit) {
+        List<WalletContentionResponse> contention = walletMutationService.getContention(limit);
+        return new ResponseEntity<>(
+                ApiResponse.success(contention, "Retrieved wallet contention counters."),
+                HttpStatus.OK
+        );
+    }
+
+    // Result of the last reconciliation run (scheduled or triggered), with any discrepancies
+    @GetMapping("/ledger/reconciliation")
+    public ResponseEntity<ApiResponse<ReconciliationReport>> getLastReconciliation() {
+        return ledgerReconciliationService.getLastReport()
+                .map(report -> new ResponseEntity<>(
+                        ApiResponse.success(report, "Retrieved the last reconciliation report."),
+                        HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(
+                        ApiResponse.<ReconciliationReport>error("No reconciliation has run yet."),
+                        HttpStatus.NOT_FOUND));
+    }
+
+    // Incremental run now: entries since each wallet's checkpoint
+    @PostMapping("/ledger/reconciliation")
+    public ResponseEntity<ApiResponse<ReconciliationReport>> reconcileLedger() {
+        ReconciliationReport report = ledgerReconciliationService.reconcile();
+        return new ResponseEntity<>(
+                ApiResponse.success(report, "Reconciled wallet balances against the ledger."),
+                HttpStatus.OK
+        );
+    }
+
+    // Full parallel replay of the ledger; also verifies and re-bases the checkpoints
+    @PostMapping("/ledger/replay")
+    public ResponseEntity<ApiResponse<ReconciliationReport>> replayLedger() {
+        ReconciliationReport report = ledgerReconciliationService.replay();
+        return new ResponseEntity<>(
+                ApiResponse.success(report, "Replayed the full ledger."),
+                HttpStatus.OK
+        );
+    }
+}
@@ -6,12 +6,11 @@ import org.example.escrow.dto.identity.ApiResponse;
 // import org.example.escrow.dto.mapper.EscrowMapper;
 import org.example.escrow.dto.transaction.InitiateTransactionRequest;
 import org.example.escrow.dto.transaction.TransactionResponse;
-import org.example.escrow.repository.UserRepository;
+import org.example.escrow.security.AuthenticatedUser;
 import org.example.escrow.service.EscrowTransactionServiceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,15 +22,14 @@ import java.util.UUID;
 public class EscrowController {
 
     private final EscrowTransactionServiceImpl transactionService;
-    private final UserRepository userRepository;
 //    private final EscrowMapper escrowMapper;
 
     @PostMapping("/initiate")
     public ResponseEntity<ApiResponse<TransactionResponse>> initiateTransaction(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody InitiateTransactionRequest request) {
 
-        UUID buyerId = getUserIdFromDetails(userDetails);
+        UUID buyerId = user.id();
 
         TransactionResponse response = transactionService.initiateTransaction(buyerId, request);
 
@@ -43,10 +41,10 @@ public class EscrowController {
 
     @PostMapping("/{transactionId}/pay")
     public ResponseEntity<ApiResponse<TransactionResponse>> payTransaction(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable UUID transactionId) {
 
-        UUID buyerId = getUserIdFromDetails(userDetails);
+        UUID buyerId = user.id();
 
         TransactionResponse response = transactionService.payTransaction(buyerId, transactionId);
 
@@ -59,20 +57,14 @@ public class EscrowController {
     // --- NEW HISTORY ENDPOINT ---
     @GetMapping
     public ResponseEntity<ApiResponse<List<TransactionResponse>>> getHistory(
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
         // The service decides what data to return based on the user's Role (User, Merchant, or Admin)
-        List<TransactionResponse> history = transactionService.getTransactionHistory(userDetails.getUsername());
+        List<TransactionResponse> history = transactionService.getTransactionHistory(user.id(), user.role());
 
         return new ResponseEntity<>(
                 ApiResponse.success(history, "Transaction history retrieved."),
                 HttpStatus.OK
         );
     }
-
-    private UUID getUserIdFromDetails(UserDetails userDetails) {
-        return userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Authenticated user not found"))
-                .getId();
-    }
 }
\ No newline at end of file
@@ -7,16 +7,13 @@ import org.example.escrow.dto.mapper.MerchantMapper;
 import org.example.escrow.dto.merchant.CreateServiceRequest;
 import org.example.escrow.dto.merchant.MerchantOnboardingRequest;
 import org.example.escrow.dto.merchant.MerchantServiceResponse;
-import org.example.escrow.exception.ResourceNotFoundException;
 import org.example.escrow.model.MerchantProfile;
 import org.example.escrow.model.MerchantService;
-import org.example.escrow.model.User;
-import org.example.escrow.repository.UserRepository;
+import org.example.escrow.security.AuthenticatedUser;
 import org.example.escrow.service.MerchantPortalServiceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -30,15 +27,14 @@ import java.util.UUID;
 public class MerchantController {
 
     private final MerchantPortalServiceImpl merchantPortalService;
-    private final UserRepository userRepository;
     private final MerchantMapper merchantMapper; // Inject Mapper
 
     @PostMapping("/onboard")
     public ResponseEntity<ApiResponse<MerchantProfile>> onboardMerchant(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody MerchantOnboardingRequest request) {
 
-        UUID userId = getUserIdFromDetails(userDetails);
+        UUID userId = user.id();
         // Note: Returning MerchantProfile entity here might also cause LazyInit issues if it has lazy fields.
         // Ideally, map this to a DTO too, but let's fix the specific error you hit first.
         MerchantProfile profile = merchantPortalService.onboardMerchant(userId, request);
@@ -51,10 +47,10 @@ public class MerchantController {
 
     @PostMapping("/services")
     public ResponseEntity<ApiResponse<MerchantServiceResponse>> createService(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody CreateServiceRequest request) {
 
-        UUID userId = getUserIdFromDetails(userDetails);
+        UUID userId = user.id();
         MerchantService service = merchantPortalService.createService(userId, request);
 
         // Convert Entity -> DTO to avoid LazyInitializationException during JSON serialization
@@ -65,11 +61,4 @@ public class MerchantController {
                 HttpStatus.CREATED
         );
     }
-
-    private UUID getUserIdFromDetails(UserDetails userDetails) {
-        String email = userDetails.getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
-        return user.getId();
-    }
 }
\ No newline at end of file
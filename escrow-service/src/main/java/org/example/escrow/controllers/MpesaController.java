@@ -10,11 +10,11 @@ import org.example.escrow.dto.wallet.DepositRequest;
 import org.example.escrow.exception.ResourceNotFoundException;
 import org.example.escrow.model.User;
 import org.example.escrow.repository.UserRepository;
+import org.example.escrow.security.AuthenticatedUser;
 import org.example.escrow.service.MpesaService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -32,12 +32,12 @@ public class MpesaController {
      */
     @PostMapping("/deposit")
     public ResponseEntity<ApiResponse<MpesaDto.StkPushSyncResponse>> triggerDeposit(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @RequestBody DepositRequest request){
 
-        String email = userDetails.getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
+        // The STK push needs the phone number, which the principal does not carry
+        User user = userRepository.findById(principal.id())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", principal.id()));
 
         // Pass the actual User object so the service can save the Pending Transaction linked to them
         MpesaDto.StkPushSyncResponse response = mpesaService.initiateStkPush(
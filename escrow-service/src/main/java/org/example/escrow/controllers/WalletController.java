@@ -6,14 +6,12 @@ import org.example.escrow.dto.identity.ApiResponse;
 import org.example.escrow.dto.mapper.WalletMapper;
 import org.example.escrow.dto.wallet.DepositRequest;
 import org.example.escrow.dto.wallet.WalletResponse;
-import org.example.escrow.exception.ResourceNotFoundException;
 import org.example.escrow.model.Wallet;
-import org.example.escrow.repository.UserRepository;
+import org.example.escrow.security.AuthenticatedUser;
 import org.example.escrow.service.WalletServiceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.UUID;
@@ -24,15 +22,14 @@ import java.util.UUID;
 public class WalletController {
 
     private final WalletServiceImpl walletService;
-    private final UserRepository userRepository;
     private final WalletMapper walletMapper;
 
     @PostMapping("/deposit")
     public ResponseEntity<ApiResponse<WalletResponse>> deposit(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody DepositRequest request) {
 
-        UUID userId = getUserIdFromDetails(userDetails);
+        UUID userId = user.id();
 
         // 1. Process Logic
         Wallet updatedWallet = walletService.depositFunds(userId, request);
@@ -45,11 +42,4 @@ public class WalletController {
                 HttpStatus.OK
         );
     }
-
-    private UUID getUserIdFromDetails(UserDetails userDetails) {
-        String email = userDetails.getUsername();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email))
-                .getId();
-    }
 }
\ No newline at end of file
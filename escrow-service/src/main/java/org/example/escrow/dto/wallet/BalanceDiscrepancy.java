@@ -0,0 +1,26 @@
+package org.example.escrow.dto.wallet;
+
+import lombok.Builder;
+import lombok.Data;
+import org.example.escrow.model.enums.WalletType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+public class BalanceDiscrepancy {
+
+    public enum Kind {
+        BALANCE_MISMATCH,    // wallets.balance differs from the ledger
+        CHECKPOINT_MISMATCH  // a stored checkpoint differs from a full replay of the ledger
+    }
+
+    private UUID walletId;
+    private String currency;
+    private WalletType walletType;
+    private Kind kind;
+    private BigDecimal expected;   // what the ledger says
+    private BigDecimal actual;     // what is stored (wallet balance or checkpoint)
+    private BigDecimal difference; // actual - expected
+}
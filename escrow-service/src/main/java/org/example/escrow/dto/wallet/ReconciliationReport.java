@@ -0,0 +1,25 @@
+package org.example.escrow.dto.wallet;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class ReconciliationReport {
+
+    public enum Mode {
+        INCREMENTAL, // entries since each wallet's checkpoint
+        FULL_REPLAY  // every entry, wallets partitioned across a fork-join pool
+    }
+
+    private Mode mode;
+    private LocalDateTime startedAt;
+    private long durationMillis;
+    private long walletsChecked;
+    private long entriesRead;
+    private long checkpointsWritten;
+    private List<BalanceDiscrepancy> discrepancies;
+}
@@ -0,0 +1,18 @@
+package org.example.escrow.dto.wallet;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+public class WalletContentionResponse {
+    private UUID walletId;
+    private UUID userId;
+    private String currency;
+    private long mutations;       // balance updates applied through WalletMutationService
+    private long conflicts;       // optimistic-lock failures that were retried
+    private long pessimisticLocks; // updates done under SELECT ... FOR UPDATE
+    private boolean hot;          // currently locked up front instead of optimistically
+}
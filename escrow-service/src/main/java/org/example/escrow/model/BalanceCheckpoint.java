@@ -0,0 +1,38 @@
+package org.example.escrow.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import java.math.BigDecimal;
+
+/**
+ * Ledger balance of a wallet as of a given wallet version: the sum of every ledger
+ * entry posted against a version below walletVersion. Reconciliation only has to
+ * sum the entries from walletVersion onwards. One row per wallet, moved forward
+ * by each reconciliation run.
+ */
+@Entity
+@Table(name = "balance_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceCheckpoint extends BaseEntity {
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false, unique = true)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Wallet wallet;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal balance;
+
+    @Column(name = "wallet_version", nullable = false)
+    private Long walletVersion;
+
+    // Ledger entries covered, for the record
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount;
+}
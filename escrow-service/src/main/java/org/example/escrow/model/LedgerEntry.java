@@ -7,7 +7,10 @@ import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
-@Table(name = "ledger_entries")
+@Table(name = "ledger_entries", indexes = {
+        // Incremental reconciliation reads only the entries after a wallet's checkpoint
+        @Index(name = "idx_ledger_entries_wallet_version", columnList = "wallet_id, wallet_version")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -31,4 +34,10 @@ public class LedgerEntry extends  BaseEntity{
 
     @Column(nullable = false)
     private String description;
+
+    // Version of the wallet this entry was posted against (the posting bumps it by one),
+    // so "entries up to version N" is a stable cut of the wallet's history.
+    // Null on entries written before postings were versioned.
+    @Column(name = "wallet_version")
+    private Long walletVersion;
 }
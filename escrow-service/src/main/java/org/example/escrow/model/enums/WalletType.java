@@ -1,7 +1,16 @@
 package org.example.escrow.model.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum WalletType {
     PERSONAL,
     BUSINESS,
-    PLATFORM_REVENUE
+    PLATFORM_REVENUE,
+    // System accounts, owned by dedicated inactive users (see SystemAccountService)
+    ESCROW_HOLDING,
+    FUNDING_CLEARING;
+
+    // Ledger-only: no stored balance, the sum of their entries is the balance (see LedgerPostingService)
+    public static final Set<WalletType> SYSTEM_ACCOUNTS = EnumSet.of(ESCROW_HOLDING, FUNDING_CLEARING);
 }
@@ -0,0 +1,85 @@
+package org.example.escrow.repository;
+
+import org.example.escrow.model.BalanceCheckpoint;
+import org.example.escrow.model.enums.WalletType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, UUID> {
+
+    /**
+     * A wallet, its checkpoint and the ledger entries read for it, all from one statement
+     * (one snapshot). Entries are only counted below the wallet's current version: a posting
+     * stamps its entries with the version it bumps, so those are exactly the entries that
+     * are already reflected in the balance read alongside them.
+     */
+    interface WalletLedgerTotals {
+        UUID getWalletId();
+        String getCurrency();
+        WalletType getWalletType();
+        BigDecimal getWalletBalance();
+        Long getWalletVersion();
+        UUID getCheckpointId();          // null when the wallet has no checkpoint yet
+        BigDecimal getCheckpointBalance();
+        Long getCheckpointVersion();
+        Long getCheckpointEntryCount();
+        BigDecimal getLedgerSum();       // sum of the entries read
+        Long getEntriesRead();
+    }
+
+    interface WalletReplayTotals extends WalletLedgerTotals {
+        // Sum of the entries the checkpoint claims to cover
+        BigDecimal getLedgerBeforeCheckpoint();
+    }
+
+    // Incremental: only the entries from the checkpoint on (all of them, legacy ones
+    // included, when there is none). Keyset-paged by wallet id. System accounts are left out
+    // (pass WalletType.SYSTEM_ACCOUNTS): their balance is their ledger, nothing to prove.
+    @Query("""
+            SELECT w.id AS walletId, w.currency AS currency, w.walletType AS walletType,
+                   w.balance AS walletBalance, w.version AS walletVersion,
+                   c.id AS checkpointId, c.balance AS checkpointBalance,
+                   c.walletVersion AS checkpointVersion, c.entryCount AS checkpointEntryCount,
+                   COALESCE(SUM(e.amount), 0) AS ledgerSum, COUNT(e.id) AS entriesRead
+            FROM Wallet w
+            LEFT JOIN BalanceCheckpoint c ON c.wallet = w
+            LEFT JOIN LedgerEntry e ON e.wallet = w AND (
+                  (c.id IS NULL AND (e.walletVersion IS NULL OR e.walletVersion < w.version))
+                  OR (e.walletVersion >= c.walletVersion AND e.walletVersion < w.version))
+            WHERE w.id > :after AND (w.walletType IS NULL OR w.walletType NOT IN :excludedTypes)
+            GROUP BY w.id, w.currency, w.walletType, w.balance, w.version,
+                     c.id, c.balance, c.walletVersion, c.entryCount
+            ORDER BY w.id
+            """)
+    List<WalletLedgerTotals> findTotalsSinceCheckpoint(@Param("after") UUID after,
+                                                       @Param("excludedTypes") Collection<WalletType> excludedTypes,
+                                                       Pageable page);
+
+    // Full replay: every entry of the wallet, ignoring the checkpoint except to verify it
+    @Query("""
+            SELECT w.id AS walletId, w.currency AS currency, w.walletType AS walletType,
+                   w.balance AS walletBalance, w.version AS walletVersion,
+                   c.id AS checkpointId, c.balance AS checkpointBalance,
+                   c.walletVersion AS checkpointVersion, c.entryCount AS checkpointEntryCount,
+                   COALESCE(SUM(e.amount), 0) AS ledgerSum, COUNT(e.id) AS entriesRead,
+                   COALESCE(SUM(CASE WHEN e.walletVersion IS NULL OR e.walletVersion < c.walletVersion
+                                     THEN e.amount ELSE 0 END), 0) AS ledgerBeforeCheckpoint
+            FROM Wallet w
+            LEFT JOIN BalanceCheckpoint c ON c.wallet = w
+            LEFT JOIN LedgerEntry e ON e.wallet = w AND (e.walletVersion IS NULL OR e.walletVersion < w.version)
+            WHERE w.id IN :walletIds AND (w.walletType IS NULL OR w.walletType NOT IN :excludedTypes)
+            GROUP BY w.id, w.currency, w.walletType, w.balance, w.version,
+                     c.id, c.balance, c.walletVersion, c.entryCount
+            """)
+    List<WalletReplayTotals> replayTotals(@Param("walletIds") Collection<UUID> walletIds,
+                                          @Param("excludedTypes") Collection<WalletType> excludedTypes);
+}
@@ -2,8 +2,11 @@ package org.example.escrow.repository;
 
 import org.example.escrow.model.LedgerEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,4 +18,12 @@ public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, UUID>
 
     // Integrity Check: Find both legs (Debit/Credit) of a transaction
     List<LedgerEntry> findByTransactionId(UUID transactionId);
+
+    // Double-entry invariant: every row must sum to zero (one row per currency)
+    @Query("SELECT e.wallet.currency, SUM(e.amount) FROM LedgerEntry e WHERE e.transactionId = :transactionId GROUP BY e.wallet.currency")
+    List<Object[]> sumAmountsByCurrency(@Param("transactionId") UUID transactionId);
+
+    // Balance of a ledger-only (system) account
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM LedgerEntry e WHERE e.wallet.id = :walletId")
+    BigDecimal sumAmountByWalletId(@Param("walletId") UUID walletId);
 }
@@ -1,9 +1,15 @@
 package org.example.escrow.repository;
 
+import jakarta.persistence.LockModeType;
 import org.example.escrow.model.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +18,20 @@ public interface WalletRepository extends JpaRepository<Wallet, UUID> {
 
     // Critical: Find the specific currency wallet for a user
     Optional<Wallet> findByUserIdAndCurrency (UUID userId, String currency);
+
+    @Query("SELECT w.id FROM Wallet w WHERE w.user.id = :userId AND w.currency = :currency")
+    Optional<UUID> findIdByUserIdAndCurrency(@Param("userId") UUID userId, @Param("currency") String currency);
+
+    // System accounts (escrow holding, funding clearing) are wallets of dedicated users
+    @Query("SELECT w.id FROM Wallet w WHERE w.user.email = :email AND w.currency = :currency")
+    Optional<UUID> findIdByOwnerEmailAndCurrency(@Param("email") String email, @Param("currency") String currency);
+
+    // Full ledger replay partitions the wallets by id
+    @Query("SELECT w.id FROM Wallet w ORDER BY w.id")
+    List<UUID> findAllIds();
+
+    // SELECT ... FOR UPDATE in id order, so concurrent multi-wallet updates lock in the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id IN :ids ORDER BY w.id")
+    List<Wallet> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
 }
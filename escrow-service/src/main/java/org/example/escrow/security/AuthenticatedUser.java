@@ -0,0 +1,60 @@
+package org.example.escrow.security;
+
+import org.example.escrow.model.User;
+import org.example.escrow.model.enums.UserRole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Principal set by JwtAuthenticationFilter. Controllers take it with
+ * {@code @AuthenticationPrincipal AuthenticatedUser} and read the id directly,
+ * instead of looking the user up again by email.
+ */
+public record AuthenticatedUser(UUID id, String email, UserRole role, boolean active) implements UserDetails {
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), user.isActive());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        // Role names already carry the ROLE_ prefix, so hasRole('ADMIN') matches ROLE_ADMIN
+        return List.of(new SimpleGrantedAuthority(role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        // Token authentication only; the password hash never leaves the DB
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return active;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.escrow.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.escrow.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Short-lived cache of the user state that authentication depends on (email, role, active),
+ * keyed by the JWT's userId claim. A hit costs no query; a miss is one findById.
+ *
+ * Anything that changes a user's role or active flag must call evict(...), so the change
+ * applies to the next request. The TTL only bounds how stale an entry can get if a write
+ * path forgets to.
+ */
+@Component
+public class AuthenticatedUserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, AuthenticatedUser> cache;
+
+    public AuthenticatedUserCache(
+            UserRepository userRepository,
+            @Value("${app.security.principal-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${app.security.principal-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * The user's current state, or empty if the user no longer exists (not cached).
+     */
+    public Optional<AuthenticatedUser> get(UUID userId) {
+        return Optional.ofNullable(cache.get(userId, id -> userRepository.findById(id)
+                .map(AuthenticatedUser::from)
+                .orElse(null)));
+    }
+
+    /**
+     * Drops the entry now and, inside a transaction, again after commit: a request that
+     * reloads the user before the commit would otherwise cache the old row until the TTL.
+     */
+    public void evict(UUID userId) {
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+}
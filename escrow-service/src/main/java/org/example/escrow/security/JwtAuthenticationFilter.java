@@ -6,11 +6,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.example.escrow.service.JwtService;
+import org.example.escrow.service.JwtService.TokenClaims;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,7 +21,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
     @Override
     protected void doFilterInternal(
@@ -33,7 +32,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         // 1. Check if token is present
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -41,20 +39,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        // 2. Extract Token
+        // 2. Verify the token once (signature + expiry) and read its claims
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
+        TokenClaims claims = jwtService.validateAndExtract(jwt).orElse(null);
 
-        // 3. If user is not authenticated yet, validate token
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        // 3. If user is not authenticated yet, resolve the principal
+        if (claims != null && claims.userId() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // The principal comes from the userId claim and the cached user state, not a DB
+            // lookup per request. Role and active are taken from the cache rather than the
+            // token, so onboarding or deactivation applies without waiting for a new token.
+            AuthenticatedUser user = authenticatedUserCache.get(claims.userId()).orElse(null);
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (user != null && user.isEnabled() && user.email().equals(claims.email())) {
                 // 4. Create Auth Token and set it in Context
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        user,
                         null,
-                        userDetails.getAuthorities()
+                        user.getAuthorities()
                 );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
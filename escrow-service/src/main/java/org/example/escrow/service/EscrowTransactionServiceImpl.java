@@ -89,8 +89,10 @@ public class EscrowTransactionServiceImpl {
             throw new BusinessLogicException("Transaction is not in a payable state (Current: " + transaction.getStatus() + ")");
         }
 
-        walletService.deductFunds(
+        // Buyer wallet -> escrow holding account, posted under this transaction's id
+        walletService.holdInEscrow(
                 buyerId,
+                transaction.getId(),
                 transaction.getTotalAmount(),
                 transaction.getCurrency(),
                 "Escrow Payment for TX: " + transaction.getId()
@@ -106,22 +108,19 @@ public class EscrowTransactionServiceImpl {
     // Added @Transactional(readOnly=true) to keep the DB Session open while mapping DTOs.
     // This solves the LazyInitializationException and removes the need for manual "get" calls.
     @Transactional(readOnly = true)
-    public List<TransactionResponse> getTransactionHistory(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
-
+    public List<TransactionResponse> getTransactionHistory(UUID userId, UserRole role) {
         List<EscrowTransaction> transactions;
 
-        if (user.getRole() == UserRole.ROLE_ADMIN) {
+        if (role == UserRole.ROLE_ADMIN) {
             transactions = transactionRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"));
         }
-        else if (user.getRole() == UserRole.ROLE_MERCHANT) {
-            MerchantProfile profile = merchantProfileRepository.findByUserId(user.getId())
+        else if (role == UserRole.ROLE_MERCHANT) {
+            MerchantProfile profile = merchantProfileRepository.findByUserId(userId)
                     .orElseThrow(() -> new BusinessLogicException("Merchant profile not found"));
             transactions = transactionRepository.findByMerchantIdOrderByCreatedAtDesc(profile.getId());
         }
         else {
-            transactions = transactionRepository.findByBuyIdOrderByCreatedAtDesc(user.getId());
+            transactions = transactionRepository.findByBuyIdOrderByCreatedAtDesc(userId);
         }
 
         // The mapper will now automatically fetch lazy fields (service, merchant)
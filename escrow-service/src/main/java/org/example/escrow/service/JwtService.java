@@ -1,19 +1,26 @@
 package org.example.escrow.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.example.escrow.model.User;
+import org.example.escrow.model.enums.UserRole;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
@@ -25,6 +32,24 @@ public class JwtService {
     @Value("${app.security.jwt.expiration-minutes:1440}")
     private long jwtExpirationMinutes;
 
+    // Built once from secretKey; both are immutable and thread-safe
+    private Key signInKey;
+    private JwtParser jwtParser;
+
+    /**
+     * Claims of a token whose signature and expiry have been checked.
+     * userId and role are null if the token does not carry them.
+     */
+    public record TokenClaims(String email, UUID userId, UserRole role, Instant expiresAt) {}
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+    }
+
     public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", user.getRole());
@@ -35,10 +60,38 @@ public class JwtService {
                 .setSubject(user.getEmail())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + (jwtExpirationMinutes * 60 * 1000)))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the token (signature and expiry) with a single parse.
+     * Returns empty for anything that is not a valid token we issued, instead of throwing.
+     */
+    public Optional<TokenClaims> validateAndExtract(String token) {
+        final Claims claims;
+        try {
+            // The parser rejects expired tokens itself (ExpiredJwtException)
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        String userId = claims.get("userId", String.class);
+        String role = claims.get("role", String.class);
+        try {
+            return Optional.of(new TokenClaims(
+                    claims.getSubject(),
+                    userId == null ? null : UUID.fromString(userId),
+                    role == null ? null : UserRole.valueOf(role),
+                    claims.getExpiration() == null ? null : claims.getExpiration().toInstant()
+            ));
+        } catch (IllegalArgumentException e) {
+            // Signed with our key but malformed claims; treat like any other bad token
+            return Optional.empty();
+        }
+    }
+
     // --- NEW VALIDATION METHODS ---
 
     public String extractUsername(String token) {
@@ -51,28 +104,17 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package org.example.escrow.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.escrow.exception.BusinessLogicException;
+import org.example.escrow.model.LedgerEntry;
+import org.example.escrow.model.Wallet;
+import org.example.escrow.model.enums.LedgerEntryType;
+import org.example.escrow.repository.LedgerEntryRepository;
+import org.example.escrow.repository.WalletRepository;
+import org.example.escrow.service.SystemAccountService.SystemAccount;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Double-entry posting engine. Every balance change is a journal: legs on two or more
+ * wallets, sharing one transactionId, whose signed amounts sum to zero per currency.
+ *
+ * A journal is posted atomically through WalletMutationService (retry or lock, wallets
+ * locked in id order). Within it the wallet deltas are applied in wallet-id order, all
+ * legs are inserted as one JDBC batch, and the zero-sum invariant is checked against what
+ * was written before the transaction can commit.
+ *
+ * Legs on system accounts (see SystemAccountService) only write their ledger entry: their
+ * wallet rows are not loaded, locked or versioned. Every deposit, withdrawal and escrow
+ * payment has such a leg, so a stored balance there would make all postings collide on
+ * the same row.
+ */
+@Service
+@RequiredArgsConstructor
+public class LedgerPostingService {
+
+    private final WalletMutationService walletMutationService;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final WalletRepository walletRepository;
+    private final SystemAccountService systemAccountService;
+
+    /**
+     * One side of a journal: positive credits the wallet, negative debits it.
+     */
+    public record Leg(UUID walletId, BigDecimal amount, LedgerEntryType entryType, String description) {}
+
+    public record Journal(UUID transactionId, List<Leg> legs) {
+        public Journal {
+            legs = List.copyOf(legs);
+        }
+    }
+
+    public Map<UUID, Wallet> post(Journal journal) {
+        return post(journal, Function.identity());
+    }
+
+    /**
+     * Posts the journal and hands the updated wallets (keyed by id, system accounts not
+     * included) to onPosted, inside the same transaction, e.g. to read lazy fields for the
+     * response.
+     */
+    public <T> T post(Journal journal, Function<Map<UUID, Wallet>, T> onPosted) {
+        if (journal.legs().size() < 2) {
+            throw new IllegalArgumentException("A journal needs at least two legs: " + journal.transactionId());
+        }
+        Map<UUID, SystemAccount> systemAccounts = new HashMap<>();
+        Set<UUID> walletIds = new HashSet<>();
+        for (Leg leg : journal.legs()) {
+            systemAccountService.account(leg.walletId()).ifPresentOrElse(
+                    account -> systemAccounts.put(leg.walletId(), account),
+                    () -> walletIds.add(leg.walletId()));
+        }
+
+        return walletMutationService.mutate(walletIds, wallets -> {
+            // 1. Balanced per currency, before anything is touched
+            Map<String, BigDecimal> net = new HashMap<>();
+            for (Leg leg : journal.legs()) {
+                SystemAccount account = systemAccounts.get(leg.walletId());
+                String currency = account != null ? account.currency() : wallets.get(leg.walletId()).getCurrency();
+                net.merge(currency, leg.amount(), BigDecimal::add);
+            }
+            net.forEach((currency, sum) -> {
+                if (sum.signum() != 0) {
+                    throw new IllegalArgumentException("Unbalanced journal " + journal.transactionId() + ": " + currency + " legs sum to " + sum);
+                }
+            });
+
+            // 2. Net delta per wallet, applied in wallet-id order
+            Map<UUID, BigDecimal> deltas = new TreeMap<>();
+            for (Leg leg : journal.legs()) {
+                if (!systemAccounts.containsKey(leg.walletId())) {
+                    deltas.merge(leg.walletId(), leg.amount(), BigDecimal::add);
+                }
+            }
+            deltas.forEach((walletId, delta) -> {
+                Wallet wallet = wallets.get(walletId);
+                BigDecimal balance = wallet.getBalance().add(delta);
+                if (balance.signum() < 0) {
+                    throw new BusinessLogicException("Insufficient funds. Current balance: " + wallet.getBalance());
+                }
+                wallet.setBalance(balance);
+            });
+
+            // 3. All legs in one batch (ids are generated in memory, so nothing breaks the batch),
+            //    stamped with the version each wallet had before this posting (none for system
+            //    accounts, which have no versioned balance)
+            List<LedgerEntry> entries = new ArrayList<>(journal.legs().size());
+            for (Leg leg : journal.legs()) {
+                Wallet wallet = wallets.get(leg.walletId());
+                entries.add(LedgerEntry.builder()
+                        .wallet(wallet != null ? wallet : walletRepository.getReferenceById(leg.walletId()))
+                        .transactionId(journal.transactionId())
+                        .amount(leg.amount())
+                        .entryType(leg.entryType())
+                        .description(leg.description())
+                        .walletVersion(wallet != null ? wallet.getVersion() : null)
+                        .build());
+            }
+            ledgerEntryRepository.saveAll(entries);
+            ledgerEntryRepository.flush();
+
+            // 4. The invariant, as written: covers every journal posted under this transactionId
+            for (Object[] row : ledgerEntryRepository.sumAmountsByCurrency(journal.transactionId())) {
+                BigDecimal sum = (BigDecimal) row[1];
+                if (sum.signum() != 0) {
+                    throw new IllegalStateException("Ledger out of balance for transaction " + journal.transactionId() + ": " + row[0] + " " + sum);
+                }
+            }
+
+            return onPosted.apply(wallets);
+        });
+    }
+}
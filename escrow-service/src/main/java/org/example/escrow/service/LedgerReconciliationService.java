@@ -0,0 +1,327 @@
+package org.example.escrow.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.escrow.config.AppProperties;
+import org.example.escrow.dto.wallet.BalanceDiscrepancy;
+import org.example.escrow.dto.wallet.ReconciliationReport;
+import org.example.escrow.model.BalanceCheckpoint;
+import org.example.escrow.model.enums.WalletType;
+import org.example.escrow.repository.BalanceCheckpointRepository;
+import org.example.escrow.repository.BalanceCheckpointRepository.WalletLedgerTotals;
+import org.example.escrow.repository.BalanceCheckpointRepository.WalletReplayTotals;
+import org.example.escrow.repository.WalletRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Proves wallets.balance against ledger_entries without summing the whole ledger each time.
+ *
+ * Each wallet has a checkpoint: its ledger balance as of a wallet version. The incremental
+ * run (scheduled, and on demand) reads only the entries posted since the checkpoint, compares
+ * checkpoint + delta with the stored balance and moves the checkpoint forward. The full replay
+ * ignores checkpoints, re-sums every entry with the wallets partitioned across a fork-join
+ * pool, verifies the checkpoints on the way and re-bases them.
+ *
+ * System accounts are skipped by both: they keep no stored balance (see LedgerPostingService).
+ *
+ * Discrepancies are reported, never corrected: the latest report is kept for AdminController.
+ */
+@Service
+@Slf4j
+public class LedgerReconciliationService {
+
+    // Smallest UUID in the database's ordering, to start the keyset paging
+    private static final UUID FIRST = new UUID(0L, 0L);
+
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties.Reconciliation config;
+    // One run at a time per instance. Runs on several instances are harmless: checkpoints
+    // are only ever written with what the ledger said at the version they record.
+    private final ReentrantLock running = new ReentrantLock();
+    private final AtomicReference<ReconciliationReport> lastReport = new AtomicReference<>();
+
+    public LedgerReconciliationService(BalanceCheckpointRepository checkpointRepository,
+                                       WalletRepository walletRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       AppProperties appProperties) {
+        this.checkpointRepository = checkpointRepository;
+        this.walletRepository = walletRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = appProperties.getReconciliation();
+    }
+
+    @Scheduled(initialDelayString = "${app.config.reconciliation.interval-millis:300000}",
+               fixedDelayString = "${app.config.reconciliation.interval-millis:300000}")
+    public void scheduledReconcile() {
+        // Skip the tick rather than queue behind a run started from the admin API
+        if (!config.isEnabled() || !running.tryLock()) {
+            return;
+        }
+        try {
+            publish(incremental());
+        } finally {
+            running.unlock();
+        }
+    }
+
+    public ReconciliationReport reconcile() {
+        return exclusively(this::incremental);
+    }
+
+    public ReconciliationReport replay() {
+        return exclusively(this::fullReplay);
+    }
+
+    public Optional<ReconciliationReport> getLastReport() {
+        return Optional.ofNullable(lastReport.get());
+    }
+
+    private ReconciliationReport exclusively(Supplier<ReconciliationReport> run) {
+        running.lock();
+        try {
+            return publish(run.get());
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private ReconciliationReport publish(ReconciliationReport report) {
+        lastReport.set(report);
+        if (report.getDiscrepancies().isEmpty()) {
+            log.info("Ledger reconciliation ({}): {} wallets, {} entries read, balanced, {} ms",
+                    report.getMode(), report.getWalletsChecked(), report.getEntriesRead(), report.getDurationMillis());
+        } else {
+            log.warn("Ledger reconciliation ({}): {} discrepancies in {} wallets, {} ms",
+                    report.getMode(), report.getDiscrepancies().size(), report.getWalletsChecked(), report.getDurationMillis());
+        }
+        return report;
+    }
+
+    private ReconciliationReport incremental() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        int batchSize = Math.max(1, config.getBatchSize());
+        Tally tally = new Tally();
+
+        UUID after = FIRST;
+        while (true) {
+            UUID from = after;
+            // Read and checkpoint in one transaction per page, so a failure loses one page at most
+            List<WalletLedgerTotals> page = transactionTemplate.execute(status -> {
+                List<WalletLedgerTotals> rows = checkpointRepository.findTotalsSinceCheckpoint(
+                        from, WalletType.SYSTEM_ACCOUNTS, PageRequest.of(0, batchSize));
+                List<Checked> checked = rows.stream()
+                        .map(r -> new Checked(r,
+                                orZero(r.getCheckpointBalance()).add(r.getLedgerSum()),
+                                orZero(r.getCheckpointEntryCount()) + r.getEntriesRead(),
+                                null))
+                        .toList();
+                tally.add(checked, writeCheckpoints(checked));
+                return rows;
+            });
+            if (page.size() < batchSize) {
+                break;
+            }
+            after = page.get(page.size() - 1).getWalletId();
+        }
+        return tally.report(ReconciliationReport.Mode.INCREMENTAL, startedAt, start);
+    }
+
+    private ReconciliationReport fullReplay() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        List<UUID> walletIds = walletRepository.findAllIds();
+
+        // A pool of its own: the workers block on JDBC, which the common pool must not do
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, config.getReplayParallelism()));
+        try {
+            Tally tally = pool.invoke(new ReplayTask(walletIds, Math.max(1, config.getBatchSize())));
+            return tally.report(ReconciliationReport.Mode.FULL_REPLAY, startedAt, start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Splits the wallet ids in halves until a slice fits one query.
+     */
+    private final class ReplayTask extends RecursiveTask<Tally> {
+
+        private final List<UUID> walletIds;
+        private final int batchSize;
+
+        ReplayTask(List<UUID> walletIds, int batchSize) {
+            this.walletIds = walletIds;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (walletIds.size() <= batchSize) {
+                return replayBatch(walletIds);
+            }
+            int mid = walletIds.size() / 2;
+            ReplayTask left = new ReplayTask(walletIds.subList(0, mid), batchSize);
+            left.fork();
+            Tally right = new ReplayTask(walletIds.subList(mid, walletIds.size()), batchSize).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private Tally replayBatch(List<UUID> walletIds) {
+        if (walletIds.isEmpty()) {
+            return new Tally();
+        }
+        return transactionTemplate.execute(status -> {
+            List<WalletReplayTotals> rows = checkpointRepository.replayTotals(walletIds, WalletType.SYSTEM_ACCOUNTS);
+            List<Checked> checked = rows.stream()
+                    .map(r -> new Checked(r, r.getLedgerSum(), r.getEntriesRead(),
+                            r.getCheckpointId() != null ? r.getLedgerBeforeCheckpoint() : null))
+                    .toList();
+            Tally tally = new Tally();
+            tally.add(checked, writeCheckpoints(checked));
+            return tally;
+        });
+    }
+
+    /**
+     * Moves checkpoints to the wallet version that was read. A wallet whose checkpoint is
+     * already there is left alone, unless a replay found the checkpoint wrong.
+     */
+    private int writeCheckpoints(List<Checked> checked) {
+        List<Checked> due = checked.stream()
+                .filter(c -> c.row().getCheckpointId() == null
+                        || c.row().getWalletVersion() > c.row().getCheckpointVersion()
+                        || c.checkpointMismatch())
+                .toList();
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, BalanceCheckpoint> existing = checkpointRepository.findAllById(due.stream()
+                        .map(c -> c.row().getCheckpointId())
+                        .filter(Objects::nonNull)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(BalanceCheckpoint::getId, Function.identity()));
+
+        List<BalanceCheckpoint> writes = new ArrayList<>(due.size());
+        for (Checked c : due) {
+            BalanceCheckpoint checkpoint = c.row().getCheckpointId() == null
+                    ? BalanceCheckpoint.builder().wallet(walletRepository.getReferenceById(c.row().getWalletId())).build()
+                    : existing.get(c.row().getCheckpointId());
+            // Gone, or moved past this read by a run on another instance
+            if (checkpoint == null
+                    || (checkpoint.getWalletVersion() != null && checkpoint.getWalletVersion() > c.row().getWalletVersion())) {
+                continue;
+            }
+            checkpoint.setBalance(c.ledgerBalance());
+            checkpoint.setWalletVersion(c.row().getWalletVersion());
+            checkpoint.setEntryCount(c.entryCount());
+            writes.add(checkpoint);
+        }
+        checkpointRepository.saveAll(writes);
+        return writes.size();
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    /**
+     * A wallet after reading its ledger: ledgerBalance is what the ledger says the balance is
+     * at the wallet version read; checkpointExpected is what the checkpoint should hold (only
+     * known on a full replay).
+     */
+    private record Checked(WalletLedgerTotals row, BigDecimal ledgerBalance, long entryCount,
+                           BigDecimal checkpointExpected) {
+
+        boolean checkpointMismatch() {
+            return checkpointExpected != null && row.getCheckpointBalance().compareTo(checkpointExpected) != 0;
+        }
+    }
+
+    private static final class Tally {
+
+        private long wallets;
+        private long entries;
+        private long checkpoints;
+        private final List<BalanceDiscrepancy> discrepancies = new ArrayList<>();
+
+        void add(List<Checked> checked, int checkpointsWritten) {
+            checkpoints += checkpointsWritten;
+            for (Checked c : checked) {
+                WalletLedgerTotals row = c.row();
+                wallets++;
+                entries += row.getEntriesRead();
+                if (row.getWalletBalance().compareTo(c.ledgerBalance()) != 0) {
+                    discrepancies.add(discrepancy(row, BalanceDiscrepancy.Kind.BALANCE_MISMATCH,
+                            c.ledgerBalance(), row.getWalletBalance()));
+                }
+                if (c.checkpointMismatch()) {
+                    discrepancies.add(discrepancy(row, BalanceDiscrepancy.Kind.CHECKPOINT_MISMATCH,
+                            c.checkpointExpected(), row.getCheckpointBalance()));
+                }
+            }
+        }
+
+        Tally merge(Tally other) {
+            wallets += other.wallets;
+            entries += other.entries;
+            checkpoints += other.checkpoints;
+            discrepancies.addAll(other.discrepancies);
+            return this;
+        }
+
+        ReconciliationReport report(ReconciliationReport.Mode mode, LocalDateTime startedAt, long startNanos) {
+            return ReconciliationReport.builder()
+                    .mode(mode)
+                    .startedAt(startedAt)
+                    .durationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos))
+                    .walletsChecked(wallets)
+                    .entriesRead(entries)
+                    .checkpointsWritten(checkpoints)
+                    .discrepancies(List.copyOf(discrepancies))
+                    .build();
+        }
+
+        private static BalanceDiscrepancy discrepancy(WalletLedgerTotals row, BalanceDiscrepancy.Kind kind,
+                                                      BigDecimal expected, BigDecimal actual) {
+            return BalanceDiscrepancy.builder()
+                    .walletId(row.getWalletId())
+                    .currency(row.getCurrency())
+                    .walletType(row.getWalletType())
+                    .kind(kind)
+                    .expected(expected)
+                    .actual(actual)
+                    .difference(actual.subtract(expected))
+                    .build();
+        }
+    }
+}
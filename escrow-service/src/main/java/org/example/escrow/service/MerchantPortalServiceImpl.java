@@ -15,6 +15,7 @@ import org.example.escrow.model.enums.UserRole;
 import org.example.escrow.repository.MerchantProfileRepository;
 import org.example.escrow.repository.MerchantServiceRepository;
 import org.example.escrow.repository.UserRepository;
+import org.example.escrow.security.AuthenticatedUserCache;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -28,6 +29,7 @@ public class MerchantPortalServiceImpl {
     private final MerchantServiceRepository merchantServiceRepository;
     private final UserRepository userRepository;
     private final AppProperties appProperties;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
     /**
      * Opt-in a standard user to become a Merchant.
@@ -60,6 +62,7 @@ public class MerchantPortalServiceImpl {
         // 4. Upgrade User Role
         user.setRole(UserRole.ROLE_MERCHANT);
         userRepository.save(user);
+        authenticatedUserCache.evict(userId); // next request must see the merchant role
 
         return merchantProfileRepository.save(profile);
     }
@@ -0,0 +1,120 @@
+package org.example.escrow.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.escrow.model.User;
+import org.example.escrow.model.Wallet;
+import org.example.escrow.model.enums.UserRole;
+import org.example.escrow.model.enums.WalletType;
+import org.example.escrow.repository.LedgerEntryRepository;
+import org.example.escrow.repository.UserRepository;
+import org.example.escrow.repository.WalletRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The platform's own wallets, used as the other side of ledger postings:
+ * ESCROW_HOLDING holds buyer payments until release, FUNDING_CLEARING is the
+ * counterpart of money entering (M-Pesa, deposits) or leaving the platform.
+ *
+ * Wallets are unique per (user, currency), so each account type has its own owner:
+ * an inactive user that cannot log in. Both are created on first use.
+ *
+ * Nearly every posting has a leg on one of them, so they are ledger-only: postings never
+ * lock or update their wallet row, and their balance is the sum of their ledger entries.
+ */
+@Service
+@Slf4j
+public class SystemAccountService {
+
+    private static final String EMAIL_DOMAIN = "@system.escrow.internal";
+
+    private final UserRepository userRepository;
+    private final WalletRepository walletRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final TransactionTemplate provisioning;
+    // Every account resolved on this instance. Wallet ids are never reused, so an entry
+    // stays right even if the account is deleted and created again.
+    private final Map<UUID, SystemAccount> resolved = new ConcurrentHashMap<>();
+
+    public record SystemAccount(UUID walletId, WalletType type, String currency) {}
+
+    public SystemAccountService(UserRepository userRepository,
+                                WalletRepository walletRepository,
+                                LedgerEntryRepository ledgerEntryRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.walletRepository = walletRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        // Committed on its own, so a rollback of the posting does not undo the account
+        this.provisioning = new TransactionTemplate(transactionManager);
+        this.provisioning.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public UUID walletId(WalletType type, String currency) {
+        String email = ownerEmail(type);
+        // One indexed lookup (users.email, wallets(user_id, currency)); not cached, so a
+        // deleted account is simply created again
+        UUID walletId = walletRepository.findIdByOwnerEmailAndCurrency(email, currency)
+                .orElseGet(() -> provision(type, email, currency));
+        resolved.putIfAbsent(walletId, new SystemAccount(walletId, type, currency));
+        return walletId;
+    }
+
+    /**
+     * The system account behind a wallet id that walletId(...) returned on this instance;
+     * empty for any other wallet.
+     */
+    public Optional<SystemAccount> account(UUID walletId) {
+        return Optional.ofNullable(resolved.get(walletId));
+    }
+
+    /**
+     * Sums the account's ledger: system accounts keep no stored balance.
+     */
+    public BigDecimal balance(WalletType type, String currency) {
+        return ledgerEntryRepository.sumAmountByWalletId(walletId(type, currency));
+    }
+
+    static String ownerEmail(WalletType type) {
+        return type.name().toLowerCase(Locale.ROOT).replace('_', '-') + EMAIL_DOMAIN;
+    }
+
+    private UUID provision(WalletType type, String email, String currency) {
+        try {
+            return provisioning.execute(status -> {
+                User owner = userRepository.findByEmail(email)
+                        .orElseGet(() -> userRepository.save(User.builder()
+                                .firstName("System")
+                                .lastName(type.name())
+                                .email(email)
+                                .passwordHash("!") // Not a BCrypt hash: no password matches it
+                                .role(UserRole.ROLE_USER)
+                                .active(false)
+                                .phoneVerified(false)
+                                .build()));
+
+                Wallet wallet = walletRepository.save(Wallet.builder()
+                        .user(owner)
+                        .balance(BigDecimal.ZERO)
+                        .currency(currency)
+                        .walletType(type)
+                        .build());
+                log.info("Created system account {} for {}", type, currency);
+                return wallet.getId();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another request created it first
+            return walletRepository.findIdByOwnerEmailAndCurrency(email, currency).orElseThrow(() -> e);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.escrow.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.example.escrow.config.AppProperties;
+import org.example.escrow.dto.wallet.WalletContentionResponse;
+import org.example.escrow.exception.ResourceNotFoundException;
+import org.example.escrow.model.Wallet;
+import org.example.escrow.repository.WalletRepository;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Applies balance changes to a set of wallets safely under concurrent updates
+ * (M-Pesa callbacks, escrow payments and API deposits hitting the same wallets).
+ *
+ * Called outside a transaction, each attempt runs in its own transaction and is flushed
+ * before commit, so a @Version conflict (or a deadlock) surfaces here. It is retried with
+ * jittered backoff; the last attempt, and every attempt that touches a wallet that is
+ * currently hot, takes PESSIMISTIC_WRITE locks instead, so the update always completes.
+ *
+ * Called inside a caller's transaction, a conflict would only show up at the caller's
+ * commit, where it cannot be retried from here, so the wallets are locked up front.
+ *
+ * Locks are always taken in wallet-id order (one SELECT ... ORDER BY id FOR UPDATE), so two
+ * multi-wallet updates cannot deadlock on each other.
+ */
+@Service
+@Slf4j
+public class WalletMutationService {
+
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties.WalletLocking config;
+    private final Cache<UUID, Counters> counters;
+
+    public WalletMutationService(WalletRepository walletRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 AppProperties appProperties) {
+        this.walletRepository = walletRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = appProperties.getWalletLocking();
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(config.getTrackedWallets())
+                .build();
+    }
+
+    /**
+     * Loads the wallets, hands them to the mutation (keyed by id) and flushes the changes.
+     * The mutation may run more than once, so it must only touch the wallets it is given and
+     * entities it creates itself (e.g. ledger entries).
+     */
+    public <T> T mutate(Collection<UUID> walletIds, Function<Map<UUID, Wallet>, T> mutation) {
+        Set<UUID> ids = new TreeSet<>(walletIds);
+        List<Counters> stats = ids.stream()
+                .map(id -> counters.get(id, k -> new Counters()))
+                .toList();
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return apply(ids, stats, mutation, true);
+        }
+
+        int maxAttempts = Math.max(1, config.getMaxAttempts());
+        for (int attempt = 1; ; attempt++) {
+            boolean lock = attempt == maxAttempts || anyHot(stats);
+            try {
+                return transactionTemplate.execute(status -> apply(ids, stats, mutation, lock));
+            } catch (ConcurrencyFailureException e) {
+                // Charged to every wallet in the update: they were all written together, and
+                // wallets that keep colliding together should be locked together
+                stats.forEach(s -> s.conflict(hotWindowNanos()));
+                if (attempt == maxAttempts) {
+                    throw e;
+                }
+                log.debug("Lock conflict on wallets {} (attempt {}/{}): {}", ids, attempt, maxAttempts, e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Contention counters for the most contended wallets, highest conflict count first.
+     */
+    public List<WalletContentionResponse> getContention(int limit) {
+        long window = hotWindowNanos();
+        int threshold = config.getHotConflictThreshold();
+        return counters.asMap().entrySet().stream()
+                .filter(e -> e.getValue().currency != null)
+                .map(e -> WalletContentionResponse.builder()
+                        .walletId(e.getKey())
+                        .userId(e.getValue().userId)
+                        .currency(e.getValue().currency)
+                        .mutations(e.getValue().mutations.sum())
+                        .conflicts(e.getValue().conflicts.sum())
+                        .pessimisticLocks(e.getValue().pessimisticLocks.sum())
+                        .hot(e.getValue().isHot(window, threshold))
+                        .build())
+                .sorted(Comparator.comparingLong(WalletContentionResponse::getConflicts).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private <T> T apply(Set<UUID> ids, List<Counters> stats, Function<Map<UUID, Wallet>, T> mutation, boolean lock) {
+        List<Wallet> loaded = lock
+                ? walletRepository.findAllByIdForUpdate(ids)
+                : walletRepository.findAllById(ids);
+
+        Map<UUID, Wallet> wallets = new LinkedHashMap<>();
+        loaded.forEach(w -> wallets.put(w.getId(), w));
+        for (UUID id : ids) {
+            if (!wallets.containsKey(id)) {
+                throw new ResourceNotFoundException("Wallet", "id", id);
+            }
+        }
+
+        T result = mutation.apply(wallets);
+        // Surface a version conflict now, while it can still be retried
+        walletRepository.flush();
+
+        int i = 0;
+        for (UUID id : ids) {
+            Counters s = stats.get(i++);
+            Wallet wallet = wallets.get(id);
+            s.userId = wallet.getUser() != null ? wallet.getUser().getId() : null; // proxy id, no fetch
+            s.currency = wallet.getCurrency();
+            s.mutations.increment();
+            if (lock) {
+                s.pessimisticLocks.increment();
+            }
+        }
+        return result;
+    }
+
+    private boolean anyHot(List<Counters> stats) {
+        long window = hotWindowNanos();
+        int threshold = config.getHotConflictThreshold();
+        for (Counters s : stats) {
+            if (s.isHot(window, threshold)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^(attempt-1))]
+    private void backoff(int attempt) {
+        long ceiling = Math.min(config.getBackoffMaxMillis(), config.getBackoffBaseMillis() << Math.min(attempt - 1, 20));
+        long sleep = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying wallet update", e);
+        }
+    }
+
+    private long hotWindowNanos() {
+        return TimeUnit.SECONDS.toNanos(config.getHotWindowSeconds());
+    }
+
+    private static final class Counters {
+        final LongAdder mutations = new LongAdder();
+        final LongAdder conflicts = new LongAdder();
+        final LongAdder pessimisticLocks = new LongAdder();
+        // Filled in on the first successful update
+        volatile UUID userId;
+        volatile String currency;
+
+        // Conflicts in the current window, guarded by this
+        private long windowStart = System.nanoTime();
+        private int windowConflicts;
+
+        synchronized void conflict(long windowNanos) {
+            conflicts.increment();
+            roll(windowNanos);
+            windowConflicts++;
+        }
+
+        synchronized boolean isHot(long windowNanos, int threshold) {
+            roll(windowNanos);
+            return windowConflicts >= threshold;
+        }
+
+        private void roll(long windowNanos) {
+            long now = System.nanoTime();
+            if (now - windowStart > windowNanos) {
+                windowStart = now;
+                windowConflicts = 0;
+            }
+        }
+    }
+}
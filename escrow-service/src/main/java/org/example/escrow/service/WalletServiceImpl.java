@@ -4,13 +4,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.escrow.config.AppProperties;
 import org.example.escrow.dto.wallet.DepositRequest;
-import org.example.escrow.exception.BusinessLogicException;
 import org.example.escrow.exception.ResourceNotFoundException;
 import org.example.escrow.model.LedgerEntry;
 import org.example.escrow.model.Wallet;
 import org.example.escrow.model.enums.LedgerEntryType;
+import org.example.escrow.model.enums.WalletType;
 import org.example.escrow.repository.LedgerEntryRepository;
 import org.example.escrow.repository.WalletRepository;
+import org.example.escrow.service.LedgerPostingService.Journal;
+import org.example.escrow.service.LedgerPostingService.Leg;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,58 +28,59 @@ public class WalletServiceImpl {
     private final WalletRepository walletRepository;
     private final LedgerEntryRepository ledgerEntryRepository;
     private final AppProperties appProperties;
+    private final LedgerPostingService ledgerPostingService;
+    private final SystemAccountService systemAccountService;
 
-    @Transactional
+    // Not @Transactional: the posting owns the transaction so it can retry lock conflicts
     public Wallet depositFunds(UUID userId, DepositRequest request) {
         String currency = request.getCurrency() != null ? request.getCurrency() : appProperties.getEscrow().getDefaultCurrency();
-
-        Wallet wallet = walletRepository.findByUserIdAndCurrency(userId, currency)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet", "user_id/currency", userId + "/" + currency));
-
         BigDecimal amount = request.getAmount();
-        wallet.setBalance(wallet.getBalance().add(amount));
-        walletRepository.save(wallet);
-
-        // Accessing fields for logging also forces initialization (solving LazyInit issue)
-        // and removes the "result ignored" warning because we are using the result.
-        if (wallet.getUser() != null) {
-            log.info("Deposited funds for user: {} {}", wallet.getUser().getFirstName(), wallet.getUser().getLastName());
-        }
-
-        LedgerEntry entry = LedgerEntry.builder()
-                .wallet(wallet)
-                .transactionId(UUID.randomUUID())
-                .amount(amount)
-                .entryType(LedgerEntryType.DEPOSIT)
-                .description("Manual Deposit via API")
-                .build();
-
-        ledgerEntryRepository.save(entry);
-
-        return wallet;
+        UUID walletId = userWalletId(userId, currency);
+        UUID clearingId = systemAccountService.walletId(WalletType.FUNDING_CLEARING, currency);
+
+        Journal journal = new Journal(UUID.randomUUID(), List.of(
+                new Leg(walletId, amount, LedgerEntryType.DEPOSIT, "Manual Deposit via API"),
+                new Leg(clearingId, amount.negate(), LedgerEntryType.DEBIT, "Deposit to wallet " + walletId)
+        ));
+
+        return ledgerPostingService.post(journal, wallets -> {
+            Wallet wallet = wallets.get(walletId);
+            // Accessing fields for logging also forces initialization (solving LazyInit issue)
+            // and removes the "result ignored" warning because we are using the result.
+            if (wallet.getUser() != null) {
+                log.info("Deposited funds for user: {} {}", wallet.getUser().getFirstName(), wallet.getUser().getLastName());
+            }
+            return wallet;
+        });
     }
 
-    @Transactional
     public void deductFunds(UUID userId, BigDecimal amount, String currency, String description) {
-        Wallet wallet = walletRepository.findByUserIdAndCurrency(userId, currency)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet", "user_id/currency", userId + "/" + currency));
-
-        if (wallet.getBalance().compareTo(amount) < 0) {
-            throw new BusinessLogicException("Insufficient funds. Current balance: " + wallet.getBalance());
-        }
+        UUID walletId = userWalletId(userId, currency);
+        UUID clearingId = systemAccountService.walletId(WalletType.FUNDING_CLEARING, currency);
 
-        wallet.setBalance(wallet.getBalance().subtract(amount));
-        walletRepository.save(wallet);
+        ledgerPostingService.post(new Journal(UUID.randomUUID(), List.of(
+                new Leg(walletId, amount.negate(), LedgerEntryType.WITHDRAWAL, description), // Negative for withdrawals
+                new Leg(clearingId, amount, LedgerEntryType.CREDIT, "Withdrawal from wallet " + walletId)
+        )));
+    }
 
-        LedgerEntry entry = LedgerEntry.builder()
-                .wallet(wallet)
-                .transactionId(UUID.randomUUID())
-                .amount(amount.negate()) // Negative for withdrawals
-                .entryType(LedgerEntryType.WITHDRAWAL)
-                .description(description)
-                .build();
+    /**
+     * Moves a buyer's payment into the escrow holding account. Both legs carry the escrow
+     * transaction's id, so findByTransactionId returns the pair.
+     */
+    public void holdInEscrow(UUID buyerId, UUID escrowTransactionId, BigDecimal amount, String currency, String description) {
+        UUID walletId = userWalletId(buyerId, currency);
+        UUID holdingId = systemAccountService.walletId(WalletType.ESCROW_HOLDING, currency);
+
+        ledgerPostingService.post(new Journal(escrowTransactionId, List.of(
+                new Leg(walletId, amount.negate(), LedgerEntryType.DEBIT, description),
+                new Leg(holdingId, amount, LedgerEntryType.CREDIT, description)
+        )));
+    }
 
-        ledgerEntryRepository.save(entry);
+    private UUID userWalletId(UUID userId, String currency) {
+        return walletRepository.findIdByUserIdAndCurrency(userId, currency)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet", "user_id/currency", userId + "/" + currency));
     }
 
     // Marked as readOnly to keep session open for any lazy loading in results
@@ -27,5 +27,7 @@ public abstract class AbstractIntegrationTest {
         registry.add("spring.datasource.password", postgres::getPassword);
         // Ensure Hibernate creates tables for the test DB
         registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        // Reconciliation is run explicitly by the tests that need it
+        registry.add("app.config.reconciliation.enabled", () -> "false");
     }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -55,4 +56,25 @@ class AdminControllerIntegrationTest extends AbstractIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isForbidden()); // 403
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void reconcileLedger_ShouldReturnReport_WhenAdmin() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/ledger/reconciliation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.mode").value("INCREMENTAL"))
+                .andExpect(jsonPath("$.data.discrepancies").isArray());
+
+        // The same report is served until the next run
+        mockMvc.perform(get("/api/v1/admin/ledger/reconciliation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.mode").value("INCREMENTAL"));
+    }
+
+    @Test
+    @WithMockUser(username = "user@test.com", roles = "USER")
+    void replayLedger_ShouldReturnForbidden_WhenNotAdmin() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/ledger/replay"))
+                .andExpect(status().isForbidden());
+    }
+}
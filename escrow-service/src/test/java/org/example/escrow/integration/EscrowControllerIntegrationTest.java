@@ -2,17 +2,23 @@ package org.example.escrow.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.escrow.dto.transaction.InitiateTransactionRequest;
+import org.example.escrow.model.EscrowTransaction;
+import org.example.escrow.model.LedgerEntry;
 import org.example.escrow.model.MerchantProfile;
 import org.example.escrow.model.MerchantService;
 import org.example.escrow.model.User;
 import org.example.escrow.model.Wallet;
+import org.example.escrow.model.enums.EscrowStatus;
 import org.example.escrow.model.enums.UserRole;
+import org.example.escrow.model.enums.WalletType;
 import org.example.escrow.repository.EscrowTransactionRepository;
+import org.example.escrow.repository.LedgerEntryRepository;
 import org.example.escrow.repository.MerchantProfileRepository;
 import org.example.escrow.repository.MerchantServiceRepository;
 import org.example.escrow.repository.UserRepository;
 import org.example.escrow.repository.WalletRepository;
 import org.example.escrow.service.JwtService;
+import org.example.escrow.service.SystemAccountService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,7 +29,10 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -37,6 +46,8 @@ class EscrowControllerIntegrationTest extends AbstractIntegrationTest {
     @Autowired private MerchantServiceRepository merchantServiceRepository;
     @Autowired private EscrowTransactionRepository escrowTransactionRepository; // Added for cleanup
     @Autowired private WalletRepository walletRepository;
+    @Autowired private LedgerEntryRepository ledgerEntryRepository;
+    @Autowired private SystemAccountService systemAccountService;
     @Autowired private ObjectMapper objectMapper;
     @Autowired private JwtService jwtService;
 
@@ -81,6 +92,7 @@ class EscrowControllerIntegrationTest extends AbstractIntegrationTest {
     void cleanUp() {
         // Fix: Delete transactions first to satisfy Foreign Key constraints
         escrowTransactionRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
         merchantServiceRepository.deleteAll();
         merchantProfileRepository.deleteAll();
         walletRepository.deleteAll();
@@ -101,4 +113,30 @@ class EscrowControllerIntegrationTest extends AbstractIntegrationTest {
                 // Fixed expectation: 1000 + 50% fee (from app.properties 0.50) = 1500.00
                 .andExpect(jsonPath("$.data.totalAmount").value(1500.00));
     }
-}
\ No newline at end of file
+
+    @Test
+    void payTransaction_ShouldMoveFundsToEscrowHolding_AsBalancedLegs() throws Exception {
+        // Arrange: a CREATED transaction of 1500.00 (1000 + 50% fee)
+        EscrowTransaction transaction = escrowTransactionRepository.save(EscrowTransaction.builder()
+                .buy(buyer).merchant(service.getMerchant()).service(service)
+                .totalAmount(new BigDecimal("1500.00")).platformFee(new BigDecimal("500.00"))
+                .merchantPayout(new BigDecimal("1000.00")).currency("KES").build());
+
+        // Act
+        mockMvc.perform(post("/api/v1/transactions/" + transaction.getId() + "/pay")
+                        .header("Authorization", buyerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value(EscrowStatus.PAID.name()));
+
+        // Assert: buyer debited, holding account credited, both legs under the transaction id
+        Wallet buyerWallet = walletRepository.findByUserIdAndCurrency(buyer.getId(), "KES").orElseThrow();
+        assertEquals(0, new BigDecimal("3500.00").compareTo(buyerWallet.getBalance()));
+
+        // Ledger-only: the holding balance is the sum of its entries
+        assertEquals(0, new BigDecimal("1500.00").compareTo(systemAccountService.balance(WalletType.ESCROW_HOLDING, "KES")));
+
+        List<LedgerEntry> legs = ledgerEntryRepository.findByTransactionId(transaction.getId());
+        assertEquals(2, legs.size());
+        assertTrue(legs.stream().map(LedgerEntry::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add).signum() == 0);
+    }
+}
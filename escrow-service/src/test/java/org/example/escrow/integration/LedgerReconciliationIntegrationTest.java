@@ -0,0 +1,134 @@
+package org.example.escrow.integration;
+
+import org.example.escrow.dto.wallet.BalanceDiscrepancy;
+import org.example.escrow.dto.wallet.DepositRequest;
+import org.example.escrow.dto.wallet.ReconciliationReport;
+import org.example.escrow.model.BalanceCheckpoint;
+import org.example.escrow.model.User;
+import org.example.escrow.model.Wallet;
+import org.example.escrow.model.enums.UserRole;
+import org.example.escrow.repository.BalanceCheckpointRepository;
+import org.example.escrow.repository.LedgerEntryRepository;
+import org.example.escrow.repository.UserRepository;
+import org.example.escrow.repository.WalletRepository;
+import org.example.escrow.service.LedgerReconciliationService;
+import org.example.escrow.service.WalletServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerReconciliationIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired private LedgerReconciliationService reconciliationService;
+    @Autowired private WalletServiceImpl walletService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private LedgerEntryRepository ledgerEntryRepository;
+    @Autowired private BalanceCheckpointRepository checkpointRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    // Mock notification service to avoid AWS calls during tests
+    @MockBean private org.example.escrow.service.NotificationService notificationService;
+
+    private User user;
+    private Wallet wallet;
+
+    @BeforeEach
+    void setupData() {
+        user = userRepository.save(User.builder()
+                .firstName("Recon").lastName("User").email("recon@test.com")
+                .phoneNumber("254700000088").passwordHash("hash").role(UserRole.ROLE_USER)
+                .phoneVerified(true).build());
+
+        // Starts at zero, so every shilling in it has a ledger entry
+        wallet = walletRepository.save(Wallet.builder()
+                .user(user).balance(BigDecimal.ZERO).currency("KES").build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        checkpointRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        walletRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void reconcile_ShouldOnlyReadEntriesSinceCheckpoint() {
+        deposit("100.00");
+        ReconciliationReport first = reconciliationService.reconcile();
+        assertTrue(first.getDiscrepancies().isEmpty());
+
+        deposit("25.00");
+        ReconciliationReport second = reconciliationService.reconcile();
+
+        // Only the new journal's user leg: the clearing account is ledger-only and not reconciled
+        assertTrue(second.getDiscrepancies().isEmpty());
+        assertEquals(1, second.getEntriesRead());
+
+        BalanceCheckpoint checkpoint = checkpointFor(wallet);
+        Wallet reloaded = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("125.00").compareTo(checkpoint.getBalance()));
+        assertEquals(reloaded.getVersion(), checkpoint.getWalletVersion());
+        assertEquals(2L, checkpoint.getEntryCount());
+    }
+
+    @Test
+    void reconcileAndReplay_ShouldReportBalanceChangedOutsideTheLedger() {
+        deposit("100.00");
+        reconciliationService.reconcile();
+
+        // A balance edit that bypasses the posting engine
+        jdbcTemplate.update("UPDATE wallets SET balance = balance + 1 WHERE id = ?", wallet.getId());
+
+        for (ReconciliationReport report : List.of(reconciliationService.reconcile(), reconciliationService.replay())) {
+            BalanceDiscrepancy discrepancy = report.getDiscrepancies().stream()
+                    .filter(d -> d.getWalletId().equals(wallet.getId()))
+                    .findFirst().orElseThrow();
+            assertEquals(BalanceDiscrepancy.Kind.BALANCE_MISMATCH, discrepancy.getKind());
+            assertEquals(0, BigDecimal.ONE.compareTo(discrepancy.getDifference()));
+        }
+    }
+
+    @Test
+    void replay_ShouldReportCheckpointThatDisagreesWithLedger() {
+        deposit("100.00");
+        reconciliationService.reconcile();
+        deposit("50.00");
+
+        jdbcTemplate.update("UPDATE balance_checkpoints SET balance = 90 WHERE wallet_id = ?", wallet.getId());
+
+        ReconciliationReport report = reconciliationService.replay();
+
+        BalanceDiscrepancy discrepancy = report.getDiscrepancies().stream()
+                .filter(d -> d.getWalletId().equals(wallet.getId()))
+                .findFirst().orElseThrow();
+        assertEquals(BalanceDiscrepancy.Kind.CHECKPOINT_MISMATCH, discrepancy.getKind());
+        assertEquals(0, new BigDecimal("100.00").compareTo(discrepancy.getExpected()));
+        // Re-based: the next incremental run is clean
+        assertEquals(0, new BigDecimal("150.00").compareTo(checkpointFor(wallet).getBalance()));
+        assertTrue(reconciliationService.reconcile().getDiscrepancies().isEmpty());
+    }
+
+    private void deposit(String amount) {
+        DepositRequest request = new DepositRequest();
+        request.setAmount(new BigDecimal(amount));
+        request.setCurrency("KES");
+        walletService.depositFunds(user.getId(), request);
+    }
+
+    private BalanceCheckpoint checkpointFor(Wallet wallet) {
+        return checkpointRepository.findAll().stream()
+                .filter(c -> c.getWallet().getId().equals(wallet.getId()))
+                .findFirst().orElseThrow();
+    }
+}
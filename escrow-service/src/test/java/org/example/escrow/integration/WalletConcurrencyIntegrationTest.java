@@ -0,0 +1,114 @@
+package org.example.escrow.integration;
+
+import org.example.escrow.dto.wallet.DepositRequest;
+import org.example.escrow.dto.wallet.WalletContentionResponse;
+import org.example.escrow.model.User;
+import org.example.escrow.model.Wallet;
+import org.example.escrow.model.enums.UserRole;
+import org.example.escrow.repository.LedgerEntryRepository;
+import org.example.escrow.repository.UserRepository;
+import org.example.escrow.repository.WalletRepository;
+import org.example.escrow.service.WalletMutationService;
+import org.example.escrow.service.WalletServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WalletConcurrencyIntegrationTest extends AbstractIntegrationTest {
+
+    private static final int THREADS = 64;
+    private static final int DEPOSITS_PER_THREAD = 5;
+
+    @Autowired private WalletServiceImpl walletService;
+    @Autowired private WalletMutationService walletMutationService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private LedgerEntryRepository ledgerEntryRepository;
+
+    // Mock notification service to avoid AWS calls during tests
+    @MockBean private org.example.escrow.service.NotificationService notificationService;
+
+    private User user;
+    private Wallet wallet;
+
+    @BeforeEach
+    void setupData() {
+        user = userRepository.save(User.builder()
+                .firstName("Hot").lastName("Wallet").email("hot-wallet@test.com")
+                .phoneNumber("254700000077").passwordHash("hash").role(UserRole.ROLE_USER)
+                .phoneVerified(true).build());
+
+        wallet = walletRepository.save(Wallet.builder()
+                .user(user).balance(new BigDecimal("1000.00")).currency("KES").build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        ledgerEntryRepository.deleteAll();
+        walletRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentUpdates_ShouldAllApply_WhenOneWalletIsHammered() throws Exception {
+        // Arrange: every thread waits on the latch so they all start together
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            boolean depositor = t % 2 == 0;
+            results.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                    if (depositor) {
+                        DepositRequest request = new DepositRequest();
+                        request.setAmount(new BigDecimal("10.00"));
+                        request.setCurrency("KES");
+                        walletService.depositFunds(user.getId(), request);
+                    } else {
+                        walletService.deductFunds(user.getId(), new BigDecimal("3.00"), "KES", "Concurrent payment");
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(2, TimeUnit.MINUTES); // Rethrows any failure, e.g. an unretried lock conflict
+        }
+        pool.shutdown();
+
+        // Assert: no lost updates, one ledger entry per update
+        int perSide = THREADS / 2 * DEPOSITS_PER_THREAD;
+        BigDecimal expected = new BigDecimal("1000.00")
+                .add(new BigDecimal("10.00").multiply(BigDecimal.valueOf(perSide)))
+                .subtract(new BigDecimal("3.00").multiply(BigDecimal.valueOf(perSide)));
+        Wallet reloaded = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(0, expected.compareTo(reloaded.getBalance()));
+        assertEquals(THREADS * DEPOSITS_PER_THREAD, ledgerEntryRepository.findByWalletIdOrderByCreatedAtDesc(wallet.getId()).size());
+        assertEquals((long) THREADS * DEPOSITS_PER_THREAD, reloaded.getVersion());
+
+        WalletContentionResponse stats = walletMutationService.getContention(10).stream()
+                .filter(s -> s.getWalletId().equals(wallet.getId()))
+                .findFirst().orElseThrow();
+        assertEquals(THREADS * DEPOSITS_PER_THREAD, stats.getMutations());
+        assertTrue(stats.getConflicts() > 0, "64 writers on one wallet should have collided at least once");
+    }
+}
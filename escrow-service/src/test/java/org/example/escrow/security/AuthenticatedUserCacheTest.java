@@ -0,0 +1,82 @@
+package org.example.escrow.security;
+
+import org.example.escrow.model.User;
+import org.example.escrow.model.enums.UserRole;
+import org.example.escrow.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticatedUserCacheTest {
+
+    @Mock private UserRepository userRepository;
+
+    private AuthenticatedUserCache cache;
+    private User user;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthenticatedUserCache(userRepository, 60, 100);
+
+        userId = UUID.randomUUID();
+        user = User.builder()
+                .email("buyer@test.com")
+                .role(UserRole.ROLE_USER)
+                .build();
+        user.setId(userId);
+    }
+
+    @Test
+    void get_ShouldQueryOnce_WhenCalledRepeatedly() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        AuthenticatedUser first = cache.get(userId).orElseThrow();
+        AuthenticatedUser second = cache.get(userId).orElseThrow();
+
+        assertEquals(userId, first.id());
+        assertEquals("buyer@test.com", first.getUsername());
+        assertSame(first, second);
+        verify(userRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    void get_ShouldReloadRole_AfterEvict() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        assertEquals(UserRole.ROLE_USER, cache.get(userId).orElseThrow().role());
+
+        user.setRole(UserRole.ROLE_MERCHANT);
+        cache.evict(userId);
+
+        AuthenticatedUser reloaded = cache.get(userId).orElseThrow();
+        assertEquals(UserRole.ROLE_MERCHANT, reloaded.role());
+        assertEquals("ROLE_MERCHANT", reloaded.getAuthorities().iterator().next().getAuthority());
+        verify(userRepository, times(2)).findById(userId);
+    }
+
+    @Test
+    void get_ShouldReturnEmpty_WhenUserMissing() {
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+
+        assertTrue(cache.get(userId).isEmpty());
+        assertTrue(cache.get(userId).isEmpty());
+        verify(userRepository, times(2)).findById(userId); // Misses are not cached
+    }
+
+    @Test
+    void isEnabled_ShouldFollowActiveFlag() {
+        user.setActive(false);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        assertFalse(cache.get(userId).orElseThrow().isEnabled());
+    }
+}
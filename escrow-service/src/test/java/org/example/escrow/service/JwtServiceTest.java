@@ -10,6 +10,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +31,7 @@ class JwtServiceTest {
         // This is a 256-bit secret key for testing
         ReflectionTestUtils.setField(jwtService, "secretKey", "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
         ReflectionTestUtils.setField(jwtService, "jwtExpirationMinutes", 60L);
+        jwtService.init(); // Spring runs this as @PostConstruct
 
         user = User.builder()
                 .email("test@escrow.com")
@@ -50,6 +54,37 @@ class JwtServiceTest {
         assertEquals("test@escrow.com", username);
     }
 
+    @Test
+    void validateAndExtract_ShouldReturnAllClaims_ForValidToken() {
+        String token = jwtService.generateToken(user);
+
+        JwtService.TokenClaims claims = jwtService.validateAndExtract(token).orElseThrow();
+
+        assertEquals("test@escrow.com", claims.email());
+        assertEquals(user.getId(), claims.userId());
+        assertEquals(UserRole.ROLE_USER, claims.role());
+        assertTrue(claims.expiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void validateAndExtract_ShouldReturnEmpty_ForTamperedToken() {
+        String token = jwtService.generateToken(user);
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"sub\":\"hacker@escrow.com\",\"exp\":4102444800}".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(jwtService.validateAndExtract(parts[0] + "." + forgedPayload + "." + parts[2]).isEmpty());
+        assertTrue(jwtService.validateAndExtract("not-a-jwt").isEmpty());
+    }
+
+    @Test
+    void validateAndExtract_ShouldReturnEmpty_ForExpiredToken() {
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationMinutes", -1L);
+        String token = jwtService.generateToken(user);
+
+        assertTrue(jwtService.validateAndExtract(token).isEmpty());
+    }
+
     @Test
     void isTokenValid_ShouldReturnTrue_ForCorrectUser() {
         String token = jwtService.generateToken(user);
@@ -0,0 +1,166 @@
+package org.example.escrow.service;
+
+import org.example.escrow.config.AppProperties;
+import org.example.escrow.model.LedgerEntry;
+import org.example.escrow.model.Wallet;
+import org.example.escrow.model.enums.LedgerEntryType;
+import org.example.escrow.model.enums.WalletType;
+import org.example.escrow.repository.LedgerEntryRepository;
+import org.example.escrow.repository.WalletRepository;
+import org.example.escrow.service.LedgerPostingService.Journal;
+import org.example.escrow.service.LedgerPostingService.Leg;
+import org.example.escrow.service.SystemAccountService.SystemAccount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerPostingServiceTest {
+
+    @Mock private WalletRepository walletRepository;
+    @Mock private LedgerEntryRepository ledgerEntryRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private AppProperties appProperties;
+    @Mock private SystemAccountService systemAccountService;
+
+    private LedgerPostingService postingService;
+    private Wallet kes1;
+    private Wallet kes2;
+    private Wallet usd1;
+    private Wallet usdClearing;
+
+    @BeforeEach
+    void setUp() {
+        when(appProperties.getWalletLocking()).thenReturn(new AppProperties.WalletLocking());
+        postingService = new LedgerPostingService(new WalletMutationService(walletRepository, transactionManager, appProperties),
+                ledgerEntryRepository, walletRepository, systemAccountService);
+
+        kes1 = wallet("KES", "100.00", WalletType.PERSONAL);
+        kes2 = wallet("KES", "0.00", WalletType.ESCROW_HOLDING);
+        usd1 = wallet("USD", "10.00", WalletType.PERSONAL);
+        usdClearing = wallet("USD", "0.00", WalletType.FUNDING_CLEARING);
+        lenient().when(walletRepository.findAllById(any())).thenReturn(List.of(kes1, usd1));
+        for (Wallet system : List.of(kes2, usdClearing)) {
+            lenient().when(systemAccountService.account(system.getId()))
+                    .thenReturn(Optional.of(new SystemAccount(system.getId(), system.getWalletType(), system.getCurrency())));
+            lenient().when(walletRepository.getReferenceById(system.getId())).thenReturn(system);
+        }
+    }
+
+    @Test
+    void post_ShouldApplyAllLegs_WhenBalancedPerCurrency() {
+        UUID txId = UUID.randomUUID();
+        when(ledgerEntryRepository.sumAmountsByCurrency(txId)).thenReturn(List.<Object[]>of(
+                new Object[]{"KES", BigDecimal.ZERO}, new Object[]{"USD", BigDecimal.ZERO}));
+
+        postingService.post(new Journal(txId, List.of(
+                new Leg(kes1.getId(), new BigDecimal("-40.00"), LedgerEntryType.DEBIT, "pay"),
+                new Leg(kes2.getId(), new BigDecimal("40.00"), LedgerEntryType.CREDIT, "hold"),
+                new Leg(usd1.getId(), new BigDecimal("-4.00"), LedgerEntryType.WITHDRAWAL, "out"),
+                new Leg(usdClearing.getId(), new BigDecimal("4.00"), LedgerEntryType.CREDIT, "out")
+        )));
+
+        assertEquals(new BigDecimal("60.00"), kes1.getBalance());
+        assertEquals(new BigDecimal("6.00"), usd1.getBalance());
+    }
+
+    @Test
+    void post_ShouldOnlyWriteTheLedgerLeg_ForSystemAccounts() {
+        UUID txId = UUID.randomUUID();
+        when(ledgerEntryRepository.sumAmountsByCurrency(txId)).thenReturn(List.<Object[]>of(new Object[]{"KES", BigDecimal.ZERO}));
+
+        postingService.post(new Journal(txId, List.of(
+                new Leg(kes1.getId(), new BigDecimal("-40.00"), LedgerEntryType.DEBIT, "pay"),
+                new Leg(kes2.getId(), new BigDecimal("40.00"), LedgerEntryType.CREDIT, "hold")
+        )));
+
+        // Neither loaded (so neither locked nor version-checked) nor updated
+        verify(walletRepository).findAllById(Set.of(kes1.getId()));
+        assertEquals(new BigDecimal("0.00"), kes2.getBalance());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LedgerEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEntryRepository).saveAll(captor.capture());
+        LedgerEntry holdingLeg = captor.getValue().stream().filter(e -> e.getWallet() == kes2).findFirst().orElseThrow();
+        assertEquals(new BigDecimal("40.00"), holdingLeg.getAmount());
+        assertNull(holdingLeg.getWalletVersion());
+    }
+
+    @Test
+    void post_ShouldInsertAllLegsInOneSaveAll() {
+        UUID txId = UUID.randomUUID();
+        when(ledgerEntryRepository.sumAmountsByCurrency(txId)).thenReturn(List.<Object[]>of(new Object[]{"KES", BigDecimal.ZERO}));
+
+        postingService.post(new Journal(txId, List.of(
+                new Leg(kes1.getId(), new BigDecimal("-40.00"), LedgerEntryType.DEBIT, "pay"),
+                new Leg(kes2.getId(), new BigDecimal("40.00"), LedgerEntryType.CREDIT, "hold")
+        )));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LedgerEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEntryRepository).saveAll(captor.capture());
+        verify(ledgerEntryRepository, never()).save(any());
+        assertEquals(2, captor.getValue().size());
+        assertTrue(captor.getValue().stream().allMatch(e -> e.getTransactionId().equals(txId)));
+    }
+
+    @Test
+    void post_ShouldReject_WhenLegsDoNotSumToZeroPerCurrency() {
+        // Zero overall, but KES and USD are each out of balance
+        Journal journal = new Journal(UUID.randomUUID(), List.of(
+                new Leg(kes1.getId(), new BigDecimal("-10.00"), LedgerEntryType.DEBIT, "pay"),
+                new Leg(usdClearing.getId(), new BigDecimal("10.00"), LedgerEntryType.CREDIT, "hold")
+        ));
+
+        assertThrows(IllegalArgumentException.class, () -> postingService.post(journal));
+        assertEquals(new BigDecimal("100.00"), kes1.getBalance());
+        verify(ledgerEntryRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void post_ShouldFail_WhenWrittenLedgerIsOutOfBalance() {
+        UUID txId = UUID.randomUUID();
+        // e.g. a stray single-legged entry already recorded under the same transaction id
+        when(ledgerEntryRepository.sumAmountsByCurrency(txId)).thenReturn(List.<Object[]>of(new Object[]{"KES", new BigDecimal("5.00")}));
+
+        assertThrows(IllegalStateException.class, () -> postingService.post(new Journal(txId, List.of(
+                new Leg(kes1.getId(), new BigDecimal("-40.00"), LedgerEntryType.DEBIT, "pay"),
+                new Leg(kes2.getId(), new BigDecimal("40.00"), LedgerEntryType.CREDIT, "hold")
+        ))));
+    }
+
+    @Test
+    void post_ShouldLoadEachWalletOnce_WhenLegsShareAWallet() {
+        UUID txId = UUID.randomUUID();
+        when(ledgerEntryRepository.sumAmountsByCurrency(txId)).thenReturn(List.<Object[]>of(new Object[]{"KES", BigDecimal.ZERO}));
+
+        postingService.post(new Journal(txId, List.of(
+                new Leg(kes1.getId(), new BigDecimal("-40.00"), LedgerEntryType.DEBIT, "price"),
+                new Leg(kes1.getId(), new BigDecimal("-2.00"), LedgerEntryType.DEBIT, "fee"),
+                new Leg(kes2.getId(), new BigDecimal("42.00"), LedgerEntryType.CREDIT, "hold")
+        )));
+
+        verify(walletRepository).findAllById(Set.of(kes1.getId()));
+        assertEquals(new BigDecimal("58.00"), kes1.getBalance());
+    }
+
+    private static Wallet wallet(String currency, String balance, WalletType type) {
+        Wallet wallet = Wallet.builder().balance(new BigDecimal(balance)).currency(currency).walletType(type).build();
+        wallet.setId(UUID.randomUUID());
+        return wallet;
+    }
+}
@@ -0,0 +1,215 @@
+package org.example.escrow.service;
+
+import org.example.escrow.config.AppProperties;
+import org.example.escrow.dto.wallet.BalanceDiscrepancy;
+import org.example.escrow.dto.wallet.ReconciliationReport;
+import org.example.escrow.model.BalanceCheckpoint;
+import org.example.escrow.model.Wallet;
+import org.example.escrow.model.enums.WalletType;
+import org.example.escrow.repository.BalanceCheckpointRepository;
+import org.example.escrow.repository.BalanceCheckpointRepository.WalletReplayTotals;
+import org.example.escrow.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerReconciliationServiceTest {
+
+    @Mock private BalanceCheckpointRepository checkpointRepository;
+    @Mock private WalletRepository walletRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private AppProperties appProperties;
+
+    private AppProperties.Reconciliation config;
+    private LedgerReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        config = new AppProperties.Reconciliation();
+        when(appProperties.getReconciliation()).thenReturn(config);
+        reconciliationService = new LedgerReconciliationService(checkpointRepository, walletRepository, transactionManager, appProperties);
+    }
+
+    @Test
+    void reconcile_ShouldAddEntriesSinceCheckpoint_AndMoveItForward() {
+        // Checkpoint: 100.00 over 6 entries up to version 3; since then 2 entries worth 50.00
+        BalanceCheckpoint checkpoint = checkpoint("100.00", 3L, 6L);
+        Row row = new Row(UUID.randomUUID(), "150.00", 4L, checkpoint, "50.00", 2L, null);
+        when(checkpointRepository.findTotalsSinceCheckpoint(any(), any(), any())).thenReturn(List.of(row));
+        when(checkpointRepository.findAllById(List.of(checkpoint.getId()))).thenReturn(List.of(checkpoint));
+
+        ReconciliationReport report = reconciliationService.reconcile();
+
+        assertTrue(report.getDiscrepancies().isEmpty());
+        assertEquals(1, report.getWalletsChecked());
+        assertEquals(2, report.getEntriesRead());
+        assertEquals(1, report.getCheckpointsWritten());
+        assertEquals(new BigDecimal("150.00"), checkpoint.getBalance());
+        assertEquals(4L, checkpoint.getWalletVersion());
+        assertEquals(8L, checkpoint.getEntryCount());
+        assertSame(report, reconciliationService.getLastReport().orElseThrow());
+    }
+
+    @Test
+    void reconcile_ShouldReportMismatch_AndCheckpointTheLedgerBalance() {
+        // No checkpoint yet: the whole ledger says 80.00, the wallet says 100.00
+        Row row = new Row(UUID.randomUUID(), "100.00", 5L, null, "80.00", 5L, null);
+        when(checkpointRepository.findTotalsSinceCheckpoint(any(), any(), any())).thenReturn(List.of(row));
+        when(walletRepository.getReferenceById(row.walletId)).thenReturn(new Wallet());
+
+        ReconciliationReport report = reconciliationService.reconcile();
+
+        BalanceDiscrepancy discrepancy = report.getDiscrepancies().get(0);
+        assertEquals(BalanceDiscrepancy.Kind.BALANCE_MISMATCH, discrepancy.getKind());
+        assertEquals(new BigDecimal("80.00"), discrepancy.getExpected());
+        assertEquals(new BigDecimal("20.00"), discrepancy.getDifference());
+
+        BalanceCheckpoint written = savedCheckpoints().get(0);
+        assertEquals(new BigDecimal("80.00"), written.getBalance()); // The ledger, not the wallet
+        assertEquals(5L, written.getWalletVersion());
+    }
+
+    @Test
+    void reconcile_ShouldLeaveCheckpoint_WhenWalletHasNotMoved() {
+        Row row = new Row(UUID.randomUUID(), "100.00", 3L, checkpoint("100.00", 3L, 6L), "0", 0L, null);
+        when(checkpointRepository.findTotalsSinceCheckpoint(any(), any(), any())).thenReturn(List.of(row));
+
+        ReconciliationReport report = reconciliationService.reconcile();
+
+        assertTrue(report.getDiscrepancies().isEmpty());
+        assertEquals(0, report.getCheckpointsWritten());
+        verify(checkpointRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void reconcile_ShouldPageThroughWallets_ByWalletId() {
+        config.setBatchSize(2);
+        Row first = new Row(UUID.randomUUID(), "0", 0L, null, "0", 0L, null);
+        Row second = new Row(UUID.randomUUID(), "0", 0L, null, "0", 0L, null);
+        Row third = new Row(UUID.randomUUID(), "0", 0L, null, "0", 0L, null);
+        when(checkpointRepository.findTotalsSinceCheckpoint(eq(new UUID(0L, 0L)), any(), any())).thenReturn(List.of(first, second));
+        when(checkpointRepository.findTotalsSinceCheckpoint(eq(second.walletId), any(), any())).thenReturn(List.of(third));
+        when(walletRepository.getReferenceById(any())).thenReturn(new Wallet());
+
+        ReconciliationReport report = reconciliationService.reconcile();
+
+        assertEquals(3, report.getWalletsChecked());
+        verify(checkpointRepository, times(2)).findTotalsSinceCheckpoint(any(), eq(WalletType.SYSTEM_ACCOUNTS), any(Pageable.class));
+    }
+
+    @Test
+    void replay_ShouldCoverEveryWalletOnce_AndReportWrongCheckpoints() {
+        config.setBatchSize(2);
+        config.setReplayParallelism(2);
+        List<UUID> walletIds = IntStream.range(0, 5).mapToObj(i -> UUID.randomUUID()).toList();
+        when(walletRepository.findAllIds()).thenReturn(walletIds);
+        UUID tampered = walletIds.get(3);
+        BalanceCheckpoint wrong = checkpoint("999.00", 1L, 1L);
+        lenient().when(checkpointRepository.findAllById(List.of(wrong.getId()))).thenReturn(List.of(wrong));
+
+        // Every wallet: 10.00 in the ledger and in the wallet; one has a checkpoint that says 999.00
+        List<UUID> seen = Collections.synchronizedList(new ArrayList<>());
+        when(checkpointRepository.replayTotals(anyCollection(), any())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(0);
+            seen.addAll(ids);
+            return ids.stream()
+                    .map(id -> (WalletReplayTotals) new Row(id, "10.00", 2L, id.equals(tampered) ? wrong : null, "10.00", 2L, "4.00"))
+                    .toList();
+        });
+        when(walletRepository.getReferenceById(any())).thenReturn(new Wallet());
+
+        ReconciliationReport report = reconciliationService.replay();
+
+        assertEquals(ReconciliationReport.Mode.FULL_REPLAY, report.getMode());
+        assertEquals(5, report.getWalletsChecked());
+        assertEquals(5, seen.size());
+        assertEquals(Set.copyOf(walletIds), Set.copyOf(seen));
+        verify(checkpointRepository, times(3)).replayTotals(anyCollection(), eq(WalletType.SYSTEM_ACCOUNTS)); // 5 -> 2 | 1 + 2
+
+        BalanceDiscrepancy discrepancy = report.getDiscrepancies().get(0);
+        assertEquals(1, report.getDiscrepancies().size());
+        assertEquals(BalanceDiscrepancy.Kind.CHECKPOINT_MISMATCH, discrepancy.getKind());
+        assertEquals(tampered, discrepancy.getWalletId());
+        assertEquals(new BigDecimal("4.00"), discrepancy.getExpected());
+        // Re-based on the replayed ledger
+        assertEquals(new BigDecimal("10.00"), wrong.getBalance());
+        assertEquals(2L, wrong.getWalletVersion());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<BalanceCheckpoint> savedCheckpoints() {
+        ArgumentCaptor<List<BalanceCheckpoint>> captor = ArgumentCaptor.forClass(List.class);
+        verify(checkpointRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static BalanceCheckpoint checkpoint(String balance, long walletVersion, long entryCount) {
+        BalanceCheckpoint checkpoint = BalanceCheckpoint.builder()
+                .balance(new BigDecimal(balance)).walletVersion(walletVersion).entryCount(entryCount).build();
+        checkpoint.setId(UUID.randomUUID());
+        return checkpoint;
+    }
+
+    // What the reconciliation queries return for one wallet
+    private static final class Row implements WalletReplayTotals {
+        final UUID walletId;
+        final BigDecimal walletBalance;
+        final Long walletVersion;
+        final UUID checkpointId;
+        final BigDecimal checkpointBalance;
+        final Long checkpointVersion;
+        final Long checkpointEntryCount;
+        final BigDecimal ledgerSum;
+        final Long entriesRead;
+        final BigDecimal ledgerBeforeCheckpoint;
+
+        Row(UUID walletId, String walletBalance, Long walletVersion, BalanceCheckpoint checkpoint,
+            String ledgerSum, Long entriesRead, String ledgerBeforeCheckpoint) {
+            this.walletId = walletId;
+            this.walletBalance = new BigDecimal(walletBalance);
+            this.walletVersion = walletVersion;
+            // Read once, like a query result: the service updates the checkpoint afterwards
+            this.checkpointId = checkpoint != null ? checkpoint.getId() : null;
+            this.checkpointBalance = checkpoint != null ? checkpoint.getBalance() : null;
+            this.checkpointVersion = checkpoint != null ? checkpoint.getWalletVersion() : null;
+            this.checkpointEntryCount = checkpoint != null ? checkpoint.getEntryCount() : null;
+            this.ledgerSum = new BigDecimal(ledgerSum);
+            this.entriesRead = entriesRead;
+            this.ledgerBeforeCheckpoint = ledgerBeforeCheckpoint != null ? new BigDecimal(ledgerBeforeCheckpoint) : null;
+        }
+
+        @Override public UUID getWalletId() { return walletId; }
+        @Override public String getCurrency() { return "KES"; }
+        @Override public WalletType getWalletType() { return WalletType.PERSONAL; }
+        @Override public BigDecimal getWalletBalance() { return walletBalance; }
+        @Override public Long getWalletVersion() { return walletVersion; }
+        @Override public UUID getCheckpointId() { return checkpointId; }
+        @Override public BigDecimal getCheckpointBalance() { return checkpointBalance; }
+        @Override public Long getCheckpointVersion() { return checkpointVersion; }
+        @Override public Long getCheckpointEntryCount() { return checkpointEntryCount; }
+        @Override public BigDecimal getLedgerSum() { return ledgerSum; }
+        @Override public Long getEntriesRead() { return entriesRead; }
+        @Override public BigDecimal getLedgerBeforeCheckpoint() { return ledgerBeforeCheckpoint; }
+    }
+}
@@ -11,6 +11,7 @@ import org.example.escrow.model.enums.UserRole;
 import org.example.escrow.repository.MerchantProfileRepository;
 import org.example.escrow.repository.MerchantServiceRepository;
 import org.example.escrow.repository.UserRepository;
+import org.example.escrow.security.AuthenticatedUserCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -34,6 +35,7 @@ class MerchantPortalServiceImplTest {
     @Mock private UserRepository userRepository;
     @Mock private AppProperties appProperties;
     @Mock private AppProperties.Escrow escrowProps;
+    @Mock private AuthenticatedUserCache authenticatedUserCache;
 
     @InjectMocks
     private MerchantPortalServiceImpl merchantService;
@@ -80,6 +82,7 @@ class MerchantPortalServiceImplTest {
         assertEquals("My Shop", result.getBusinessName());
         verify(userRepository).save(user); // Should update role
         assertEquals(UserRole.ROLE_MERCHANT, user.getRole());
+        verify(authenticatedUserCache).evict(userId); // Cached principal must pick up the new role
     }
 
     @Test
@@ -0,0 +1,117 @@
+package org.example.escrow.service;
+
+import org.example.escrow.config.AppProperties;
+import org.example.escrow.dto.wallet.WalletContentionResponse;
+import org.example.escrow.exception.ResourceNotFoundException;
+import org.example.escrow.model.User;
+import org.example.escrow.model.Wallet;
+import org.example.escrow.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletMutationServiceTest {
+
+    @Mock private WalletRepository walletRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private AppProperties appProperties;
+
+    private AppProperties.WalletLocking config;
+    private WalletMutationService mutationService;
+    private Wallet wallet;
+    private UUID userId;
+    private Set<UUID> ids;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        User user = User.builder().email("hot@test.com").build();
+        user.setId(userId);
+
+        wallet = Wallet.builder().user(user).balance(new BigDecimal("100.00")).currency("KES").build();
+        wallet.setId(UUID.randomUUID());
+
+        config = new AppProperties.WalletLocking();
+        config.setMaxAttempts(3);
+        config.setBackoffBaseMillis(1);
+        config.setBackoffMaxMillis(2);
+        config.setHotConflictThreshold(2);
+        when(appProperties.getWalletLocking()).thenReturn(config);
+
+        mutationService = new WalletMutationService(walletRepository, transactionManager, appProperties);
+        ids = Set.of(wallet.getId());
+        lenient().when(walletRepository.findAllById(ids)).thenReturn(List.of(wallet));
+        lenient().when(walletRepository.findAllByIdForUpdate(ids)).thenReturn(List.of(wallet));
+    }
+
+    @Test
+    void mutate_ShouldRetry_WhenOptimisticLockConflict() {
+        doThrow(conflict()).doNothing().when(walletRepository).flush();
+
+        mutationService.mutate(ids, wallets -> wallets.get(wallet.getId()).getBalance().add(BigDecimal.ONE));
+
+        verify(walletRepository, times(2)).findAllById(ids);
+        verify(walletRepository, never()).findAllByIdForUpdate(any());
+        WalletContentionResponse stats = mutationService.getContention(10).get(0);
+        assertEquals(userId, stats.getUserId());
+        assertEquals(1, stats.getConflicts());
+        assertEquals(1, stats.getMutations());
+        assertFalse(stats.isHot());
+    }
+
+    @Test
+    void mutate_ShouldTakePessimisticLock_OnLastAttempt() {
+        config.setHotConflictThreshold(100); // Keep the wallet from turning hot
+        doThrow(conflict()).doThrow(conflict()).doNothing().when(walletRepository).flush();
+
+        mutationService.mutate(ids, wallets -> null);
+
+        verify(walletRepository, times(2)).findAllById(ids);
+        verify(walletRepository, times(1)).findAllByIdForUpdate(ids);
+        assertEquals(1, mutationService.getContention(10).get(0).getPessimisticLocks());
+    }
+
+    @Test
+    void mutate_ShouldLockUpFront_WhenWalletIsHot() {
+        config.setMaxAttempts(10);
+        doThrow(conflict()).doThrow(conflict()).doNothing().when(walletRepository).flush();
+
+        // Two conflicts make the wallet hot: the third attempt and the next call lock first
+        mutationService.mutate(ids, wallets -> null);
+        mutationService.mutate(ids, wallets -> null);
+
+        verify(walletRepository, times(2)).findAllById(ids);
+        verify(walletRepository, times(2)).findAllByIdForUpdate(ids);
+        List<WalletContentionResponse> contention = mutationService.getContention(10);
+        assertEquals(wallet.getId(), contention.get(0).getWalletId());
+        assertTrue(contention.get(0).isHot());
+    }
+
+    @Test
+    void mutate_ShouldThrow_WhenWalletMissing() {
+        UUID missing = UUID.randomUUID();
+        Set<UUID> both = Set.of(wallet.getId(), missing);
+        when(walletRepository.findAllById(new TreeSet<>(both))).thenReturn(List.of(wallet));
+
+        assertThrows(ResourceNotFoundException.class, () -> mutationService.mutate(both, wallets -> null));
+        verify(walletRepository, never()).flush();
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException(Wallet.class, UUID.randomUUID());
+    }
+}
@@ -3,19 +3,25 @@ package org.example.escrow.service;
 import org.example.escrow.config.AppProperties;
 import org.example.escrow.dto.wallet.DepositRequest;
 import org.example.escrow.exception.BusinessLogicException;
+import org.example.escrow.model.LedgerEntry;
 import org.example.escrow.model.User;
 import org.example.escrow.model.Wallet;
+import org.example.escrow.model.enums.WalletType;
 import org.example.escrow.repository.LedgerEntryRepository;
 import org.example.escrow.repository.WalletRepository;
+import org.example.escrow.service.SystemAccountService.SystemAccount;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,12 +35,15 @@ class WalletServiceImplTest {
     @Mock private LedgerEntryRepository ledgerEntryRepository;
     @Mock private AppProperties appProperties;
     @Mock private AppProperties.Escrow escrowProps;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private SystemAccountService systemAccountService;
 
-    @InjectMocks
     private WalletServiceImpl walletService;
 
     private User user;
     private Wallet wallet;
+    private Wallet clearing;
+    private Wallet holding;
     private UUID userId;
 
     @BeforeEach
@@ -57,9 +66,31 @@ class WalletServiceImplTest {
                 .build();
         wallet.setId(UUID.randomUUID());
 
+        clearing = Wallet.builder().balance(BigDecimal.ZERO).currency("KES").walletType(WalletType.FUNDING_CLEARING).build();
+        clearing.setId(UUID.randomUUID());
+        holding = Wallet.builder().balance(BigDecimal.ZERO).currency("KES").walletType(WalletType.ESCROW_HOLDING).build();
+        holding.setId(UUID.randomUUID());
+
         // Lenient allows stubbing even if not called in every single test method
         lenient().when(appProperties.getEscrow()).thenReturn(escrowProps);
         lenient().when(escrowProps.getDefaultCurrency()).thenReturn("KES");
+        lenient().when(appProperties.getWalletLocking()).thenReturn(new AppProperties.WalletLocking());
+        lenient().when(walletRepository.findIdByUserIdAndCurrency(userId, "KES")).thenReturn(Optional.of(wallet.getId()));
+        lenient().when(systemAccountService.walletId(WalletType.FUNDING_CLEARING, "KES")).thenReturn(clearing.getId());
+        lenient().when(systemAccountService.walletId(WalletType.ESCROW_HOLDING, "KES")).thenReturn(holding.getId());
+        lenient().when(systemAccountService.account(clearing.getId()))
+                .thenReturn(Optional.of(new SystemAccount(clearing.getId(), WalletType.FUNDING_CLEARING, "KES")));
+        lenient().when(systemAccountService.account(holding.getId()))
+                .thenReturn(Optional.of(new SystemAccount(holding.getId(), WalletType.ESCROW_HOLDING, "KES")));
+        lenient().when(walletRepository.getReferenceById(clearing.getId())).thenReturn(clearing);
+        lenient().when(walletRepository.getReferenceById(holding.getId())).thenReturn(holding);
+        lenient().when(ledgerEntryRepository.sumAmountsByCurrency(any())).thenReturn(List.<Object[]>of(new Object[]{"KES", BigDecimal.ZERO}));
+
+        // Real posting engine and mutation layer over the mocked repositories
+        // (the mocked transaction manager is a no-op)
+        WalletMutationService walletMutationService = new WalletMutationService(walletRepository, transactionManager, appProperties);
+        LedgerPostingService ledgerPostingService = new LedgerPostingService(walletMutationService, ledgerEntryRepository, walletRepository, systemAccountService);
+        walletService = new WalletServiceImpl(walletRepository, ledgerEntryRepository, appProperties, ledgerPostingService, systemAccountService);
     }
 
     @Test
@@ -69,36 +100,39 @@ class WalletServiceImplTest {
         request.setAmount(new BigDecimal("500.00"));
         request.setCurrency("KES");
 
-        when(walletRepository.findByUserIdAndCurrency(userId, "KES")).thenReturn(Optional.of(wallet));
-        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // Only the user's wallet is loaded: the clearing account is ledger-only
+        when(walletRepository.findAllById(Set.of(wallet.getId()))).thenReturn(List.of(wallet));
 
         // Act
         Wallet result = walletService.depositFunds(userId, request);
 
         // Assert
         assertEquals(new BigDecimal("1500.00"), result.getBalance()); // 1000 + 500
-        verify(ledgerEntryRepository, times(1)).save(any()); // Ensure audit log is created
+        assertEquals(BigDecimal.ZERO, clearing.getBalance()); // Its row is never updated
+        List<LedgerEntry> legs = assertBalancedLegs(2); // Ensure both legs of the audit log are created
+        assertTrue(legs.stream().anyMatch(e -> e.getWallet() == clearing
+                && e.getAmount().equals(new BigDecimal("-500.00")) && e.getWalletVersion() == null));
     }
 
     @Test
     void deductFunds_ShouldDecreaseBalance_WhenEnoughFunds() {
         // Arrange
         BigDecimal deduction = new BigDecimal("200.00");
-        when(walletRepository.findByUserIdAndCurrency(userId, "KES")).thenReturn(Optional.of(wallet));
+        when(walletRepository.findAllById(Set.of(wallet.getId()))).thenReturn(List.of(wallet));
 
         // Act
         walletService.deductFunds(userId, deduction, "KES", "Payment");
 
         // Assert
         assertEquals(new BigDecimal("800.00"), wallet.getBalance()); // 1000 - 200
-        verify(ledgerEntryRepository, times(1)).save(any());
+        assertBalancedLegs(2);
     }
 
     @Test
     void deductFunds_ShouldThrowException_WhenInsufficientFunds() {
         // Arrange
         BigDecimal largeDeduction = new BigDecimal("5000.00"); // More than 1000 balance
-        when(walletRepository.findByUserIdAndCurrency(userId, "KES")).thenReturn(Optional.of(wallet));
+        when(walletRepository.findAllById(Set.of(wallet.getId()))).thenReturn(List.of(wallet));
 
         // Act & Assert
         assertThrows(BusinessLogicException.class, () ->
@@ -107,6 +141,32 @@ class WalletServiceImplTest {
 
         // Verify balance didn't change and nothing was saved
         assertEquals(new BigDecimal("1000.00"), wallet.getBalance());
-        verify(walletRepository, never()).save(any());
+        verify(ledgerEntryRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void holdInEscrow_ShouldCreditHoldingAccount_UnderEscrowTransactionId() {
+        // Arrange
+        UUID escrowTxId = UUID.randomUUID();
+        when(walletRepository.findAllById(Set.of(wallet.getId()))).thenReturn(List.of(wallet));
+
+        // Act
+        walletService.holdInEscrow(userId, escrowTxId, new BigDecimal("300.00"), "KES", "Escrow Payment");
+
+        // Assert
+        assertEquals(new BigDecimal("700.00"), wallet.getBalance());
+        List<LedgerEntry> legs = assertBalancedLegs(2);
+        assertTrue(legs.stream().anyMatch(e -> e.getWallet() == holding && e.getAmount().equals(new BigDecimal("300.00"))));
+        assertTrue(legs.stream().allMatch(e -> e.getTransactionId().equals(escrowTxId)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LedgerEntry> assertBalancedLegs(int expectedLegs) {
+        ArgumentCaptor<List<LedgerEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEntryRepository).saveAll(captor.capture());
+        List<LedgerEntry> legs = captor.getValue();
+        assertEquals(expectedLegs, legs.size());
+        assertEquals(0, legs.stream().map(LedgerEntry::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add).signum());
+        return legs;
     }
-}
\ No newline at end of file
+}